@@ -10,75 +10,154 @@ import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.chessgame.db.Autosave;
 import com.example.chessgame.db.DatabaseHelper;
 import com.example.chessgame.logic.AIPlayer;
+import com.example.chessgame.logic.EngineCalibration;
+import com.example.chessgame.logic.GameJournal;
+import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.LegalMoves;
+import com.example.chessgame.logic.NnueNetwork;
+import com.example.chessgame.logic.Pgn;
+import com.example.chessgame.logic.PositionSnapshot;
+import com.example.chessgame.logic.San;
+import com.example.chessgame.logic.SearchBudget;
+import com.example.chessgame.logic.SearchEngine;
+import com.example.chessgame.logic.TimeManager;
 import com.example.chessgame.ui.ChessBoardView;
 import com.google.android.material.appbar.MaterialToolbar;
 
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * ChessActivity.java
  * --------------------------------------------
  * Màn hình chính của trò chơi cờ vua.
  * - Hiển thị bàn cờ (ChessBoardView)
  * - Quản lý AIPlayer (nếu đấu máy)
- * - Cập nhật trạng thái / lưu lịch sử / restart ván
+ * - Cập nhật trạng thái / lưu lịch sử / chia sẻ PGN / restart ván
  *
  * 🧠 Lưu ý:
- *  - Sử dụng Handler + Runnable thay vì while(true) để tránh đơ / leak.
- *  - Khi ván kết thúc (checkmate / hòa) → AI dừng hoàn toàn.
+ *  - Hướng sự kiện: lắng nghe GameManager.GameListener (nước đi / đổi lượt / kết thúc ván),
+ *    không hỏi vòng → không có lần thức dậy nào khi không có gì thay đổi.
+ *  - AI bắt đầu ngay khi nước của người chơi được commit (onTurnChange), không chờ chu kỳ 500ms.
+ *  - AI nghĩ trên luồng "engine" riêng (AIPlayer.MoveTask), nước được commit lại trên main thread
+ *    → UI / đồng hồ vẫn chạy trong lúc AI nghĩ; undo / restart / thoát → hủy lượt nghĩ dở.
+ *  - Khi ván kết thúc (checkmate / hòa / hết giờ) → onGameOver: lưu lịch sử + dialog đúng 1 lần.
+ *  - AI không còn "nghỉ" cố định sau mỗi nước: thời gian suy nghĩ lấy từ đồng hồ (TimeManager).
+ *  - Ván dở được tự lưu (Autosave → GameJournal); mở lại cùng chế độ → hỏi tiếp tục, phát lại bằng
+ *    GameManager.replay (chỉ make, không sinh nước).
  */
 public class ChessActivity extends AppCompatActivity {
 
     private ChessBoardView chessBoard;        // View hiển thị bàn cờ và nhận tương tác
     private DatabaseHelper db;                // Quản lý SQLite để lưu lịch sử
     private AIPlayer aiPlayer;                // Trí tuệ nhân tạo (nếu đấu với máy)
+    private SearchEngine hintEngine;          // Engine phân tích cho nút Gợi ý (tạo khi cần)
+    private SearchBudget hintBudget;          // Giới hạn node của Gợi ý theo tốc độ máy (tạo khi cần)
+    private boolean hintRunning = false;      // Đang phân tích gợi ý trên luồng engine
+    private Autosave autosave;                // Nhật ký tự lưu ván đang chơi
     private boolean aiEnabled = false;        // Cờ bật chế độ đấu với máy
     private TextView txtStatus;               // TextView hiển thị lượt đi
-    private int aiLevel = 1;                  // Mức độ AI (1–3)
+    private int aiLevel = 1;                  // Mức độ AI (1–4, 4 = NNUE)
     private final Handler handler = new Handler(); // Handler điều phối tác vụ trên UI thread
+    private AIPlayer.MoveTask aiTask;         // Lượt nghĩ đang chạy của AI (null nếu không có)
+    // Luồng tìm kiếm duy nhất: AI + gợi ý chạy nối tiếp, không bao giờ 2 lần tìm song song
+    private final ExecutorService engineThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "engine");
+        t.setDaemon(true);
+        return t;
+    });
     private static final String TAG = "ChessActivity"; // Tag debug log
 
+    // Gợi ý: tối đa độ sâu 4, dừng mềm ~0.8s / cứng 2s dù máy chậm tới đâu
+    private static final int HINT_DEPTH = 4;
+    private static final int HINT_LINES = 3;
+    private static final long HINT_SOFT_MS = 800;
+    private static final long HINT_HARD_MS = 2_000;
+    private static final int EXPLORER_GAMES = 10;   // số ván gần nhất qua vị trí hiển thị trong explorer
+
     /**
-     * Runnable AI — được Handler gọi định kỳ.
-     * Tự động kiểm tra:
-     *   - Nếu tới lượt AI và game chưa kết thúc → AI đi nước.
-     *   - Nếu chưa tới lượt → kiểm tra lại sau một khoảng ngắn.
-     *   - Nếu ván đã kết thúc → dừng hẳn scheduling.
+     * Lượt AI — post 1 lần mỗi khi tới lượt AI (onTurnChange), không tự lặp lại.
+     * Chụp vị trí trên main thread, tìm trên engineThread, commit lại trên main thread
+     * (kết quả cũ bị bỏ nếu ván đã đổi / lượt bị hủy).
      */
-    private final Runnable aiRunnable = new Runnable() {
+    private final Runnable aiTurn = new Runnable() {
         @Override
         public void run() {
-            // Nếu AI được bật và chưa game over
-            if (aiEnabled && !chessBoard.getGameManager().isGameOver()) {
-
-                // 🔸 Kiểm tra có phải lượt của AI không (AI là quân Đen)
-                if (!chessBoard.getGameManager().isWhiteTurn()) {
-                    boolean moved = aiPlayer.makeBestMove(false); // false = quân Đen
-
-                    if (!moved) {
+            var gm = chessBoard.getGameManager();
+            if (!aiEnabled || gm.isGameOver() || gm.isWhiteTurn()) return; // AI là quân Đen
+
+            cancelAiTask();
+            AIPlayer.MoveTask task = aiTask = aiPlayer.prepareMove(false);
+            chessBoard.setInputEnabled(false);
+            engineThread.execute(() -> {
+                int move = task.search();
+                handler.post(() -> {
+                    if (aiTask != task) return;     // đã bị hủy / thay bằng lượt mới
+                    aiTask = null;
+                    chessBoard.setInputEnabled(true);
+                    // Nước của AI lại phát onMove / onTurnChange / onGameOver → UI cập nhật ở listener
+                    if (!task.commit(move)) {
                         Log.w(TAG, "⚠️ AI không tìm được nước đi (có thể bị chiếu bí hoặc hòa)");
-                    } else {
-                        // AI đi xong → cập nhật giao diện
-                        chessBoard.invalidate();
-                        updateStatus();
                     }
+                });
+            });
+        }
+    };
 
-                    // Nếu game chưa kết thúc sau nước AI → lên lịch gọi lại (AI “suy nghĩ” 1.2s)
-                    if (!chessBoard.getGameManager().isGameOver()) {
-                        handler.postDelayed(this, 1200);
-                    } else {
-                        Log.d(TAG, "✅ Game kết thúc sau nước đi AI → dừng scheduling");
-                    }
-                } else {
-                    // Nếu chưa tới lượt AI → chờ 0.5s rồi kiểm tra lại
-                    handler.postDelayed(this, 500);
-                }
+    /** Hủy lượt nghĩ đang chạy (nếu có): search dừng sớm, kết quả không được commit. */
+    private void cancelAiTask() {
+        handler.removeCallbacks(aiTurn);
+        if (aiTask != null) {
+            aiTask.cancel();
+            aiTask = null;
+        }
+        chessBoard.setInputEnabled(true);
+    }
 
-            } else {
-                // Nếu game đã kết thúc hoặc AI tắt → dừng hoàn toàn
-                Log.d(TAG, "❌ Dừng AI thread: gameOver=" + chessBoard.getGameManager().isGameOver());
-                handler.removeCallbacks(this);
-            }
+    /** Phản ứng với sự kiện của ván: vẽ lại, trạng thái, lượt AI, lưu lịch sử. */
+    private final GameManager.GameListener gameListener = new GameManager.GameListener() {
+        @Override
+        public void onMove(int move, PositionSnapshot after) {
+            chessBoard.invalidate();
+        }
+
+        @Override
+        public void onTurnChange(PositionSnapshot snapshot) {
+            chessBoard.invalidate();
+            updateStatus();
+            cancelAiTask(); // undo / restart / seek trong lúc AI nghĩ → bỏ lượt nghĩ cũ
+            if (aiEnabled && !snapshot.isWhiteToMove()) handler.post(aiTurn);
+        }
+
+        @Override
+        public void onGameOver(PositionSnapshot snapshot) {
+            chessBoard.invalidate();
+            Log.i(TAG, "🏁 GameOver: Winner=" + snapshot.getWinner() + ", totalMoves=" + snapshot.getPly());
+            showGameOverDialog("🏁 Ván kết thúc!\n" + snapshot.getWinner());
+        }
+    };
+
+    /**
+     * Runnable đồng hồ — cập nhật hiển thị mỗi giây và xử lý hết giờ.
+     * Chỉ chạy khi ván có time control.
+     */
+    private final Runnable clockRunnable = new Runnable() {
+        @Override
+        public void run() {
+            var gm = chessBoard.getGameManager();
+            if (!gm.hasClock() || gm.isGameOver()) return;
+            if (gm.checkFlag()) return; // → onGameOver
+            updateStatus();
+            handler.postDelayed(this, 1000);
         }
     };
 
@@ -93,10 +172,15 @@ public class ChessActivity extends AppCompatActivity {
         // Ánh xạ view XML
         chessBoard = findViewById(R.id.chessBoard);
         txtStatus = findViewById(R.id.txtStatus);
-        db = new DatabaseHelper(this);
+        db = DatabaseHelper.getInstance(this);
+
+        // ⏱️ Thể thức thời gian (0 = không giới hạn)
+        long baseMs = getIntent().getLongExtra("TIME_BASE_MS", 0);
+        long incMs = getIntent().getLongExtra("TIME_INC_MS", 0);
+        chessBoard.getGameManager().setTimeControl(baseMs, incMs);
 
-        // Khi người chơi đi nước → cập nhật trạng thái lượt và kiểm tra thắng/thua
-        chessBoard.setOnMoveListener(this::updateStatus);
+        // Nước đi / đổi lượt / kết thúc ván (của người chơi lẫn AI) → gameListener
+        chessBoard.getGameManager().addListener(gameListener);
 
         // ---------------- Toolbar menu ----------------
         MaterialToolbar toolbar = findViewById(R.id.toolbar);
@@ -105,22 +189,29 @@ public class ChessActivity extends AppCompatActivity {
 
             // ⏪ Hoàn tác
             if (id == R.id.mnuUndo) {
-                boolean undone = chessBoard.undoMove();
+                boolean undone = chessBoard.undoMove(); // → onTurnChange
                 if (!undone)
                     Toast.makeText(this, "❌ Không thể hoàn tác!", Toast.LENGTH_SHORT).show();
-                updateStatus();
                 return true;
             }
 
             // 🔄 Restart ván
             else if (id == R.id.mnuRestart) {
-                handler.removeCallbacks(aiRunnable); // dừng AI hiện tại nếu có
-                chessBoard.resetGame();
-                updateStatus();
+                chessBoard.resetGame(); // → onTurnChange (lượt Trắng: hủy lượt AI đang chờ nếu có)
+                startClock();
                 Toast.makeText(this, "🔁 Đã khởi động lại ván cờ", Toast.LENGTH_SHORT).show();
+                return true;
+            }
+
+            // 💡 Gợi ý: 3 nước tốt nhất (Multi-PV), không thay đổi ván đang chơi
+            else if (id == R.id.mnuHint) {
+                showHintDialog();
+                return true;
+            }
 
-                // Nếu đấu máy → khởi động lại AI
-                if (aiEnabled) handler.postDelayed(aiRunnable, 800);
+            // 📚 Khai cuộc: các ván đã lưu từng qua vị trí này
+            else if (id == R.id.mnuExplorer) {
+                showExplorerDialog();
                 return true;
             }
 
@@ -142,11 +233,15 @@ public class ChessActivity extends AppCompatActivity {
         if (aiEnabled) {
             // Lấy cấp độ AI
             aiLevel = getIntent().getIntExtra("AI_LEVEL", 1);
-            aiPlayer = new AIPlayer(chessBoard.getGameManager(), aiLevel);
+            // Số node mỗi mức được kẹp theo tốc độ máy đã đo lúc khởi động (MainActivity)
+            var prefs = getSharedPreferences(MainActivity.PREFS_ENGINE, MODE_PRIVATE);
+            long deviceNps = prefs.getLong(MainActivity.KEY_DEVICE_NPS, EngineCalibration.DEFAULT_NPS);
+            NnueNetwork net = aiLevel == SearchBudget.LEVEL_NNUE ? MainActivity.loadNnueNetwork(this) : null;
+            if (net != null) deviceNps = prefs.getLong(MainActivity.KEY_NNUE_NPS, deviceNps);
+
+            aiPlayer = new AIPlayer(chessBoard.getGameManager(), aiLevel, deviceNps);
+            if (net != null) aiPlayer.setNetwork(net);
             Toast.makeText(this, "🤖 Đấu với máy (Cấp độ " + aiLevel + ")", Toast.LENGTH_SHORT).show();
-
-            // Khởi chạy runnable sau 0.7s (AI kiểm tra điều kiện tự động)
-            handler.postDelayed(aiRunnable, 700);
         } else {
             Toast.makeText(this, "👥 Chế độ 2 người chơi", Toast.LENGTH_SHORT).show();
         }
@@ -154,8 +249,66 @@ public class ChessActivity extends AppCompatActivity {
         // Khi layout thay đổi (xoay màn hình / resize) → cập nhật trạng thái hiển thị
         chessBoard.addOnLayoutChangeListener((v, l, t, r, b, oldl, oldt, oldr, oldb) -> updateStatus());
 
+        // 💾 Tự lưu: đọc ván dở của lần trước (luồng nền) → hỏi tiếp tục, rồi mới bắt đầu ghi nhật ký
+        var gm = chessBoard.getGameManager();
+        autosave = new Autosave(this, gm, new GameJournal.Header(
+                modeLabel(), aiEnabled ? aiLevel : 0, baseMs, incMs, gm.getStartFen()));
+        autosave.load(this::offerResume);
+
         // Cập nhật trạng thái lượt lần đầu
         updateStatus();
+        startClock();
+    }
+
+    /** Tên chế độ lưu trong lịch sử / nhật ký tự lưu. */
+    private String modeLabel() {
+        return aiEnabled ? "Đấu máy (Level " + aiLevel + ")" : "2 người";
+    }
+
+    // ===========================================================
+    // 💾 offerResume() — tiếp tục ván dở từ nhật ký tự lưu
+    // ===========================================================
+    private void offerResume(GameJournal.Saved saved) {
+        if (isDestroyed()) return;
+        var gm = chessBoard.getGameManager();
+        // Khác chế độ / người chơi đã đi trong lúc chờ đọc → không hỏi; nhật ký cũ bị ghi đè ở nước kế tiếp
+        if (!autosave.matches(saved) || gm.getTotalMoves() > 0) {
+            gm.addListener(autosave);
+            return;
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("💾 Ván đang dở")
+                .setMessage("Tiếp tục ván " + saved.header.mode + " của lần trước ("
+                        + saved.moves.length + " nửa nước)?")
+                .setCancelable(false)
+                .setPositiveButton("Tiếp tục", (d, w) -> {
+                    // Đăng ký trước: sau replay, Autosave ghi lại nhật ký gọn (không còn bản ghi UNDO)
+                    gm.addListener(autosave);
+                    long t0 = System.nanoTime();
+                    // Kèm đồng hồ đã lưu → onTurnChange / onGameOver
+                    int applied = gm.replay(saved.header.startFen, saved.moves, saved.whiteMs, saved.blackMs);
+                    Log.d(TAG, "💾 Tiếp tục ván: " + applied + "/" + saved.moves.length + " nửa nước, "
+                            + (System.nanoTime() - t0) / 1000 + " µs");
+                    startClock();
+                })
+                .setNegativeButton("Ván mới", (d, w) -> {
+                    autosave.discard();
+                    gm.addListener(autosave);
+                })
+                .show();
+    }
+
+    /** Bắt đầu (lại) vòng cập nhật đồng hồ nếu ván có time control. */
+    private void startClock() {
+        handler.removeCallbacks(clockRunnable);
+        if (chessBoard.getGameManager().hasClock()) handler.postDelayed(clockRunnable, 1000);
+    }
+
+    /** Định dạng mm:ss cho đồng hồ. */
+    private static String formatClock(long ms) {
+        long totalSec = (ms + 999) / 1000;
+        return String.format(java.util.Locale.US, "%02d:%02d", totalSec / 60, totalSec % 60);
     }
 
     // ===========================================================
@@ -164,67 +317,209 @@ public class ChessActivity extends AppCompatActivity {
     private void updateStatus() {
         var gm = chessBoard.getGameManager();
 
-        // Nếu ván kết thúc → hiện dialog và dừng AI
+        // Ván kết thúc: dialog + lưu lịch sử do onGameOver lo (đúng 1 lần), ở đây chỉ hiển thị
         if (gm.isGameOver()) {
-            String winner = gm.getWinner();
-            Log.i(TAG, "🏁 GameOver: Winner=" + winner + ", totalMoves=" + gm.getTotalMoves());
-            showGameOverDialog("🏁 Ván kết thúc!\n" + winner);
+            txtStatus.setText("🏁 " + gm.getWinner());
+            return;
+        }
+
+        // Nếu chưa kết thúc → hiển thị lượt hiện tại (+ đồng hồ nếu có)
+        String status = "Lượt: " + (gm.isWhiteTurn() ? "Trắng" : "Đen");
+        if (gm.hasClock()) {
+            status += "   ⏱ Trắng " + formatClock(gm.getRemainingMs(true))
+                    + " | Đen " + formatClock(gm.getRemainingMs(false));
+        }
+        txtStatus.setText(status);
+    }
+
+    // ===========================================================
+    // 💡 showHintDialog() — phân tích Multi-PV vị trí hiện tại
+    // ===========================================================
+    private void showHintDialog() {
+        var gm = chessBoard.getGameManager();
+        if (gm.isGameOver() || hintRunning) return;
+        if (aiTask != null) {
+            Toast.makeText(this, "🤖 Máy đang nghĩ...", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        if (hintEngine == null) {
+            hintEngine = new SearchEngine();
+            var prefs = getSharedPreferences(MainActivity.PREFS_ENGINE, MODE_PRIVATE);
+            long deviceNps = prefs.getLong(MainActivity.KEY_DEVICE_NPS, EngineCalibration.DEFAULT_NPS);
+            hintBudget = new SearchBudget(HINT_DEPTH, Math.max(1, deviceNps * HINT_HARD_MS / 1000), 0);
+        }
+
+        // Chụp vị trí trên main thread, phân tích trên luồng engine, hiện dialog khi xong
+        SearchEngine engine = hintEngine;
+        SearchBudget budget = hintBudget;
+        SearchEngine.RootPosition root = SearchEngine.RootPosition.of(gm);
+        long key = gm.getPositionKey();
+        hintRunning = true;
+        engineThread.execute(() -> {
+            engine.setPosition(root);
+            engine.setBudget(budget, 0);
+            var lines = engine.analyze(budget.maxDepth, HINT_LINES, new TimeManager(HINT_SOFT_MS, HINT_HARD_MS));
+            engine.clearBudget();
+            long nodes = engine.getNodes();
+            handler.post(() -> {
+                hintRunning = false;
+                // Ván đã đổi trong lúc phân tích → gợi ý thuộc vị trí khác, bỏ
+                if (isDestroyed() || gm.getPositionKey() != key) return;
+                showHintLines(lines, nodes);
+            });
+        });
+    }
+
+    private void showHintLines(List<SearchEngine.Line> lines, long nodes) {
+        if (lines.isEmpty()) {
+            Toast.makeText(this, "❌ Không còn nước đi hợp lệ", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Nếu chưa kết thúc → hiển thị lượt hiện tại
-        txtStatus.setText("Lượt: " + (gm.isWhiteTurn() ? "Trắng" : "Đen"));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            sb.append(i + 1).append(". ").append(lines.get(i)).append('\n');
+        }
+        Log.d(TAG, "💡 Hint nodes=" + nodes);
+
+        new AlertDialog.Builder(this)
+                .setTitle("💡 Gợi ý nước đi")
+                .setMessage(sb.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
+    }
+
+    // ===========================================================
+    // 📚 showExplorerDialog() — opening explorer + các ván đã qua vị trí (GamePositions)
+    // ===========================================================
+    private void showExplorerDialog() {
+        var gm = chessBoard.getGameManager();
+        long key = gm.getPositionKey();
+        db.loadExplorer(key, moves -> {
+            if (moves == null || isDestroyed()) return;
+            // Ván đã đổi trong lúc chờ → SAN tính trên vị trí khác, bỏ kết quả cũ
+            if (gm.getPositionKey() != key) return;
+
+            StringBuilder sb = new StringBuilder();
+            LegalMoves legal = gm.getLegalMoves();
+            int total = 0;
+            for (DatabaseHelper.ExplorerMove m : moves) {
+                if (!legal.contains(m.move)) continue; // trùng key Zobrist (cực hiếm) → bỏ qua
+                total += m.games;
+                sb.append(String.format(Locale.US, "%-7s %4d ván   %3.0f%%   (+%d =%d -%d)%n",
+                        San.toSan(gm.getBoard(), legal, m.move), m.games, 100 * m.whiteScore(),
+                        m.whiteWins, m.draws, m.blackWins));
+            }
+            int totalGames = total;
+            String movesText = sb.toString().trim();
+
+            // Các ván gần nhất đã qua vị trí này (kể cả ván kết thúc ngay tại đây) kèm người thắng
+            db.loadGamesReaching(key, EXPLORER_GAMES, games -> {
+                if (isDestroyed() || gm.getPositionKey() != key) return;
+                StringBuilder msg = new StringBuilder();
+                if (totalGames > 0) msg.append("Điểm tính cho Trắng\n\n").append(movesText);
+                if (games != null && !games.isEmpty()) {
+                    if (msg.length() > 0) msg.append("\n\n");
+                    msg.append("🕘 Ván gần đây qua vị trí này:\n");
+                    for (DatabaseHelper.GameRecord g : games) {
+                        msg.append(String.format(Locale.US, "#%d  %s  🏆 %s  (%d nước)%n",
+                                g.id, g.datePlayed, g.winner, g.totalMoves));
+                    }
+                }
+                String message = msg.length() == 0
+                        ? "Chưa có ván đã lưu nào qua vị trí này."
+                        : msg.toString().trim();
+                new AlertDialog.Builder(this)
+                        .setTitle("📚 Khai cuộc (" + totalGames + " ván)")
+                        .setMessage(message)
+                        .setPositiveButton("OK", null)
+                        .show();
+            });
+        });
     }
 
     // ===========================================================
     // 3️⃣ showGameOverDialog() — hiển thị dialog thắng/thua và lưu lịch sử
     // ===========================================================
     private void showGameOverDialog(String message) {
-        // Dừng AI ngay lập tức (tránh loop thêm)
-        handler.removeCallbacks(aiRunnable);
+        // Dừng AI + đồng hồ ngay lập tức
+        cancelAiTask();
+        handler.removeCallbacks(clockRunnable);
 
         var gm = chessBoard.getGameManager();
-        String winner = gm.getWinner();
-        int totalMoves = gm.getTotalMoves();
-        String mode = aiEnabled ? "Đấu máy (Level " + aiLevel + ")" : "2 người";
-
-        // 🔹 Lưu lịch sử ván đấu vào SQLite
-        long insertedId = -1;
-        try {
-            insertedId = db.insertGame(mode, winner, totalMoves);
+        String mode = modeLabel();
+
+        // 🔹 Lưu lịch sử ván đấu (kèm BLOB nước đi + chỉ mục vị trí) — ghi trên luồng writer, kết quả báo lại sau
+        db.insertGame(DatabaseHelper.GameData.of(gm, mode, aiEnabled ? aiLevel : 0), insertedId -> {
             Log.d(TAG, "✅ Lưu lịch sử ván đấu: id=" + insertedId);
-        } catch (Exception ex) {
-            Log.e(TAG, "❌ Lỗi khi lưu lịch sử", ex);
-        }
+            // Ván đã commit vào lịch sử → giờ mới bỏ nhật ký tự lưu (lưu lỗi → giữ để lần sau tiếp tục / lưu lại)
+            if (insertedId > 0) autosave.gameSaved();
+            if (isDestroyed()) return;
+            if (insertedId > 0)
+                Toast.makeText(this, "📖 Đã lưu lịch sử ván đấu!", Toast.LENGTH_SHORT).show();
+            else
+                Toast.makeText(this, "⚠️ Không thể lưu lịch sử!", Toast.LENGTH_SHORT).show();
+        });
 
-        if (insertedId > 0)
-            Toast.makeText(this, "📖 Đã lưu lịch sử ván đấu!", Toast.LENGTH_SHORT).show();
-        else
-            Toast.makeText(this, "⚠️ Không thể lưu lịch sử!", Toast.LENGTH_SHORT).show();
+        showGameOverChoices(message);
+    }
 
-        // 🔸 Hiển thị dialog kết thúc
+    /** Dialog kết thúc: chơi lại / chia sẻ PGN / thoát (không lưu lịch sử lần nữa). */
+    private void showGameOverChoices(String message) {
         new AlertDialog.Builder(this)
                 .setTitle("Kết thúc ván cờ")
                 .setMessage(message)
                 .setCancelable(false)
                 .setPositiveButton("Chơi lại", (d, w) -> {
-                    chessBoard.resetGame();
-                    updateStatus();
-
-                    // Nếu AI bật → bật lại runnable mới
-                    if (aiEnabled) handler.postDelayed(aiRunnable, 700);
+                    chessBoard.resetGame(); // → onTurnChange
+                    startClock();
+                })
+                .setNeutralButton("Chia sẻ PGN", (d, w) -> {
+                    sharePgn();
+                    showGameOverChoices(message);
                 })
                 .setNegativeButton("Thoát", (d, w) -> finish())
                 .show();
     }
 
+    // ===========================================================
+    // 📤 sharePgn() — xuất ván vừa chơi dạng PGN qua Intent chia sẻ
+    // ===========================================================
+    private void sharePgn() {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Chess Game");
+        tags.put("Date", new SimpleDateFormat("yyyy.MM.dd", Locale.US).format(new Date()));
+        tags.put("White", "Người chơi");
+        tags.put("Black", aiEnabled ? "AI (Level " + aiLevel + ")" : "Người chơi 2");
+        String pgn = Pgn.write(chessBoard.getGameManager(), tags);
+
+        Intent send = new Intent(Intent.ACTION_SEND);
+        send.setType("text/plain");
+        send.putExtra(Intent.EXTRA_SUBJECT, "Ván cờ " + tags.get("Date"));
+        send.putExtra(Intent.EXTRA_TEXT, pgn);
+        startActivity(Intent.createChooser(send, "Chia sẻ PGN"));
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Vào nền → process có thể bị kill bất cứ lúc nào: fsync nhật ký tự lưu
+        autosave.sync();
+    }
+
     // ===========================================================
     // 4️⃣ onDestroy() — giải phóng tài nguyên, dừng Handler
     // ===========================================================
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Xóa toàn bộ callback của Handler để dừng AI và tránh leak
+        // Gỡ listener + xóa toàn bộ callback của Handler để dừng AI và tránh leak
+        chessBoard.getGameManager().removeListener(gameListener);
+        cancelAiTask();
+        engineThread.shutdownNow();
+        chessBoard.getGameManager().removeListener(autosave);
+        autosave.close(); // giữ file: ván dở được hỏi tiếp tục ở lần mở sau
         handler.removeCallbacksAndMessages(null);
         Log.d(TAG, "🧹 onDestroy() → Dừng tất cả AI callback");
     }
@@ -0,0 +1,20 @@
+package com.example.chessgame;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.example.chessgame.logic.EngineLog;
+
+/**
+ * ChessApplication.java
+ * ----------------------
+ * Khởi tạo dùng chung cho cả process:
+ *  - Chuyển log của engine (module :engine, thuần Java) sang Logcat.
+ */
+public class ChessApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        EngineLog.setSink(Log::d);
+    }
+}
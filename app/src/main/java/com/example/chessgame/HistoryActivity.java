@@ -1,28 +1,59 @@
 package com.example.chessgame;
 
-import android.graphics.Color;
-import android.graphics.drawable.ColorDrawable;
-import android.graphics.drawable.RippleDrawable;
-import android.graphics.drawable.ShapeDrawable;
-import android.graphics.drawable.StateListDrawable;
-import android.graphics.drawable.shapes.RectShape;
+import android.net.Uri;
 import android.os.Bundle;
-import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
-import android.widget.ListView;
-import android.widget.TextView;
+import android.util.Log;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.chessgame.db.DatabaseHelper;
+import com.example.chessgame.ui.HistoryAdapter;
 import com.google.android.material.appbar.MaterialToolbar;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * HistoryActivity.java
+ * ---------------------
+ * Màn hình lịch sử ván đấu.
+ *  - RecyclerView + HistoryAdapter (DiffUtil), view được tái sử dụng khi cuộn
+ *  - Dữ liệu nạp theo trang PAGE_SIZE dòng (keyset: id < id cuối đã hiện) trên luồng nền
+ *    → mở màn hình ngay dù có hàng chục nghìn ván; trang sau được nạp khi cuộn gần cuối
+ *  - Menu xuất / nhập: chọn file qua Storage Access Framework, DatabaseHelper đọc / ghi dạng luồng (GameArchive)
+ */
 public class HistoryActivity extends AppCompatActivity {
-    private ListView lvHistory;
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH = 15;     // còn ≤ PREFETCH dòng chưa hiện → nạp trang kế
+    private static final String TAG = "HistoryActivity";
+
     private DatabaseHelper db;
+    private HistoryAdapter adapter;
+    private LinearLayoutManager layoutManager;
+
+    private final List<DatabaseHelper.GameRecord> games = new ArrayList<>();
+    private long lastId = Long.MAX_VALUE;       // id nhỏ nhất đã nạp (trang kế: id < lastId)
+    private boolean loading = false;
+    private boolean endReached = false;
+    private int generation = 0;                 // tăng khi nạp lại từ đầu → bỏ trang đang nạp dở của lần trước
+
+    // 📤 / 📥 Chọn file xuất / nhập (kết quả về sau khi người dùng chọn xong)
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/octet-stream"), this::exportTo);
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importFrom);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -32,57 +63,124 @@ public class HistoryActivity extends AppCompatActivity {
         // 🔹 Thanh tiêu đề + nút quay lại
         MaterialToolbar toolbar = findViewById(R.id.toolbarHistory);
         toolbar.setNavigationOnClickListener(v -> finish());
+        toolbar.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == R.id.mnuExport) {
+                String date = new SimpleDateFormat("yyyyMMdd", Locale.US).format(new Date());
+                exportLauncher.launch("chess_history_" + date + ".chga");
+                return true;
+            } else if (item.getItemId() == R.id.mnuImport) {
+                importLauncher.launch(new String[]{"*/*"});
+                return true;
+            }
+            return false;
+        });
 
-        lvHistory = findViewById(R.id.lvHistory);
-        db = new DatabaseHelper(this);
-
-        var list = db.getAllGames();
-        android.util.Log.d("HISTORY_DEBUG", "Số bản ghi: " + list.size());
+        db = DatabaseHelper.getInstance(this);
 
-        ArrayList<String> items = new ArrayList<>();
-        for (var g : list) {
-            String s = "🕹️  " + g.mode +
-                    "\n🏆  " + g.winner +
-                    "\n♟️  Số nước: " + g.totalMoves +
-                    "\n📅  " + g.datePlayed +
-                    "\n────────────────────────────";
-            items.add(s);
-        }
+        RecyclerView rvHistory = findViewById(R.id.rvHistory);
+        layoutManager = new LinearLayoutManager(this);
+        adapter = new HistoryAdapter();
+        rvHistory.setLayoutManager(layoutManager);
+        rvHistory.setHasFixedSize(true);
+        rvHistory.setAdapter(adapter);
 
-        // ✨ Adapter có ripple sáng
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, items) {
+        // Cuộn gần cuối → nạp trang kế
+        rvHistory.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
-            public View getView(int position, View convertView, ViewGroup parent) {
-                View view = super.getView(position, convertView, parent);
-                TextView tv = view.findViewById(android.R.id.text1);
-                tv.setTextColor(Color.WHITE);
-                tv.setTextSize(18);
-                tv.setLineSpacing(6f, 1f);
-                tv.setPadding(32, 24, 32, 24);
-
-                // 💡 Ripple trắng sáng dễ nhìn
-                int rippleColor = Color.parseColor("#33FFFFFF");
-                ColorDrawable mask = new ColorDrawable(Color.WHITE);
-                RippleDrawable ripple = new RippleDrawable(
-                        new android.content.res.ColorStateList(
-                                new int[][]{new int[]{}},
-                                new int[]{rippleColor}
-                        ),
-                        new ColorDrawable(Color.TRANSPARENT),
-                        mask
-                );
-                view.setBackground(ripple);
-
-                return view;
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy > 0 && nearEnd()) loadNextPage();
+            }
+        });
+
+        loadNextPage();
+    }
+
+    private boolean nearEnd() {
+        return layoutManager.findLastVisibleItemPosition() >= games.size() - PREFETCH;
+    }
+
+    /** Nạp trang kế trên luồng nền; bỏ qua nếu đang nạp hoặc đã hết dữ liệu. */
+    private void loadNextPage() {
+        if (loading || endReached) return;
+        loading = true;
+        int gen = generation;
+        db.loadGamesPage(lastId, PAGE_SIZE, page -> {
+            loading = false;
+            if (isDestroyed()) return;
+            if (gen != generation) {
+                loadNextPage();   // danh sách đã được nạp lại từ đầu trong lúc chờ
+                return;
             }
-        };
+            if (page == null) return;
+            if (page.size() < PAGE_SIZE) endReached = true;
+            if (page.isEmpty()) return;
+
+            games.addAll(page);
+            lastId = page.get(page.size() - 1).id;
+            // ListAdapter giữ tham chiếu danh sách → luôn nộp bản sao mới để DiffUtil so được
+            // Nếu người dùng đã cuộn tới cuối trong lúc chờ → nạp tiếp luôn (không đợi lần cuộn sau)
+            adapter.submitList(new ArrayList<>(games), () -> {
+                if (nearEnd()) loadNextPage();
+            });
+        });
+    }
 
-        lvHistory.setAdapter(adapter);
+    /** Nạp lại danh sách từ trang đầu (sau khi nhập thêm ván). */
+    private void reload() {
+        generation++;
+        games.clear();
+        lastId = Long.MAX_VALUE;
+        endReached = false;
+        adapter.submitList(new ArrayList<>());
+        loadNextPage();
+    }
 
-        // 🎨 Nền và padding chung
-        lvHistory.setDividerHeight(12);
-        lvHistory.setPadding(24, 24, 24, 24);
-        lvHistory.setCacheColorHint(Color.TRANSPARENT);
-        lvHistory.setBackgroundColor(Color.parseColor("#121212"));
+    // ===========================================================
+    // 📦 Xuất / nhập lịch sử
+    // ===========================================================
+    private void exportTo(Uri uri) {
+        if (uri == null) return;   // người dùng hủy chọn file
+        OutputStream out;
+        try {
+            out = getContentResolver().openOutputStream(uri);
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Không mở được file xuất", e);
+            out = null;
+        }
+        if (out == null) {
+            Toast.makeText(this, "⚠️ Không mở được file!", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Toast.makeText(this, "📤 Đang xuất lịch sử...", Toast.LENGTH_SHORT).show();
+        db.exportGames(out, count -> {
+            if (isDestroyed()) return;
+            Toast.makeText(this, count != null ? "📤 Đã xuất " + count + " ván" : "⚠️ Xuất lịch sử thất bại!",
+                    Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    private void importFrom(Uri uri) {
+        if (uri == null) return;
+        InputStream in;
+        try {
+            in = getContentResolver().openInputStream(uri);
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Không mở được file nhập", e);
+            in = null;
+        }
+        if (in == null) {
+            Toast.makeText(this, "⚠️ Không mở được file!", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Toast.makeText(this, "📥 Đang nhập lịch sử...", Toast.LENGTH_SHORT).show();
+        db.importGames(in, count -> {
+            if (isDestroyed()) return;
+            if (count < 0) {
+                Toast.makeText(this, "⚠️ File lịch sử không hợp lệ!", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            Toast.makeText(this, "📥 Đã nhập " + count + " ván", Toast.LENGTH_SHORT).show();
+            reload();
+        });
     }
 }
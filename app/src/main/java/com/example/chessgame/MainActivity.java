@@ -1,6 +1,8 @@
 package com.example.chessgame;
 
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.widget.Button;
 import androidx.appcompat.app.AlertDialog;
@@ -9,40 +11,61 @@ import android.content.DialogInterface;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.chessgame.logic.EngineCalibration;
+import com.example.chessgame.logic.NnueEvaluator;
+import com.example.chessgame.logic.NnueNetwork;
+
+import java.io.IOException;
+import java.io.InputStream;
+
 public class MainActivity extends AppCompatActivity {
+    // SharedPreferences lưu tốc độ engine đo được trên máy (dùng cho SearchBudget)
+    public static final String PREFS_ENGINE = "engine_prefs";
+    public static final String KEY_DEVICE_NPS = "device_nps";
+    public static final String KEY_NNUE_NPS = "nnue_nps";   // chỉ có khi NNUE đạt budget nps
+
+    // Mạng NNUE (tùy chọn) đóng gói trong assets; không có file → không có mức Chuyên gia
+    public static final String NNUE_ASSET = "nnue/engine.nnue";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        calibrateEngineOnce();
+
         Button btnTwoPlayer = findViewById(R.id.btnTwoPlayer);
         Button btnAI = findViewById(R.id.btnAI);
         Button btnHistory = findViewById(R.id.btnHistory);
+        Button btnStats = findViewById(R.id.btnStats);
 
         // Chế độ 2 người chơi
         btnTwoPlayer.setOnClickListener(v -> {
             Intent i = new Intent(MainActivity.this, ChessActivity.class);
             i.putExtra("mode", "2player");
-            startActivity(i);
+            chooseTimeControlAndStart(i);
         });
 
         // 🤖 Chế độ đấu với máy (AI)
         btnAI.setOnClickListener(v -> {
-            // Tạo danh sách cấp độ hiển thị trong hộp thoại
-            String[] levels = {"Dễ 😄", "Trung bình 🙂", "Khó 😤"};
+            // Tạo danh sách cấp độ hiển thị trong hộp thoại (Chuyên gia chỉ khi NNUE khả dụng)
+            boolean nnueReady = getSharedPreferences(PREFS_ENGINE, MODE_PRIVATE).contains(KEY_NNUE_NPS);
+            String[] levels = nnueReady
+                    ? new String[]{"Dễ 😄", "Trung bình 🙂", "Khó 😤", "Chuyên gia 🧠"}
+                    : new String[]{"Dễ 😄", "Trung bình 🙂", "Khó 😤"};
 
             // Tạo hộp thoại chọn cấp độ
             new AlertDialog.Builder(MainActivity.this)
                     .setTitle("Chọn cấp độ AI") // tiêu đề hộp thoại
                     .setItems(levels, (dialog, which) -> {
-                        // which: 0 = Dễ, 1 = Trung bình, 2 = Khó
-                        int aiLevel = which + 1; // quy đổi sang 1, 2, 3
+                        // which: 0 = Dễ, 1 = Trung bình, 2 = Khó, 3 = Chuyên gia
+                        int aiLevel = which + 1; // quy đổi sang 1, 2, 3, 4
 
                         // Tạo Intent để mở ChessActivity
                         Intent i = new Intent(MainActivity.this, ChessActivity.class);
                         i.putExtra("mode", "ai");       // chế độ chơi với máy
                         i.putExtra("AI_LEVEL", aiLevel); // truyền cấp độ AI
-                        startActivity(i); // mở màn chơi cờ
+                        chooseTimeControlAndStart(i); // chọn thời gian rồi mở màn chơi cờ
                     })
                     .setNegativeButton("Hủy", (dialog, which) -> dialog.dismiss()) // nút Hủy
                     .show(); // hiển thị hộp thoại
@@ -60,5 +83,61 @@ public class MainActivity extends AppCompatActivity {
             Intent i = new Intent(MainActivity.this, HistoryActivity.class);
             startActivity(i);
         });
+
+        // 📊 Thống kê
+        btnStats.setOnClickListener(v -> startActivity(new Intent(MainActivity.this, StatsActivity.class)));
+    }
+
+    /**
+     * Đo node/giây của engine trên thiết bị (1 lần, chạy nền ~300ms) rồi lưu vào SharedPreferences.
+     * ChessActivity đọc giá trị này để kẹp số node của từng mức AI theo độ trễ.
+     */
+    private void calibrateEngineOnce() {
+        SharedPreferences prefs = getSharedPreferences(PREFS_ENGINE, MODE_PRIVATE);
+        if (prefs.contains(KEY_DEVICE_NPS)) return;
+
+        Context app = getApplicationContext();
+        new Thread(() -> {
+            long nps = EngineCalibration.measureNps(300);
+            SharedPreferences.Editor editor = prefs.edit().putLong(KEY_DEVICE_NPS, nps);
+
+            // NNUE: đo thêm với mạng thật, chỉ bật mức Chuyên gia nếu đạt budget nps
+            NnueNetwork net = loadNnueNetwork(app);
+            if (net != null) {
+                long nnueNps = EngineCalibration.measureNps(300, new NnueEvaluator(net));
+                if (EngineCalibration.nnueWithinBudget(nps, nnueNps)) editor.putLong(KEY_NNUE_NPS, nnueNps);
+                android.util.Log.d("MainActivity", "NNUE calibration: " + nnueNps + " nodes/s");
+            }
+            editor.apply();
+            android.util.Log.d("MainActivity", "Engine calibration: " + nps + " nodes/s");
+        }, "engine-calibration").start();
+    }
+
+    /** Đọc mạng NNUE từ assets; null nếu không đóng gói hoặc file hỏng. */
+    public static NnueNetwork loadNnueNetwork(Context context) {
+        try (InputStream in = new java.io.BufferedInputStream(context.getAssets().open(NNUE_ASSET))) {
+            return NnueNetwork.load(in);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Hộp thoại chọn thể thức thời gian (base + increment), rồi mở ChessActivity.
+     * Truyền qua extra TIME_BASE_MS / TIME_INC_MS (0 = không giới hạn).
+     */
+    private void chooseTimeControlAndStart(Intent i) {
+        String[] labels = {"Không giới hạn", "5 phút + 3 giây", "10 phút + 5 giây", "15 phút + 10 giây"};
+        long[][] controls = {{0, 0}, {5 * 60_000L, 3_000L}, {10 * 60_000L, 5_000L}, {15 * 60_000L, 10_000L}};
+
+        new AlertDialog.Builder(MainActivity.this)
+                .setTitle("⏱ Chọn thời gian")
+                .setItems(labels, (dialog, which) -> {
+                    i.putExtra("TIME_BASE_MS", controls[which][0]);
+                    i.putExtra("TIME_INC_MS", controls[which][1]);
+                    startActivity(i);
+                })
+                .setNegativeButton("Hủy", (dialog, which) -> dialog.dismiss())
+                .show();
     }
 }
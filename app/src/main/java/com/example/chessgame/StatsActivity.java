@@ -0,0 +1,68 @@
+package com.example.chessgame;
+
+import android.os.Bundle;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.chessgame.db.DatabaseHelper;
+import com.google.android.material.appbar.MaterialToolbar;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * StatsActivity.java
+ * -------------------
+ * Màn hình thống kê: thắng / thua / hòa và số nước trung bình theo chế độ + mức AI.
+ *  - Đọc bảng tổng hợp GameStats (trigger cập nhật khi lưu ván) → thời gian không phụ thuộc số ván đã lưu
+ *  - Số ván 7 ngày qua đếm bằng chỉ mục (mode, played_at), không quét bảng
+ *  - Đấu máy: người chơi cầm Trắng → Trắng thắng = thắng, Đen thắng = thua
+ */
+public class StatsActivity extends AppCompatActivity {
+    private static final long RECENT_MS = 7L * 24 * 60 * 60 * 1000;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stats);
+
+        MaterialToolbar toolbar = findViewById(R.id.toolbarStats);
+        toolbar.setNavigationOnClickListener(v -> finish());
+
+        TextView txtStats = findViewById(R.id.txtStats);
+        DatabaseHelper.getInstance(this).loadStats(System.currentTimeMillis() - RECENT_MS, stats -> {
+            if (isDestroyed()) return;
+            txtStats.setText(stats == null ? "⚠️ Không đọc được thống kê" : format(stats));
+        });
+    }
+
+    private static String format(List<DatabaseHelper.StatsRecord> stats) {
+        if (stats.isEmpty()) return "Chưa có ván nào được lưu.";
+        StringBuilder sb = new StringBuilder();
+        int total = 0;
+        for (DatabaseHelper.StatsRecord s : stats) {
+            total += s.games;
+            sb.append(s.aiLevel > 0 ? "🤖 " : "👥 ").append(s.mode).append('\n');
+            if (s.aiLevel > 0) {
+                sb.append("   Thắng ").append(s.whiteWins)
+                        .append(" · Thua ").append(s.blackWins)
+                        .append(" · Hòa ").append(s.draws);
+            } else {
+                sb.append("   Trắng thắng ").append(s.whiteWins)
+                        .append(" · Đen thắng ").append(s.blackWins)
+                        .append(" · Hòa ").append(s.draws);
+            }
+            int decided = s.whiteWins + s.blackWins + s.draws;
+            if (s.aiLevel > 0 && decided > 0) {
+                sb.append(String.format(Locale.US, " (%.0f%% thắng)", 100.0 * s.whiteWins / decided));
+            }
+            sb.append('\n')
+                    .append(String.format(Locale.US, "   %d ván, trung bình %.1f nước, %d ván 7 ngày qua",
+                            s.games, s.averageMoves(), s.recentGames))
+                    .append("\n\n");
+        }
+        sb.append("Tổng cộng: ").append(total).append(" ván");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.chessgame.db;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.chessgame.logic.GameJournal;
+import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.MoveLog;
+import com.example.chessgame.logic.PositionSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autosave.java
+ * --------------
+ * Tự lưu ván đang chơi vào GameJournal (files/autosave.journal) → app bị kill giữa ván vẫn tiếp tục được.
+ *  - Là GameManager.GameListener: mỗi nước đi = 1 bản ghi 3 byte nối thêm, undo = 1 bản ghi UNDO
+ *  - Ván có đồng hồ: sau mỗi nước + khi vào nền (sync) ghi thêm thời gian còn lại của hai bên (bản ghi CLOCK)
+ *  - Ghi file trên MỘT luồng "autosave" riêng → main thread không đụng tới đĩa; fsync theo lô trong GameJournal,
+ *    cộng thêm sync() khi Activity vào nền (onPause)
+ *  - Ván kết thúc: nhật ký giữ nguyên (kể cả nước cuối) cho tới khi insertGame commit xong → gameSaved() xóa;
+ *    app chết trước khi lưu → lần sau phát lại ván đã kết thúc và lưu lại
+ *  - Về vị trí ban đầu (ván mới) → xóa nhật ký
+ *  - Thay đổi không đi qua onMove (seek, replay...) → ghi lại nhật ký từ MoveLog (GameJournal.create)
+ */
+public class Autosave implements GameManager.GameListener {
+    private static final String TAG = "Autosave";
+    private static final String FILE_NAME = "autosave.journal";
+
+    private final GameManager gm;
+    private final File file;
+    private final GameJournal.Header header;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "autosave");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // ----- Trạng thái phía main thread (nơi nhận sự kiện) -----
+    private boolean open = false;       // nhật ký đang phản ánh ván hiện tại
+    private int journaledPly = 0;       // số nước nhật ký đang giữ (sau khi luồng autosave làm xong hàng đợi)
+
+    // ----- Chỉ dùng trên luồng autosave -----
+    private GameJournal journal;
+
+    public Autosave(Context context, GameManager gm, GameJournal.Header header) {
+        this.gm = gm;
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+        this.header = header;
+    }
+
+    /** Đọc nhật ký (ván dở của lần chạy trước) trên luồng autosave; callback nhận null nếu không có / file hỏng. */
+    public void load(DatabaseHelper.ReadCallback<GameJournal.Saved> callback) {
+        io.execute(() -> {
+            GameJournal.Saved saved = null;
+            try {
+                saved = GameJournal.read(file);
+            } catch (IOException e) {
+                Log.w(TAG, "⚠️ Không đọc được nhật ký tự lưu", e);
+            }
+            GameJournal.Saved s = saved;
+            mainHandler.post(() -> callback.onResult(s));
+        });
+    }
+
+    /** Ván dở đọc được có cùng thiết lập (chế độ, mức AI, thời gian, vị trí bắt đầu) với ván này không. */
+    public boolean matches(GameJournal.Saved saved) {
+        if (saved == null || saved.moves.length == 0) return false;
+        GameJournal.Header h = saved.header;
+        return h.aiLevel == header.aiLevel && h.baseMs == header.baseMs && h.incrementMs == header.incrementMs
+                && Objects.equals(h.mode, header.mode) && Objects.equals(h.startFen, header.startFen);
+    }
+
+    // ===============================================================
+    // 🎧 Sự kiện ván (main thread)
+    // ===============================================================
+
+    @Override
+    public void onMove(int move, PositionSnapshot after) {
+        if (open && after.getPly() == journaledPly + 1) {
+            journaledPly++;
+            boolean clock = gm.hasClock();
+            long whiteMs = gm.getRemainingMs(true), blackMs = gm.getRemainingMs(false);
+            io.execute(() -> write(() -> {
+                journal.append(move);
+                if (clock) journal.clock(whiteMs, blackMs);
+            }));
+        } else {
+            syncTo(after);
+        }
+    }
+
+    @Override
+    public void onTurnChange(PositionSnapshot snapshot) {
+        syncTo(snapshot);
+    }
+
+    @Override
+    public void onGameOver(PositionSnapshot snapshot) {
+        syncTo(snapshot);
+        // Hết giờ không đi qua onMove: ghi đồng hồ lúc kết thúc để ván phát lại cũng hết giờ
+        if (open && gm.hasClock()) {
+            long whiteMs = gm.getRemainingMs(true), blackMs = gm.getRemainingMs(false);
+            io.execute(() -> write(() -> journal.clock(whiteMs, blackMs)));
+        }
+    }
+
+    /** Đưa nhật ký về đúng snapshot: xóa / undo bớt / ghi lại toàn bộ. */
+    private void syncTo(PositionSnapshot snap) {
+        int ply = snap.getPly();
+        if (ply == 0) {
+            if (!open) return;
+            open = false;
+            journaledPly = 0;
+            io.execute(this::deleteJournal);
+        } else if (!open || ply > journaledPly) {
+            int[] moves = movesOf(gm);
+            long whiteMs = gm.hasClock() ? gm.getRemainingMs(true) : -1;
+            long blackMs = gm.getRemainingMs(false);
+            open = true;
+            journaledPly = ply;
+            io.execute(() -> recreate(moves, whiteMs, blackMs));
+        } else if (ply < journaledPly) {
+            int n = journaledPly - ply;
+            journaledPly = ply;
+            io.execute(() -> write(() -> {
+                for (int i = 0; i < n; i++) journal.undo();
+            }));
+        }
+    }
+
+    private static int[] movesOf(GameManager gm) {
+        MoveLog log = gm.getMoveLog();
+        int[] moves = new int[log.ply()];
+        for (int i = 0; i < moves.length; i++) moves[i] = MoveLog.moveOf(log.get(i));
+        return moves;
+    }
+
+    // ===============================================================
+    // 💾 Vòng đời (gọi từ Activity)
+    // ===============================================================
+
+    /**
+     * Ghi đồng hồ hiện tại (tính cả thời gian lượt đang chạy) rồi fsync các bản ghi còn trong page cache
+     * (Activity vào nền có thể bị kill bất cứ lúc nào).
+     */
+    public void sync() {
+        boolean clock = open && gm.hasClock() && !gm.isGameOver();
+        long whiteMs = gm.getRemainingMs(true), blackMs = gm.getRemainingMs(false);
+        io.execute(() -> write(() -> {
+            if (clock) journal.clock(whiteMs, blackMs);
+            journal.sync();
+        }));
+    }
+
+    /** Đóng nhật ký (vẫn giữ file để lần sau tiếp tục) và dừng luồng autosave. */
+    public void close() {
+        io.execute(this::closeJournal);
+        io.shutdown();
+    }
+
+    /**
+     * Ván đã kết thúc được lưu vào lịch sử (insertGame trả id > 0): xóa nhật ký.
+     * Có thể tới sau close() (Activity đóng trước khi writer commit) → chờ luồng autosave xong rồi xóa.
+     */
+    public void gameSaved() {
+        open = false;
+        journaledPly = 0;
+        if (!io.isShutdown()) {
+            io.execute(this::deleteJournal);
+            return;
+        }
+        new Thread(() -> {
+            try {
+                if (!io.awaitTermination(5, TimeUnit.SECONDS)) return;
+            } catch (InterruptedException e) {
+                return;
+            }
+            deleteJournal();
+        }, "autosave-delete").start();
+    }
+
+    /** Bỏ ván dở của lần trước (người chơi không tiếp tục): xóa nhật ký. */
+    public void discard() {
+        open = false;
+        journaledPly = 0;
+        io.execute(this::deleteJournal);
+    }
+
+    // ===============================================================
+    // 🔧 Luồng autosave
+    // ===============================================================
+
+    private interface JournalOp {
+        void run() throws IOException;
+    }
+
+    /** Chạy thao tác trên nhật ký đang mở; lỗi I/O → đóng nhật ký, sự kiện kế tiếp ghi lại từ MoveLog. */
+    private void write(JournalOp op) {
+        if (journal == null) return;   // lần ghi trước lỗi → chờ main thread tạo lại
+        try {
+            op.run();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void recreate(int[] moves, long whiteMs, long blackMs) {
+        closeJournal();
+        try {
+            journal = GameJournal.create(file, header, moves);
+            if (whiteMs >= 0) journal.clock(whiteMs, blackMs);
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void failed(IOException e) {
+        Log.w(TAG, "⚠️ Lỗi ghi nhật ký tự lưu", e);
+        closeJournal();
+        mainHandler.post(() -> open = false);
+    }
+
+    private void deleteJournal() {
+        closeJournal();
+        try {
+            GameJournal.delete(file);
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Không xóa được nhật ký tự lưu", e);
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            Log.w(TAG, "⚠️ Lỗi đóng nhật ký tự lưu", e);
+        }
+        journal = null;
+    }
+}
@@ -1,24 +1,142 @@
 package com.example.chessgame.db;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 
+import androidx.annotation.WorkerThread;
+
+import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.MoveCodec;
+import com.example.chessgame.logic.MoveLog;
+import com.example.chessgame.model.Move;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 
+/**
+ * DatabaseHelper.java
+ * --------------------
+ * SQLite lưu lịch sử ván đấu (bảng GameHistory).
+ *  - moves: BLOB nước đi của cả ván (MoveCodec: chỉ số trong danh sách nước hợp lệ + range coder, ≈ 5 bit / ply),
+ *    giải mã từ start_fen (NULL = thế chuẩn) — BLOB chỉ có nghĩa khi đi kèm đúng vị trí bắt đầu
+ *    → phát lại / phân tích ván đã lưu; ván cũ trước phiên bản 3 có moves = NULL
+ *  - Một instance cho cả process (getInstance), kết nối mở suốt đời app, chế độ WAL
+ *    → đọc song song với ghi, không mở / đóng DB mỗi lần gọi
+ *  - Ghi: MỘT luồng writer rút hàng đợi, gom tối đa MAX_BATCH thao tác vào một transaction,
+ *    mỗi thao tác trong 1 SAVEPOINT (thao tác lỗi chỉ hoàn tác chính nó; ";ROLLBACK TO" — xem runInTransaction),
+ *    dùng SQLiteStatement biên dịch sẵn; kết quả báo về main thread qua WriteCallback
+ *  - Đọc: luồng nền riêng, kết quả qua ReadCallback → main thread không bao giờ đụng tới đĩa
+ *  - played_at (epoch ms) + chỉ mục (mode, played_at), (winner) → lọc / sắp theo thời gian không quét bảng
+ *  - GameStats: bảng tổng hợp theo (mode, ai_level) do TRIGGER cập nhật khi insert / delete
+ *    → màn hình thống kê đọc vài dòng, O(1) theo số ván đã lưu
+ *  - GamePositions: chỉ mục vị trí (Zobrist key → ván, ply, nước đi tiếp, kết quả), ghi cùng transaction khi lưu ván
+ *    → "các ván đã qua vị trí này" / opening explorer = 1 lần seek theo pos_key, không phát lại ván nào
+ *  - Danh sách lịch sử đọc theo trang bằng keyset (id < lastId LIMIT n) trên khóa chính
+ *    → mỗi trang O(n) dù bảng có bao nhiêu dòng, không OFFSET
+ *  - Xuất / nhập hàng loạt qua GameArchive (1 file zlib, đọc / ghi dạng luồng): nhập chia transaction
+ *    IMPORT_BATCH ván, tạm bỏ chỉ mục phụ + trigger rồi dựng lại 1 lần; chỉ mục vị trí dựng dần sau đó
+ */
 public class DatabaseHelper extends SQLiteOpenHelper {
+    private static final String TAG = "DatabaseHelper";
     private static final String DB_NAME = "chess.db";
-    private static final int DB_VER = 2; // ✅ tăng version để reset DB cũ
+    // 3: thêm cột moves (BLOB); 4: played_at, ai_level, chỉ mục, GameStats; 5: GamePositions;
+    // 6: start_fen (BLOB moves chỉ giải mã được từ đúng vị trí bắt đầu này, NULL = thế chuẩn)
+    private static final int DB_VER = 6;
     public static final String TABLE_GAME = "GameHistory";
+    public static final String TABLE_STATS = "GameStats";
+    public static final String TABLE_POSITIONS = "GamePositions";
+
+    // Giá trị cột winner (GameManager.getWinner())
+    public static final String WINNER_WHITE = "Trắng";
+    public static final String WINNER_BLACK = "Đen";
+    public static final String WINNER_DRAW = "Hòa";
+
+    private static final int MAX_BATCH = 64;   // số thao tác ghi tối đa trong 1 transaction
+    private static final int EXPORT_PAGE = 1000;      // số dòng mỗi lần đọc khi xuất (keyset)
+    private static final int IMPORT_BATCH = 2000;     // số ván mỗi transaction khi nhập
+    private static final int BACKFILL_CHUNK = 64;     // số ván mỗi lần dựng chỉ mục vị trí sau khi nhập
+
+    private static final String INSERT_GAME_SQL = "INSERT INTO " + TABLE_GAME
+            + " (mode, winner, total_moves, date_played, moves, played_at, ai_level, start_fen)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static volatile DatabaseHelper instance;
+
+    /** Nhận kết quả ghi trên main thread: id vừa insert / số dòng bị ảnh hưởng, -1 nếu lỗi. */
+    public interface WriteCallback {
+        void onComplete(long result);
+    }
+
+    /** Nhận kết quả đọc trên main thread (null nếu lỗi). */
+    public interface ReadCallback<T> {
+        void onResult(T result);
+    }
+
+    /** Một thao tác ghi, chạy trên luồng writer bên trong transaction của lô. */
+    interface WriteOp {
+        long run(SQLiteDatabase db);
+    }
+
+    private static final class PendingWrite {
+        final WriteOp op;
+        final WriteCallback callback;
+        final boolean standalone;     // tự quản lý transaction (nhập hàng loạt), không gom lô
+
+        PendingWrite(WriteOp op, WriteCallback callback, boolean standalone) {
+            this.op = op;
+            this.callback = callback;
+            this.standalone = standalone;
+        }
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LinkedBlockingQueue<PendingWrite> writeQueue = new LinkedBlockingQueue<>();
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "db-reader");
+        t.setDaemon(true);
+        return t;
+    });
 
-    public DatabaseHelper(Context context) {
+    // ----- Chỉ luồng writer dùng (không cần đồng bộ) -----
+    private SQLiteStatement insertGameStmt;
+    private SQLiteStatement insertPositionStmt;
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
+
+    public static DatabaseHelper getInstance(Context context) {
+        DatabaseHelper h = instance;
+        if (h == null) {
+            synchronized (DatabaseHelper.class) {
+                h = instance;
+                if (h == null) instance = h = new DatabaseHelper(context.getApplicationContext());
+            }
+        }
+        return h;
+    }
+
+    private DatabaseHelper(Context context) {
         super(context, DB_NAME, null, DB_VER);
+        setWriteAheadLoggingEnabled(true);
+        Thread writer = new Thread(this::writerLoop, "db-writer");
+        writer.setDaemon(true);
+        writer.start();
     }
 
     @Override
@@ -28,57 +146,612 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "mode TEXT," +
                 "winner TEXT," +
                 "total_moves INTEGER," +
-                "date_played TEXT)";
+                "date_played TEXT," +
+                "moves BLOB," +
+                "played_at INTEGER NOT NULL DEFAULT 0," +   // epoch ms
+                "ai_level INTEGER NOT NULL DEFAULT 0," +    // 0 = 2 người
+                "start_fen TEXT)";                          // NULL = thế chuẩn
         db.execSQL(sql);
+        createIndexesAndStats(db);
+        createPositionIndex(db);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldV, int newV) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_GAME);
-        onCreate(db);
+        if (oldV < 2) {
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_GAME);
+            onCreate(db);
+            return;
+        }
+        // Giữ lịch sử cũ, chỉ thêm cột (ván cũ không có nước đi)
+        if (oldV < 3) db.execSQL("ALTER TABLE " + TABLE_GAME + " ADD COLUMN moves BLOB");
+        if (oldV < 4) {
+            db.execSQL("ALTER TABLE " + TABLE_GAME + " ADD COLUMN played_at INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + TABLE_GAME + " ADD COLUMN ai_level INTEGER NOT NULL DEFAULT 0");
+            // date_played 'dd/MM/yyyy HH:mm' (giờ máy) → epoch ms; mode 'Đấu máy (Level n)' → ai_level
+            db.execSQL("UPDATE " + TABLE_GAME + " SET played_at = IFNULL(CAST(strftime('%s', "
+                    + "substr(date_played, 7, 4) || '-' || substr(date_played, 4, 2) || '-' || substr(date_played, 1, 2)"
+                    + " || ' ' || substr(date_played, 12, 5), 'utc') AS INTEGER) * 1000, 0),"
+                    + " ai_level = CASE WHEN instr(mode, 'Level ') > 0"
+                    + " THEN CAST(substr(mode, instr(mode, 'Level ') + 6, 1) AS INTEGER) ELSE 0 END");
+            createIndexesAndStats(db);
+            rebuildStats(db);
+        }
+        // Ván cũ: thế chuẩn (NULL). Thêm cột trước bước dựng chỉ mục vị trí vì backfillPositions đọc start_fen
+        if (oldV < 6) db.execSQL("ALTER TABLE " + TABLE_GAME + " ADD COLUMN start_fen TEXT");
+        if (oldV < 5) {
+            createPositionIndex(db);
+            backfillPositions(db);
+        }
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        // Lần nhập hàng loạt trước bị ngắt giữa chừng (app bị kill) → chỉ mục phụ / trigger chưa được dựng lại
+        if (!db.isReadOnly() && DatabaseUtils.queryNumEntries(db, "sqlite_master",
+                "type = 'trigger' AND name = 'trg_stats_insert'") == 0) {
+            createIndexesAndStats(db);
+            rebuildStats(db);
+        }
     }
 
-    // ✅ Ghi lại lịch sử ván cờ
-    public long insertGame(String mode, String winner, int totalMoves) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues cv = new ContentValues();
-        cv.put("mode", mode);
-        cv.put("winner", winner);
-        cv.put("total_moves", totalMoves);
+    /** Chỉ mục + bảng tổng hợp + trigger giữ bảng tổng hợp khớp với GameHistory. */
+    private static void createIndexesAndStats(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_game_mode_played ON " + TABLE_GAME + " (mode, played_at)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_game_winner ON " + TABLE_GAME + " (winner)");
+
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_STATS + " (" +
+                "mode TEXT NOT NULL," +
+                "ai_level INTEGER NOT NULL," +
+                "games INTEGER NOT NULL DEFAULT 0," +
+                "white_wins INTEGER NOT NULL DEFAULT 0," +
+                "black_wins INTEGER NOT NULL DEFAULT 0," +
+                "draws INTEGER NOT NULL DEFAULT 0," +
+                "total_moves INTEGER NOT NULL DEFAULT 0," +
+                "PRIMARY KEY (mode, ai_level))");
 
-        // Lưu ngày giờ dễ đọc
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
-        cv.put("date_played", sdf.format(new Date()));
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_insert AFTER INSERT ON " + TABLE_GAME + " BEGIN " +
+                "INSERT OR IGNORE INTO " + TABLE_STATS + " (mode, ai_level) VALUES (IFNULL(NEW.mode, ''), NEW.ai_level); " +
+                "UPDATE " + TABLE_STATS + " SET games = games + 1, " +
+                "white_wins = white_wins + (NEW.winner = '" + WINNER_WHITE + "'), " +
+                "black_wins = black_wins + (NEW.winner = '" + WINNER_BLACK + "'), " +
+                "draws = draws + (NEW.winner = '" + WINNER_DRAW + "'), " +
+                "total_moves = total_moves + IFNULL(NEW.total_moves, 0) " +
+                "WHERE mode = IFNULL(NEW.mode, '') AND ai_level = NEW.ai_level; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_stats_delete AFTER DELETE ON " + TABLE_GAME + " BEGIN " +
+                "UPDATE " + TABLE_STATS + " SET games = games - 1, " +
+                "white_wins = white_wins - (OLD.winner = '" + WINNER_WHITE + "'), " +
+                "black_wins = black_wins - (OLD.winner = '" + WINNER_BLACK + "'), " +
+                "draws = draws - (OLD.winner = '" + WINNER_DRAW + "'), " +
+                "total_moves = total_moves - IFNULL(OLD.total_moves, 0) " +
+                "WHERE mode = IFNULL(OLD.mode, '') AND ai_level = OLD.ai_level; END");
+    }
 
-        long id = db.insert(TABLE_GAME, null, cv);
-        db.close();
-        return id;
+    /** Bỏ chỉ mục phụ + trigger GameStats (nhập hàng loạt); createIndexesAndStats + rebuildStats để dựng lại. */
+    private static void dropIndexesAndTriggers(SQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS trg_stats_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS trg_stats_delete");
+        db.execSQL("DROP INDEX IF EXISTS idx_game_mode_played");
+        db.execSQL("DROP INDEX IF EXISTS idx_game_winner");
     }
 
-    // ✅ Lấy toàn bộ lịch sử
-    public List<GameRecord> getAllGames() {
-        List<GameRecord> res = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor c = db.rawQuery("SELECT id, mode, winner, total_moves, date_played FROM " + TABLE_GAME + " ORDER BY id DESC", null);
+    /**
+     * Một dòng cho mỗi vị trí của mỗi ván; khóa chính bắt đầu bằng pos_key, WITHOUT ROWID
+     * → tra theo vị trí là quét 1 khoảng liền nhau của B-tree, không cần chỉ mục phụ.
+     * move = nước đã đi TỪ vị trí này (0 ở vị trí cuối ván), result = 1 / -1 / 0 (Trắng / Đen / Hòa).
+     */
+    private static void createPositionIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + TABLE_POSITIONS + " (" +
+                "pos_key INTEGER NOT NULL," +
+                "game_id INTEGER NOT NULL," +
+                "ply INTEGER NOT NULL," +
+                "move INTEGER NOT NULL," +
+                "result INTEGER NOT NULL," +
+                "PRIMARY KEY (pos_key, game_id, ply)) WITHOUT ROWID");
+    }
 
-        if (c.moveToFirst()) {
-            do {
-                GameRecord gr = new GameRecord(
+    /** Nâng cấp: dựng chỉ mục vị trí cho các ván cũ đã có BLOB nước đi (phát lại 1 lần duy nhất). */
+    private static void backfillPositions(SQLiteDatabase db) {
+        try (SQLiteStatement st = compilePositionInsert(db);
+             Cursor c = db.rawQuery("SELECT id, winner, moves, start_fen FROM " + TABLE_GAME
+                     + " WHERE moves IS NOT NULL", null)) {
+            while (c.moveToNext()) indexGame(st, c.getLong(0), c.getString(1), c.getBlob(2), c.getString(3));
+        }
+    }
+
+    /** Phát lại BLOB nước đi của 1 ván từ startFen → ghi chỉ mục vị trí (BLOB / FEN hỏng → bỏ qua ván). */
+    private static void indexGame(SQLiteStatement st, long gameId, String winner, byte[] blob, String startFen) {
+        try {
+            MoveCodec.Decoder d = new MoveCodec.Decoder(blob, startFen);
+            int[] moves = new int[d.length()];
+            long[] keys = new long[d.length() + 1];
+            keys[0] = d.game().getPositionKey();
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = d.next();
+                keys[i + 1] = d.game().getPositionKey();
+            }
+            insertPositions(st, gameId, keys, moves, resultOf(winner));
+        } catch (RuntimeException ex) {
+            Log.w(TAG, "⚠️ Bỏ qua ván #" + gameId + " (BLOB nước đi hỏng)", ex);
+        }
+    }
+
+    private static SQLiteStatement compilePositionInsert(SQLiteDatabase db) {
+        return db.compileStatement("INSERT OR IGNORE INTO " + TABLE_POSITIONS
+                + " (pos_key, game_id, ply, move, result) VALUES (?, ?, ?, ?, ?)");
+    }
+
+    private static void insertPositions(SQLiteStatement st, long gameId, long[] keys, int[] moves, int result) {
+        for (int ply = 0; ply < keys.length; ply++) {
+            st.bindLong(1, keys[ply]);
+            st.bindLong(2, gameId);
+            st.bindLong(3, ply);
+            st.bindLong(4, ply < moves.length ? moves[ply] : Move.NONE);
+            st.bindLong(5, result);
+            st.executeInsert();
+        }
+    }
+
+    private static int resultOf(String winner) {
+        if (WINNER_WHITE.equals(winner)) return 1;
+        if (WINNER_BLACK.equals(winner)) return -1;
+        return 0;
+    }
+
+    /** Tính lại GameStats từ đầu (sau nâng cấp DB / nhập hàng loạt). */
+    private static void rebuildStats(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_STATS);
+        db.execSQL("INSERT INTO " + TABLE_STATS
+                + " (mode, ai_level, games, white_wins, black_wins, draws, total_moves)"
+                + " SELECT IFNULL(mode, ''), ai_level, COUNT(*),"
+                + " SUM(winner = '" + WINNER_WHITE + "'), SUM(winner = '" + WINNER_BLACK + "'),"
+                + " SUM(winner = '" + WINNER_DRAW + "'), SUM(IFNULL(total_moves, 0))"
+                + " FROM " + TABLE_GAME + " GROUP BY IFNULL(mode, ''), ai_level");
+    }
+
+    // ===============================================================
+    // ✍️ Ghi (bất đồng bộ, gom lô)
+    // ===============================================================
+
+    /**
+     * Dữ liệu một ván cần lưu, chụp từ GameManager trên main thread (bất biến, an toàn khi chuyển sang writer).
+     * Chỉ sao chép mảng nước đi + key; phần nén MoveCodec (sinh nước hợp lệ từng ply) chạy trên luồng writer.
+     */
+    public static final class GameData {
+        final String mode;
+        final int aiLevel;            // 0 = 2 người
+        final String winner;
+        final int totalMoves;
+        final String startFen;        // null = thế chuẩn
+        final int[] moves;            // Move.encode từng ply
+        final long[] positionKeys;    // totalMoves + 1 key
+
+        private GameData(String mode, int aiLevel, String winner, int totalMoves, String startFen,
+                         int[] moves, long[] positionKeys) {
+            this.mode = mode;
+            this.aiLevel = aiLevel;
+            this.winner = winner;
+            this.totalMoves = totalMoves;
+            this.startFen = startFen;
+            this.moves = moves;
+            this.positionKeys = positionKeys;
+        }
+
+        public static GameData of(GameManager gm, String mode, int aiLevel) {
+            MoveLog log = gm.getMoveLog();
+            int[] moves = new int[log.ply()];
+            for (int i = 0; i < moves.length; i++) moves[i] = MoveLog.moveOf(log.get(i));
+            return new GameData(mode, aiLevel, gm.getWinner(), gm.getTotalMoves(), gm.getStartFen(),
+                    moves, gm.getPositionKeys());
+        }
+    }
+
+    /**
+     * Ghi lại lịch sử ván cờ + chỉ mục vị trí trong cùng transaction (GameStats tự cập nhật qua trigger).
+     */
+    public void insertGame(GameData game, WriteCallback callback) {
+        long playedAt = System.currentTimeMillis();
+        String mode = game.mode, winner = game.winner;
+        enqueue(db -> {
+            byte[] moves = MoveCodec.encode(game.moves, game.startFen);
+            if (insertGameStmt == null) insertGameStmt = db.compileStatement(INSERT_GAME_SQL);
+            SQLiteStatement st = insertGameStmt;
+            bindGame(st, mode, winner, game.totalMoves, dateFormat.format(new Date(playedAt)), moves,
+                    playedAt, game.aiLevel, game.startFen);
+            long id = st.executeInsert();
+            if (id > 0) {
+                if (insertPositionStmt == null) insertPositionStmt = compilePositionInsert(db);
+                insertPositions(insertPositionStmt, id, game.positionKeys, game.moves, resultOf(winner));
+            }
+            return id;
+        }, callback);
+    }
+
+    /**
+     * Nhập các ván từ archive (GameArchive) vào cuối lịch sử; đóng in khi xong.
+     * callback nhận số ván đã nhập, -1 nếu file lỗi (khi đó không giữ lại ván nào của file).
+     */
+    public void importGames(InputStream in, WriteCallback callback) {
+        enqueueStandalone(db -> importArchive(db, in), callback);
+    }
+
+    /**
+     * Chạy trên luồng writer, ngoài lô: mỗi IMPORT_BATCH ván một transaction (WAL không phình theo cả file).
+     * Chỉ mục phụ + trigger GameStats bị bỏ trong lúc chèn rồi dựng lại 1 lần (rebuildStats) ở cuối;
+     * chỉ mục vị trí cần phát lại từng ván → dựng dần sau đó (backfillPositionsAfter), không giữ writer.
+     */
+    private long importArchive(SQLiteDatabase db, InputStream source) {
+        long lastOldId;
+        try (Cursor c = db.rawQuery("SELECT IFNULL(MAX(id), 0) FROM " + TABLE_GAME, null)) {
+            c.moveToFirst();
+            lastOldId = c.getLong(0);
+        }
+
+        dropIndexesAndTriggers(db);
+        long count = 0;
+        boolean ok = false;
+        try (InputStream in = source;
+             GameArchive.Reader reader = new GameArchive.Reader(in);
+             SQLiteStatement st = db.compileStatement(INSERT_GAME_SQL)) {
+            GameArchive.Row row = new GameArchive.Row();
+            boolean more = true;
+            while (more) {
+                db.beginTransactionNonExclusive();
+                try {
+                    for (int n = 0; n < IMPORT_BATCH && (more = reader.next(row)); n++) {
+                        bindGame(st, row.mode, row.winner, row.totalMoves, row.datePlayed, row.moves,
+                                row.playedAt, row.aiLevel, row.startFen);
+                        st.executeInsert();
+                        count++;
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+            ok = true;
+        } catch (IOException | RuntimeException ex) {
+            Log.e(TAG, "❌ Lỗi khi nhập lịch sử (sau " + count + " ván)", ex);
+        } finally {
+            db.beginTransactionNonExclusive();
+            try {
+                // File lỗi giữa chừng → bỏ các lô đã commit, lịch sử trở về như trước khi nhập
+                if (!ok) db.delete(TABLE_GAME, "id > ?", new String[]{String.valueOf(lastOldId)});
+                createIndexesAndStats(db);
+                rebuildStats(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+        if (!ok) return -1;
+        backfillPositionsAfter(lastOldId);
+        Log.d(TAG, "📥 Đã nhập " + count + " ván");
+        return count;
+    }
+
+    /**
+     * Dựng chỉ mục vị trí cho các ván id > afterId, mỗi thao tác ghi BACKFILL_CHUNK ván rồi tự xếp hàng phần kế
+     * → ván mới lưu trong lúc đó chen vào giữa các phần, không phải chờ cả quá trình.
+     */
+    private void backfillPositionsAfter(long afterId) {
+        enqueue(db -> {
+            if (insertPositionStmt == null) insertPositionStmt = compilePositionInsert(db);
+            long lastId = afterId;
+            int n = 0;
+            try (Cursor c = db.rawQuery("SELECT id, winner, moves, start_fen FROM " + TABLE_GAME
+                    + " WHERE id > ? AND moves IS NOT NULL ORDER BY id LIMIT " + BACKFILL_CHUNK,
+                    new String[]{String.valueOf(afterId)})) {
+                while (c.moveToNext()) {
+                    lastId = c.getLong(0);
+                    indexGame(insertPositionStmt, lastId, c.getString(1), c.getBlob(2), c.getString(3));
+                    n++;
+                }
+            }
+            if (n == BACKFILL_CHUNK) backfillPositionsAfter(lastId);
+            return n;
+        }, null);
+    }
+
+    /** Gán tham số cho INSERT_GAME_SQL (chuỗi null → NULL: ván cũ nhập từ archive có thể thiếu cột). */
+    private static void bindGame(SQLiteStatement st, String mode, String winner, int totalMoves, String datePlayed,
+                                 byte[] moves, long playedAt, int aiLevel, String startFen) {
+        st.clearBindings();
+        if (mode != null) st.bindString(1, mode);
+        if (winner != null) st.bindString(2, winner);
+        st.bindLong(3, totalMoves);
+        if (datePlayed != null) st.bindString(4, datePlayed);
+        if (moves != null) st.bindBlob(5, moves);
+        st.bindLong(6, playedAt);
+        st.bindLong(7, aiLevel);
+        if (startFen != null) st.bindString(8, startFen);
+    }
+
+    void enqueue(WriteOp op, WriteCallback callback) {
+        writeQueue.add(new PendingWrite(op, callback, false));
+    }
+
+    /** Thao tác dài tự chia transaction (nhập hàng loạt): chạy riêng trên luồng writer, ngoài lô. */
+    void enqueueStandalone(WriteOp op, WriteCallback callback) {
+        writeQueue.add(new PendingWrite(op, callback, true));
+    }
+
+    /** Luồng writer: chờ 1 thao tác, gom thêm những gì đang chờ, chạy cả lô trong 1 transaction. */
+    private void writerLoop() {
+        List<PendingWrite> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(writeQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            writeQueue.drainTo(batch, MAX_BATCH - 1);
+
+            long[] results = new long[batch.size()];
+            // Thao tác standalone cắt lô: các đoạn thường trước / sau nó mỗi đoạn 1 transaction
+            for (int i = 0; i < batch.size(); ) {
+                if (batch.get(i).standalone) {
+                    results[i] = runStandalone(batch.get(i).op);
+                    i++;
+                } else {
+                    int end = i;
+                    while (end < batch.size() && !batch.get(end).standalone) end++;
+                    runInTransaction(batch, i, end, results);
+                    i = end;
+                }
+            }
+
+            for (int i = 0; i < batch.size(); i++) {
+                WriteCallback cb = batch.get(i).callback;
+                long result = results[i];
+                if (cb != null) mainHandler.post(() -> cb.onComplete(result));
+            }
+            batch.clear();
+        }
+    }
+
+    private void runInTransaction(List<PendingWrite> batch, int from, int to, long[] results) {
+        try {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransactionNonExclusive();
+            try {
+                // Mỗi thao tác trong 1 SAVEPOINT: thao tác lỗi giữa chừng bị hoàn tác phần đã ghi,
+                // các thao tác khác trong lô vẫn commit
+                for (int i = from; i < to; i++) {
+                    db.execSQL("SAVEPOINT op");
+                    try {
+                        results[i] = batch.get(i).op.run(db);
+                    } catch (RuntimeException ex) {
+                        Log.e(TAG, "❌ Lỗi khi ghi", ex);
+                        results[i] = -1;
+                        // Dấu ';' đứng đầu là bắt buộc: API 21–27 xếp mọi câu bắt đầu bằng "ROL" vào
+                        // STATEMENT_ABORT → execSQL kết thúc luôn transaction ngoài thay vì về savepoint
+                        db.execSQL(";ROLLBACK TO op");
+                    }
+                    db.execSQL("RELEASE op");
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException ex) {
+            Log.e(TAG, "❌ Lỗi transaction, bỏ cả lô " + (to - from) + " thao tác", ex);
+            Arrays.fill(results, from, to, -1);
+        }
+    }
+
+    private long runStandalone(WriteOp op) {
+        try {
+            return op.run(getWritableDatabase());
+        } catch (RuntimeException ex) {
+            Log.e(TAG, "❌ Lỗi khi ghi", ex);
+            return -1;
+        }
+    }
+
+    // ===============================================================
+    // 📖 Đọc (luồng nền → callback trên main thread)
+    // ===============================================================
+
+    /** Trang kế tiếp của lịch sử (mới nhất trước); beforeId = Long.MAX_VALUE cho trang đầu. */
+    public void loadGamesPage(long beforeId, int limit, ReadCallback<List<GameRecord>> callback) {
+        read(() -> getGamesPage(beforeId, limit), callback);
+    }
+
+    public void loadMoves(long id, ReadCallback<byte[]> callback) {
+        read(() -> getMoves(id), callback);
+    }
+
+    /** Opening explorer: các nước đã đi từ vị trí posKey trong các ván đã lưu. */
+    public void loadExplorer(long posKey, ReadCallback<List<ExplorerMove>> callback) {
+        read(() -> getExplorer(posKey), callback);
+    }
+
+    /** Các ván (mới nhất trước) đã đi qua vị trí posKey. */
+    public void loadGamesReaching(long posKey, int limit, ReadCallback<List<GameRecord>> callback) {
+        read(() -> getGamesReaching(posKey, limit), callback);
+    }
+
+    /** Thống kê tổng hợp theo (mode, ai_level) kèm số ván trong sinceMillis trở lại đây. */
+    public void loadStats(long sinceMillis, ReadCallback<List<StatsRecord>> callback) {
+        read(() -> getStats(sinceMillis), callback);
+    }
+
+    /** Xuất toàn bộ lịch sử ra out (đóng out khi xong); callback nhận số ván đã xuất, null nếu lỗi. */
+    public void exportGames(OutputStream out, ReadCallback<Long> callback) {
+        read(() -> exportArchive(out), callback);
+    }
+
+    private <T> void read(Callable<T> query, ReadCallback<T> callback) {
+        reader.execute(() -> {
+            T result = null;
+            try {
+                result = query.call();
+            } catch (Exception ex) {
+                Log.e(TAG, "❌ Lỗi khi đọc", ex);
+            }
+            T r = result;
+            mainHandler.post(() -> callback.onResult(r));
+        });
+    }
+
+    // ✅ Một trang lịch sử: các ván có id < beforeId, id giảm dần (keyset pagination)
+    @WorkerThread
+    public List<GameRecord> getGamesPage(long beforeId, int limit) {
+        List<GameRecord> res = new ArrayList<>(limit);
+        SQLiteDatabase db = getReadableDatabase();
+        try (Cursor c = db.rawQuery("SELECT id, mode, winner, total_moves, date_played FROM " + TABLE_GAME
+                + " WHERE id < ? ORDER BY id DESC LIMIT ?",
+                new String[]{String.valueOf(beforeId), String.valueOf(limit)})) {
+            while (c.moveToNext()) {
+                res.add(new GameRecord(
                         c.getInt(0),
                         c.getString(1),
                         c.getString(2),
                         c.getInt(3),
                         c.getString(4)
-                );
-                res.add(gr);
-            } while (c.moveToNext());
+                ));
+            }
         }
+        return res;
+    }
 
-        c.close();
-        db.close();
+    // ✅ Xuất: đọc theo trang keyset EXPORT_PAGE dòng → ghi dần vào luồng nén, bộ nhớ không phụ thuộc số ván
+    @WorkerThread
+    public long exportArchive(OutputStream target) throws IOException {
+        SQLiteDatabase db = getReadableDatabase();
+        try (OutputStream out = target; GameArchive.Writer writer = new GameArchive.Writer(out)) {
+            GameArchive.Row row = new GameArchive.Row();
+            long lastId = 0;
+            int n;
+            do {
+                n = 0;
+                try (Cursor c = db.rawQuery("SELECT id, mode, winner, total_moves, date_played, played_at, ai_level,"
+                        + " moves, start_fen FROM " + TABLE_GAME + " WHERE id > ? ORDER BY id LIMIT " + EXPORT_PAGE,
+                        new String[]{String.valueOf(lastId)})) {
+                    while (c.moveToNext()) {
+                        lastId = c.getLong(0);
+                        row.mode = c.getString(1);
+                        row.winner = c.getString(2);
+                        row.totalMoves = c.getInt(3);
+                        row.datePlayed = c.getString(4);
+                        row.playedAt = c.getLong(5);
+                        row.aiLevel = c.getInt(6);
+                        row.moves = c.isNull(7) ? null : c.getBlob(7);
+                        row.startFen = c.getString(8);
+                        writer.write(row);
+                        n++;
+                    }
+                }
+            } while (n == EXPORT_PAGE);
+            return writer.finish();
+        }
+    }
+
+    // ✅ BLOB nước đi của một ván (null nếu ván không lưu nước đi / không tồn tại); giải mã từ start_fen của ván
+    @WorkerThread
+    public byte[] getMoves(long id) {
+        SQLiteDatabase db = getReadableDatabase();
+        try (Cursor c = db.rawQuery("SELECT moves FROM " + TABLE_GAME + " WHERE id = ?",
+                new String[]{String.valueOf(id)})) {
+            return c.moveToFirst() && !c.isNull(0) ? c.getBlob(0) : null;
+        }
+    }
+
+    // ✅ Opening explorer: gom theo nước đi tiếp, chỉ đọc khoảng pos_key = ? của khóa chính
+    @WorkerThread
+    public List<ExplorerMove> getExplorer(long posKey) {
+        List<ExplorerMove> res = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        try (Cursor c = db.rawQuery("SELECT move, COUNT(*), SUM(result = 1), SUM(result = -1), SUM(result = 0)"
+                + " FROM " + TABLE_POSITIONS + " WHERE pos_key = ? AND move <> " + Move.NONE
+                + " GROUP BY move ORDER BY COUNT(*) DESC", new String[]{String.valueOf(posKey)})) {
+            while (c.moveToNext()) {
+                res.add(new ExplorerMove(c.getInt(0), c.getInt(1), c.getInt(2), c.getInt(3), c.getInt(4)));
+            }
+        }
+        return res;
+    }
+
+    // ✅ Các ván đã qua vị trí posKey (mỗi ván 1 lần dù lặp vị trí)
+    @WorkerThread
+    public List<GameRecord> getGamesReaching(long posKey, int limit) {
+        List<GameRecord> res = new ArrayList<>(limit);
+        SQLiteDatabase db = getReadableDatabase();
+        try (Cursor c = db.rawQuery("SELECT g.id, g.mode, g.winner, g.total_moves, g.date_played FROM " + TABLE_GAME
+                + " g WHERE g.id IN (SELECT DISTINCT game_id FROM " + TABLE_POSITIONS + " WHERE pos_key = ?)"
+                + " ORDER BY g.id DESC LIMIT ?", new String[]{String.valueOf(posKey), String.valueOf(limit)})) {
+            while (c.moveToNext()) {
+                res.add(new GameRecord(c.getInt(0), c.getString(1), c.getString(2), c.getInt(3), c.getString(4)));
+            }
+        }
         return res;
     }
 
+    // ✅ Một nước trong opening explorer
+    public static class ExplorerMove {
+        public final int move;        // Move.encode
+        public final int games, whiteWins, blackWins, draws;
+
+        public ExplorerMove(int move, int games, int whiteWins, int blackWins, int draws) {
+            this.move = move;
+            this.games = games;
+            this.whiteWins = whiteWins;
+            this.blackWins = blackWins;
+            this.draws = draws;
+        }
+
+        /** Điểm của Trắng (thắng 1, hòa 0.5) trên mỗi ván, 0..1. */
+        public double whiteScore() {
+            return games == 0 ? 0 : (whiteWins + 0.5 * draws) / games;
+        }
+    }
+
+    // ✅ Thống kê: đọc GameStats (vài dòng) + đếm ván gần đây bằng chỉ mục (mode, played_at)
+    @WorkerThread
+    public List<StatsRecord> getStats(long sinceMillis) {
+        List<StatsRecord> res = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        try (Cursor c = db.rawQuery("SELECT s.mode, s.ai_level, s.games, s.white_wins, s.black_wins, s.draws,"
+                + " s.total_moves, (SELECT COUNT(*) FROM " + TABLE_GAME + " g"
+                + " WHERE g.mode = s.mode AND g.played_at >= ?)"
+                + " FROM " + TABLE_STATS + " s WHERE s.games > 0 ORDER BY s.ai_level, s.mode",
+                new String[]{String.valueOf(sinceMillis)})) {
+            while (c.moveToNext()) {
+                res.add(new StatsRecord(c.getString(0), c.getInt(1), c.getInt(2), c.getInt(3),
+                        c.getInt(4), c.getInt(5), c.getLong(6), c.getInt(7)));
+            }
+        }
+        return res;
+    }
+
+    // ✅ Một dòng thống kê
+    public static class StatsRecord {
+        public final String mode;
+        public final int aiLevel;
+        public final int games, whiteWins, blackWins, draws;
+        public final long totalMoves;
+        public final int recentGames;
+
+        public StatsRecord(String mode, int aiLevel, int games, int whiteWins, int blackWins, int draws,
+                           long totalMoves, int recentGames) {
+            this.mode = mode;
+            this.aiLevel = aiLevel;
+            this.games = games;
+            this.whiteWins = whiteWins;
+            this.blackWins = blackWins;
+            this.draws = draws;
+            this.totalMoves = totalMoves;
+            this.recentGames = recentGames;
+        }
+
+        /** Số nước trung bình mỗi ván. */
+        public double averageMoves() {
+            return games == 0 ? 0 : (double) totalMoves / games;
+        }
+    }
+
     // ✅ Lớp lưu dữ liệu 1 ván
     public static class GameRecord {
         public int id;
@@ -0,0 +1,163 @@
+package com.example.chessgame.db;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * GameArchive.java
+ * -----------------
+ * Định dạng file xuất / nhập lịch sử ván đấu (chuyển máy, đưa sang công cụ phân tích trên PC).
+ *  - Cả file là MỘT luồng zlib (RFC 1950, java.util.zip.Deflater) → Python: zlib.decompressobj() đọc dần được
+ *  - Bên trong: DataOutputStream (big-endian, chuỗi = writeUTF: 2 byte độ dài + UTF-8 biến thể của Java)
+ *      int MAGIC, int VERSION
+ *      lặp: byte 1, Row (xem write), ...
+ *      byte 0, long số ván (kiểm tra file không bị cắt cụt)
+ *  - moves = BLOB MoveCodec nguyên trạng (không giải mã lại khi xuất / nhập), kèm startFen để giải mã
+ *  - VERSION 1 (không có startFen) vẫn đọc được: mọi ván coi như bắt đầu từ thế chuẩn
+ *  - Ghi / đọc từng dòng qua buffer cố định → bộ nhớ không phụ thuộc số ván
+ */
+final class GameArchive {
+    static final int MAGIC = 0x43484741;   // "CHGA"
+    static final int VERSION = 2;
+    private static final int BUFFER = 64 * 1024;
+    private static final int MAX_MOVES_BLOB = 64 * 1024;   // BLOB nước đi thật chỉ vài trăm byte
+
+    /** Một ván trong archive (một đối tượng dùng lại cho mọi dòng khi đọc / ghi). */
+    static final class Row {
+        String mode;
+        String winner;
+        int totalMoves;
+        String datePlayed;
+        long playedAt;
+        int aiLevel;
+        byte[] moves;          // null = ván cũ không có nước đi
+        String startFen;       // null = thế chuẩn
+    }
+
+    // ===============================================================
+    // 📤 Ghi
+    // ===============================================================
+
+    static final class Writer implements Closeable {
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final DeflaterOutputStream zip;
+        private final DataOutputStream out;
+        private long count;
+
+        Writer(OutputStream target) throws IOException {
+            zip = new DeflaterOutputStream(target, deflater, BUFFER);
+            out = new DataOutputStream(zip);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        void write(Row r) throws IOException {
+            out.writeByte(1);
+            writeString(r.mode);
+            writeString(r.winner);
+            out.writeInt(r.totalMoves);
+            writeString(r.datePlayed);
+            out.writeLong(r.playedAt);
+            out.writeInt(r.aiLevel);
+            if (r.moves == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(r.moves.length);
+                out.write(r.moves);
+            }
+            writeString(r.startFen);
+            count++;
+        }
+
+        /** Ghi phần kết + xả luồng nén (file chưa finish coi như bị cắt cụt khi đọc). */
+        long finish() throws IOException {
+            out.writeByte(0);
+            out.writeLong(count);
+            out.flush();
+            zip.finish();
+            return count;
+        }
+
+        private void writeString(String s) throws IOException {
+            out.writeBoolean(s != null);
+            if (s != null) out.writeUTF(s);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    // ===============================================================
+    // 📥 Đọc
+    // ===============================================================
+
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final int version;
+        private long count;
+
+        Reader(InputStream source) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(source), BUFFER));
+            if (in.readInt() != MAGIC) throw new IOException("Không phải file lịch sử ván cờ");
+            version = in.readInt();
+            if (version > VERSION) throw new IOException("Phiên bản file " + version + " mới hơn ứng dụng");
+        }
+
+        /** Đọc ván kế tiếp vào r; false khi hết file (đã kiểm tra số ván ở phần kết). */
+        boolean next(Row r) throws IOException {
+            int tag;
+            try {
+                tag = in.readByte();
+            } catch (EOFException e) {
+                throw new IOException("File bị cắt cụt sau " + count + " ván", e);
+            }
+            if (tag == 0) {
+                long expected = in.readLong();
+                if (expected != count) throw new IOException("File hỏng: " + count + "/" + expected + " ván");
+                return false;
+            }
+            if (tag != 1) throw new IOException("File hỏng ở ván " + (count + 1));
+            r.mode = readString();
+            r.winner = readString();
+            r.totalMoves = in.readInt();
+            r.datePlayed = readString();
+            r.playedAt = in.readLong();
+            r.aiLevel = in.readInt();
+            int len = in.readInt();
+            if (len > MAX_MOVES_BLOB) throw new IOException("File hỏng ở ván " + (count + 1));
+            if (len < 0) {
+                r.moves = null;
+            } else {
+                r.moves = new byte[len];
+                in.readFully(r.moves);
+            }
+            r.startFen = version >= 2 ? readString() : null;
+            count++;
+            return true;
+        }
+
+        private String readString() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
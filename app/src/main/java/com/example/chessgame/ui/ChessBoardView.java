@@ -2,8 +2,6 @@ package com.example.chessgame.ui;
 
 import android.animation.ObjectAnimator;
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
@@ -17,13 +15,10 @@ import android.graphics.Color;
 
 import com.example.chessgame.R;
 import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.LegalMoves;
 import com.example.chessgame.logic.MoveValidator;
-import com.example.chessgame.model.Piece;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.example.chessgame.logic.PositionSnapshot;
+import com.example.chessgame.model.Move;
 
 /**
  * ChessBoardView (updated)
@@ -31,6 +26,12 @@ import java.util.Map;
  * - Dùng chung MoveValidator từ GameManager (không tạo validator cục bộ)
  * - Bảo vệ các cuộc gọi kiểm tra nước hợp lệ bằng try/catch để tránh crash/đơ
  * - Ghi log (Log.d/w/e) để dễ debug khi có vấn đề về move validation
+ * - Vẽ / chọn quân CHỈ từ PositionSnapshot mới nhất của GameManager (bất biến, có version),
+ *   không đọc Board trực tiếp → không thấy nước đang make / undo dở của validator hay AI
+ * - onDraw không cấp phát đối tượng nào: Rect dùng lại, ảnh quân lấy từ SpriteAtlas theo Piece.code(),
+ *   ô đích hợp lệ là bitmask 64 bit, nền bàn cờ vẽ sẵn theo kích thước (SpriteAtlas.board())
+ * - Ảnh giải mã trên luồng nền, scale sẵn đúng cellSize (SpriteAtlas, cache chung cả process);
+ *   atlas chưa sẵn sàng → khung hình đó chưa vẽ nền / quân
  *
  * Lưu ý: để hoạt động đúng, GameManager phải expose hàm getValidator() trả MoveValidator.
  */
@@ -49,7 +50,10 @@ public class ChessBoardView extends View {
 
     // Drawing / state fields
     private Paint paint = new Paint();
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG); // vẽ ảnh: không dính alpha / style của paint
+    private final Rect dst = new Rect();   // ô đang vẽ (dùng lại cho mọi ô, mọi khung hình)
     private int cellSize;
+    private SpriteAtlas atlas;             // ảnh quân + nền đã scale đúng cellSize (null khi đang giải mã)
 
     // Core logic holders
     private GameManager gameManager;
@@ -57,7 +61,8 @@ public class ChessBoardView extends View {
 
     // Selected square + valid moves for highlighting
     private int selectedR = -1, selectedC = -1;
-    private List<int[]> validMoves = new ArrayList<>();
+    private long targetMask = 0;    // bit (row * 8 + col) = ô đích hợp lệ của quân đang chọn
+    private boolean inputEnabled = true;   // false khi AI đang nghĩ (luồng nền) → không nhận chạm
 
     // Sound & visual capture effect
     private SoundPool soundPool;
@@ -66,10 +71,6 @@ public class ChessBoardView extends View {
     private boolean capturing = false;
     private int captureRow = -1, captureCol = -1;
 
-    // Images
-    private Bitmap lightSquare, darkSquare;
-    private Map<String, Bitmap> pieceImages = new HashMap<>();
-
     // ---------------- constructor ----------------
     public ChessBoardView(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -88,10 +89,9 @@ public class ChessBoardView extends View {
         validator = gameManager.getValidator();
 
         initSounds();
-        loadImages();
     }
 
-    // ---------------- sounds & images ----------------
+    // ---------------- sounds ----------------
     private void initSounds() {
         AudioAttributes attrs = new AudioAttributes.Builder()
                 .setUsage(AudioAttributes.USAGE_GAME)
@@ -108,74 +108,57 @@ public class ChessBoardView extends View {
         soundCapture = soundPool.load(getContext(), R.raw.capture, 1);
     }
 
-    private void loadImages() {
-        // tải image ô và quân từ resources
-        lightSquare = BitmapFactory.decodeResource(getResources(), R.drawable.chess_light);
-        darkSquare = BitmapFactory.decodeResource(getResources(), R.drawable.chess_dark);
-
-        pieceImages.put("WHITE_KING", BitmapFactory.decodeResource(getResources(), R.drawable.w_king));
-        pieceImages.put("WHITE_QUEEN", BitmapFactory.decodeResource(getResources(), R.drawable.w_queen));
-        pieceImages.put("WHITE_ROOK", BitmapFactory.decodeResource(getResources(), R.drawable.w_rook));
-        pieceImages.put("WHITE_BISHOP", BitmapFactory.decodeResource(getResources(), R.drawable.w_bishop));
-        pieceImages.put("WHITE_KNIGHT", BitmapFactory.decodeResource(getResources(), R.drawable.w_knight));
-        pieceImages.put("WHITE_PAWN", BitmapFactory.decodeResource(getResources(), R.drawable.w_pawn));
-
-        pieceImages.put("BLACK_KING", BitmapFactory.decodeResource(getResources(), R.drawable.b_king));
-        pieceImages.put("BLACK_QUEEN", BitmapFactory.decodeResource(getResources(), R.drawable.b_queen));
-        pieceImages.put("BLACK_ROOK", BitmapFactory.decodeResource(getResources(), R.drawable.b_rook));
-        pieceImages.put("BLACK_BISHOP", BitmapFactory.decodeResource(getResources(), R.drawable.b_bishop));
-        pieceImages.put("BLACK_KNIGHT", BitmapFactory.decodeResource(getResources(), R.drawable.b_knight));
-        pieceImages.put("BLACK_PAWN", BitmapFactory.decodeResource(getResources(), R.drawable.b_pawn));
+    // ---------------- drawing ----------------
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        cellSize = w / 8;
+        if (atlas != null && atlas.cellSize() != cellSize) atlas = null;
+        if (cellSize <= 0) return;
+
+        // Cache có sẵn cỡ này → gọi lại ngay; chưa có → giải mã nền rồi vẽ lại
+        int size = cellSize;
+        SpriteAtlas.load(getContext().getApplicationContext().getResources(), size, a -> {
+            if (a == null || size != cellSize) return;   // lỗi / view đã đổi cỡ trong lúc chờ
+            atlas = a;
+            invalidate();
+        });
     }
 
-    // ---------------- drawing ----------------
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        int width = getWidth();
-        cellSize = width / 8;
+        PositionSnapshot snap = gameManager.getSnapshot(); // 1 snapshot cho cả khung hình
 
         drawBoard(canvas);
         drawHighlights(canvas);
-        drawPieces(canvas);
+        drawPieces(canvas, snap);
         if (selectedR != -1 && selectedC != -1) drawSelection(canvas, selectedR, selectedC);
         if (capturing) drawCaptureEffect(canvas);
     }
 
     private void drawBoard(Canvas canvas) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                boolean isLight = (r + c) % 2 == 0;
-                Bitmap square = isLight ? lightSquare : darkSquare;
-                if (square != null) {
-                    Rect dst = new Rect(c * cellSize, r * cellSize, (c + 1) * cellSize, (r + 1) * cellSize);
-                    canvas.drawBitmap(square, null, dst, paint);
-                }
-            }
-        }
+        if (atlas != null) canvas.drawBitmap(atlas.board(), 0, 0, null);
     }
 
     private void drawHighlights(Canvas canvas) {
         paint.setStyle(Paint.Style.FILL);
         paint.setColor(0x5000C800); // translucent green
-        for (int[] move : validMoves) {
-            int r = move[0], c = move[1];
+        for (long m = targetMask; m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            int r = sq >>> 3, c = sq & 7;
             canvas.drawRect(c * cellSize, r * cellSize, (c + 1) * cellSize, (r + 1) * cellSize, paint);
         }
     }
 
-    private void drawPieces(Canvas canvas) {
+    private void drawPieces(Canvas canvas, PositionSnapshot snap) {
+        if (atlas == null) return;
         for (int r = 0; r < 8; r++) {
             for (int c = 0; c < 8; c++) {
-                Piece p = gameManager.getBoard().getPiece(r, c);
-                if (p != null) {
-                    String key = (p.isWhite() ? "WHITE_" : "BLACK_") + p.getType().name();
-                    Bitmap img = pieceImages.get(key);
-                    if (img != null) {
-                        Rect dst = new Rect(c * cellSize, r * cellSize, (c + 1) * cellSize, (r + 1) * cellSize);
-                        paint.setAlpha(255);
-                        canvas.drawBitmap(img, null, dst, paint);
-                    }
+                int code = snap.pieceAt(r, c);
+                if (code != 0) {
+                    dst.set(c * cellSize, r * cellSize, (c + 1) * cellSize, (r + 1) * cellSize);
+                    atlas.draw(canvas, code, dst, bitmapPaint);
                 }
             }
         }
@@ -192,6 +175,7 @@ public class ChessBoardView extends View {
         if (captureRow == -1 || captureCol == -1) return;
         float cx = captureCol * cellSize + cellSize / 2f;
         float cy = captureRow * cellSize + cellSize / 2f;
+        paint.setStyle(Paint.Style.FILL);
         paint.setColor(Color.argb(180, 255, 0, 0));
         canvas.drawCircle(cx, cy, cellSize * 0.4f * captureScale, paint);
     }
@@ -201,31 +185,32 @@ public class ChessBoardView extends View {
     public boolean onTouchEvent(MotionEvent event) {
         // Chỉ xử lý khi nhấn xuống
         if (event.getAction() != MotionEvent.ACTION_DOWN) return false;
-        if (cellSize == 0) return false;
+        if (cellSize == 0 || !inputEnabled) return false;
 
         // Không cho phép thao tác nếu ván đã kết thúc
-        if (gameManager.isGameOver()) return false;
+        PositionSnapshot snap = gameManager.getSnapshot();
+        if (snap.isGameOver()) return false;
 
         int col = (int) (event.getX() / cellSize);
         int row = (int) (event.getY() / cellSize);
         if (row < 0 || row > 7 || col < 0 || col > 7) return false;
 
-        // Lấy quân tại ô nhấn
-        Piece selectedPiece = gameManager.getBoard().getPiece(row, col);
+        // Lấy quân tại ô nhấn (từ snapshot)
+        int selectedCode = snap.pieceAt(row, col);
 
         // Nếu chưa có ô được chọn trước đó -> chọn quân (nếu của bên đang đi)
         if (selectedR == -1) {
-            if (selectedPiece != null && selectedPiece.isWhite() == gameManager.isWhiteTurn()) {
+            if (selectedCode != 0 && snap.isWhiteAt(row, col) == snap.isWhiteToMove()) {
                 selectedR = row;
                 selectedC = col;
 
-                // Lấy danh sách valid moves bằng validator từ GameManager; bọc try/catch để an toàn
+                // Lấy các ô đích từ tập nước hợp lệ trong snapshot; bọc try/catch để an toàn
                 try {
-                    validMoves = getValidMovesForPiece(selectedPiece, row, col);
+                    targetMask = targetsOf(snap, row, col);
                 } catch (Exception ex) {
                     // Log nếu có lỗi bất thường trong validator -> tránh crash app
                     Log.e(TAG, "Error while computing valid moves", ex);
-                    validMoves = new ArrayList<>();
+                    targetMask = 0;
                 }
 
                 // Play select sound
@@ -233,8 +218,7 @@ public class ChessBoardView extends View {
             }
         } else {
             // Có ô được chọn → cố gắng di chuyển tới ô nhấn
-            Piece target = gameManager.getBoard().getPiece(row, col);
-            boolean isCapture = target != null && target.isWhite() != gameManager.isWhiteTurn();
+            boolean isCapture = snap.pieceAt(row, col) != 0 && snap.isWhiteAt(row, col) != snap.isWhiteToMove();
 
             // Thực hiện move thông qua GameManager (tryMove sẽ kiểm tra tính hợp lệ)
             boolean moved;
@@ -249,7 +233,7 @@ public class ChessBoardView extends View {
             // Reset selection & highlights
             selectedR = -1;
             selectedC = -1;
-            validMoves.clear();
+            targetMask = 0;
 
             if (moved) {
                 // Play sound / trigger animation / redraw
@@ -268,32 +252,15 @@ public class ChessBoardView extends View {
     }
 
     // ---------------- compute valid moves ----------------
-    private List<int[]> getValidMovesForPiece(Piece p, int r, int c) {
-        List<int[]> moves = new ArrayList<>();
-
-        // Lấy validator *mỗi lần* từ gameManager (phòng trường hợp validator instance trong GM thay đổi)
-        // (this avoids stale validator reference)
-        MoveValidator mv = gameManager.getValidator();
-        if (mv == null) {
-            Log.w(TAG, "MoveValidator is null in GameManager!");
-            return moves;
-        }
-
-        // Duyệt toàn bộ ô đích để tìm nước hợp lệ
-        for (int tr = 0; tr < 8; tr++) {
-            for (int tc = 0; tc < 8; tc++) {
-                try {
-                    // Bọc gọi isValidMove bằng try/catch để tránh các lỗi mô phỏng hiếm
-                    if (mv.isValidMove(r, c, tr, tc, gameManager.isWhiteTurn())) {
-                        moves.add(new int[]{tr, tc});
-                    }
-                } catch (Exception ex) {
-                    // Nếu validator ném exception (hiếm), log & bỏ qua nước đó
-                    Log.e(TAG, "Validator exception for move " + r + "," + c + " -> " + tr + "," + tc, ex);
-                }
-            }
+    // Lấy từ tập nước hợp lệ của snapshot (GameManager đã tính sẵn, không quét 64 ô đích)
+    private long targetsOf(PositionSnapshot snap, int r, int c) {
+        LegalMoves legal = snap.getLegalMoves();
+        int sq = r * 8 + c;
+        long mask = 0;
+        for (int i = legal.start(sq); i < legal.end(sq); i++) {
+            mask |= 1L << Move.to(legal.get(i));
         }
-        return moves;
+        return mask;
     }
 
     // ---------------- capture animation ----------------
@@ -319,7 +286,7 @@ public class ChessBoardView extends View {
         gameManager.reset();
         validator = gameManager.getValidator();
         selectedR = selectedC = -1;
-        validMoves.clear();
+        targetMask = 0;
         invalidate();
     }
 
@@ -331,6 +298,17 @@ public class ChessBoardView extends View {
         return ok;
     }
 
+    /** Bật / tắt nhận chạm (vd: tắt trong lúc AI nghĩ để người chơi không đi hộ quân của AI). */
+    public void setInputEnabled(boolean enabled) {
+        if (inputEnabled == enabled) return;
+        inputEnabled = enabled;
+        if (!enabled && selectedR != -1) {
+            selectedR = selectedC = -1;
+            targetMask = 0;
+            invalidate();
+        }
+    }
+
     public GameManager getGameManager() {
         return gameManager;
     }
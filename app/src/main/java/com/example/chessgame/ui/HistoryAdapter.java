@@ -6,18 +6,49 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.chessgame.R;
 import com.example.chessgame.db.DatabaseHelper;
 
-import java.util.List;
+import java.util.Objects;
 
-public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
-    private final List<DatabaseHelper.GameRecord> games;
+/**
+ * HistoryAdapter.java
+ * --------------------
+ * Danh sách lịch sử ván đấu cho RecyclerView.
+ *  - ListAdapter + DiffUtil (tính diff trên luồng nền): nối thêm trang mới chỉ chèn các dòng mới,
+ *    không vẽ lại cả danh sách
+ *  - ViewHolder giữ sẵn các TextView → bind chỉ setText, không inflate / findViewById lại
+ */
+public class HistoryAdapter extends ListAdapter<DatabaseHelper.GameRecord, HistoryAdapter.ViewHolder> {
 
-    public HistoryAdapter(List<DatabaseHelper.GameRecord> games) {
-        this.games = games;
+    private static final DiffUtil.ItemCallback<DatabaseHelper.GameRecord> DIFF =
+            new DiffUtil.ItemCallback<DatabaseHelper.GameRecord>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull DatabaseHelper.GameRecord a, @NonNull DatabaseHelper.GameRecord b) {
+                    return a.id == b.id;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull DatabaseHelper.GameRecord a, @NonNull DatabaseHelper.GameRecord b) {
+                    return a.totalMoves == b.totalMoves
+                            && Objects.equals(a.mode, b.mode)
+                            && Objects.equals(a.winner, b.winner)
+                            && Objects.equals(a.datePlayed, b.datePlayed);
+                }
+            };
+
+    public HistoryAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).id;
     }
 
     @NonNull
@@ -30,19 +61,13 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        DatabaseHelper.GameRecord g = games.get(position);
-        String mode = g.mode.equals("ai") ? "Đấu Máy" : "2 Người";
-        holder.txtGameTitle.setText("♟️ Ván #" + g.id + " - " + mode);
+        DatabaseHelper.GameRecord g = getItem(position);
+        holder.txtGameTitle.setText("♟️ Ván #" + g.id + " - " + g.mode);
         holder.txtWinner.setText("Người thắng: " + g.winner);
         holder.txtMoves.setText("Số nước đi: " + g.totalMoves);
         holder.txtDate.setText("Ngày: " + g.datePlayed);
     }
 
-    @Override
-    public int getItemCount() {
-        return games.size();
-    }
-
     public static class ViewHolder extends RecyclerView.ViewHolder {
         TextView txtGameTitle, txtWinner, txtMoves, txtDate;
 
@@ -0,0 +1,176 @@
+package com.example.chessgame.ui;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+
+import com.example.chessgame.R;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SpriteAtlas.java
+ * -----------------
+ * Ảnh quân + ô bàn cờ đã scale sẵn đúng cellSize, gói trong MỘT bitmap (lưới 4 x 4 ô).
+ *  - Giải mã trên luồng nền "sprite-loader", không chặn constructor / main thread
+ *  - inScaled = false: giải mã theo kích thước gốc của PNG (không để BitmapFactory phóng theo mật độ màn hình),
+ *    inSampleSize = lũy thừa 2 lớn nhất mà ảnh vẫn ≥ cellSize → không giải mã thừa điểm ảnh
+ *  - Scale 1 lần khi dựng atlas → mỗi khung hình drawBitmap 1:1, không scale
+ *  - Kèm nền 8 x 8 ô vẽ sẵn (board()) cho cùng cellSize
+ *  - Cache cấp process theo cellSize: mọi ChessBoardView (mọi ChessActivity) cùng kích thước dùng chung 1 atlas
+ */
+public final class SpriteAtlas {
+    private static final String TAG = "SpriteAtlas";
+
+    // Ô trong atlas: 1..12 = Piece.code(), thêm 2 ô nền
+    public static final int SLOT_LIGHT = 13;
+    public static final int SLOT_DARK = 14;
+    private static final int SLOTS = 15;
+    private static final int GRID = 4;   // 4 x 4 ô ≥ SLOTS
+
+    // Ảnh theo ô: Piece.code() 1..6 Trắng, 7..12 Đen (thứ tự Piece.Type: KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN)
+    private static final int[] DRAWABLES = {
+            0,
+            R.drawable.w_king, R.drawable.w_queen, R.drawable.w_rook,
+            R.drawable.w_bishop, R.drawable.w_knight, R.drawable.w_pawn,
+            R.drawable.b_king, R.drawable.b_queen, R.drawable.b_rook,
+            R.drawable.b_bishop, R.drawable.b_knight, R.drawable.b_pawn,
+            R.drawable.chess_light, R.drawable.chess_dark,
+    };
+
+    /** Nhận atlas trên main thread (null nếu giải mã lỗi). */
+    public interface Callback {
+        void onReady(SpriteAtlas atlas);
+    }
+
+    // ----- Cache cấp process (chỉ truy cập trên main thread) -----
+    private static SpriteAtlas cached;
+    private static int loadingSize = 0;
+    private static List<Callback> waiting = new ArrayList<>();
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sprite-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final int cellSize;
+    private final Bitmap atlas;
+    private final Bitmap board;
+    private final Rect[] src = new Rect[SLOTS];
+
+    private SpriteAtlas(int cellSize, Bitmap atlas, Bitmap board) {
+        this.cellSize = cellSize;
+        this.atlas = atlas;
+        this.board = board;
+        for (int i = 1; i < SLOTS; i++) src[i] = slotRect(i, cellSize);
+    }
+
+    public int cellSize() { return cellSize; }
+
+    /** Nền 8 x 8 ô (cellSize * 8 mỗi chiều). */
+    public Bitmap board() { return board; }
+
+    /** Vẽ ô slot (Piece.code() / SLOT_LIGHT / SLOT_DARK) vào dst; dst cùng cỡ cellSize → không scale. */
+    public void draw(Canvas canvas, int slot, Rect dst, Paint paint) {
+        canvas.drawBitmap(atlas, src[slot], dst, paint);
+    }
+
+    private static Rect slotRect(int slot, int cellSize) {
+        int x = (slot % GRID) * cellSize, y = (slot / GRID) * cellSize;
+        return new Rect(x, y, x + cellSize, y + cellSize);
+    }
+
+    // ===============================================================
+    // 📦 Nạp (cache theo cellSize)
+    // ===============================================================
+
+    /**
+     * Lấy atlas cho cellSize: có sẵn trong cache → callback ngay; đang giải mã cùng cỡ → chờ chung;
+     * cỡ khác → giải mã mới trên luồng nền (atlas cũ giữ nguyên cho tới khi atlas mới xong).
+     */
+    @MainThread
+    public static void load(Resources res, int cellSize, Callback callback) {
+        SpriteAtlas a = cached;
+        if (a != null && a.cellSize == cellSize) {
+            callback.onReady(a);
+            return;
+        }
+        if (loadingSize == cellSize) {
+            waiting.add(callback);
+            return;
+        }
+
+        loadingSize = cellSize;
+        List<Callback> callbacks = waiting = new ArrayList<>();
+        callbacks.add(callback);
+        loader.execute(() -> {
+            long t0 = System.nanoTime();
+            SpriteAtlas built = null;
+            try {
+                built = build(res, cellSize);
+                Log.d(TAG, "🖼️ Atlas " + cellSize + "px: " + (System.nanoTime() - t0) / 1000 + " µs");
+            } catch (RuntimeException | OutOfMemoryError e) {
+                Log.e(TAG, "❌ Không dựng được atlas " + cellSize + "px", e);
+            }
+            SpriteAtlas result = built;
+            mainHandler.post(() -> {
+                if (loadingSize == cellSize) {
+                    loadingSize = 0;
+                    if (result != null) cached = result;
+                }
+                for (Callback cb : callbacks) cb.onReady(result);
+            });
+        });
+    }
+
+    private static SpriteAtlas build(Resources res, int cellSize) {
+        Bitmap atlas = Bitmap.createBitmap(GRID * cellSize, GRID * cellSize, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(atlas);
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        for (int slot = 1; slot < SLOTS; slot++) {
+            Bitmap img = decode(res, DRAWABLES[slot], cellSize);
+            if (img == null) continue;
+            canvas.drawBitmap(img, null, slotRect(slot, cellSize), paint);
+            img.recycle();
+        }
+
+        Bitmap board = Bitmap.createBitmap(8 * cellSize, 8 * cellSize, Bitmap.Config.ARGB_8888);
+        Canvas boardCanvas = new Canvas(board);
+        Rect dst = new Rect();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                dst.set(c * cellSize, r * cellSize, (c + 1) * cellSize, (r + 1) * cellSize);
+                int slot = (r + c) % 2 == 0 ? SLOT_LIGHT : SLOT_DARK;
+                boardCanvas.drawBitmap(atlas, slotRect(slot, cellSize), dst, null);
+            }
+        }
+        return new SpriteAtlas(cellSize, atlas, board);
+    }
+
+    /** Giải mã ảnh với inSampleSize vừa đủ cho target điểm ảnh mỗi chiều. */
+    private static Bitmap decode(Resources res, int id, int target) {
+        BitmapFactory.Options opts = new BitmapFactory.Options();
+        opts.inScaled = false;
+        opts.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(res, id, opts);
+
+        int sample = 1;
+        while (opts.outWidth / (sample * 2) >= target && opts.outHeight / (sample * 2) >= target) sample *= 2;
+        opts.inJustDecodeBounds = false;
+        opts.inSampleSize = sample;
+        return BitmapFactory.decodeResource(res, id, opts);
+    }
+}
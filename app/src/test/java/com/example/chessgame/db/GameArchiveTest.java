@@ -0,0 +1,162 @@
+package com.example.chessgame.db;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * GameArchiveTest.java
+ * ---------------------
+ * File xuất / nhập lịch sử: đọc lại đúng từng cột, phần kết sai số ván / file bị cắt → IOException,
+ * file VERSION 1 (chưa có startFen) vẫn đọc được.
+ */
+public class GameArchiveTest {
+
+    @Test
+    public void roundTrip() throws IOException {
+        GameArchive.Row a = row("Đấu máy (Level 2)", "Trắng", 41, new byte[]{1, 2, 3}, null);
+        GameArchive.Row b = row(null, null, 0, null, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1");
+
+        byte[] file = write(a, b);
+        try (GameArchive.Reader reader = new GameArchive.Reader(new ByteArrayInputStream(file))) {
+            GameArchive.Row r = new GameArchive.Row();
+            assertTrue(reader.next(r));
+            assertRow(a, r);
+            assertTrue(reader.next(r));
+            assertRow(b, r);
+            assertFalse(reader.next(r));
+        }
+    }
+
+    @Test
+    public void trailerCountMismatch() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(GameArchive.MAGIC);
+            out.writeInt(GameArchive.VERSION);
+            writeRawRow(out, true);
+            out.writeByte(0);
+            out.writeLong(2);          // phần kết khai 2 ván, file chỉ có 1
+        }
+        assertReadFails(bytes.toByteArray(), "1/2");
+    }
+
+    @Test
+    public void truncatedFile() throws IOException {
+        byte[] file = write(row("2 người", "Hòa", 80, new byte[40], null), row("2 người", "Đen", 12, null, null));
+        // Thiếu phần kết + đuôi luồng zlib
+        byte[] cut = Arrays.copyOf(file, file.length - 12);
+        try (GameArchive.Reader reader = new GameArchive.Reader(new ByteArrayInputStream(cut))) {
+            GameArchive.Row r = new GameArchive.Row();
+            while (reader.next(r)) {
+                // đọc tới khi lỗi
+            }
+            fail("File bị cắt phải báo lỗi");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+
+    @Test
+    public void versionOneHasNoStartFen() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeInt(GameArchive.MAGIC);
+            out.writeInt(1);
+            writeRawRow(out, false);
+            out.writeByte(0);
+            out.writeLong(1);
+        }
+        try (GameArchive.Reader reader = new GameArchive.Reader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            GameArchive.Row r = new GameArchive.Row();
+            r.startFen = "giá trị cũ";
+            assertTrue(reader.next(r));
+            assertEquals("Trắng", r.winner);
+            assertArrayEquals(new byte[]{7, 7}, r.moves);
+            assertNull(r.startFen);
+            assertFalse(reader.next(r));
+        }
+    }
+
+    @Test
+    public void foreignFileRejected() {
+        assertReadFails(new byte[]{0x78, (byte) 0x9C, 1, 2, 3}, null);
+    }
+
+    // ----------------------------------------------------------------
+
+    private static GameArchive.Row row(String mode, String winner, int totalMoves, byte[] moves, String startFen) {
+        GameArchive.Row r = new GameArchive.Row();
+        r.mode = mode;
+        r.winner = winner;
+        r.totalMoves = totalMoves;
+        r.datePlayed = "01/02/2025 10:30";
+        r.playedAt = 1_738_405_800_000L + totalMoves;
+        r.aiLevel = 2;
+        r.moves = moves;
+        r.startFen = startFen;
+        return r;
+    }
+
+    private static byte[] write(GameArchive.Row... rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameArchive.Writer writer = new GameArchive.Writer(bytes)) {
+            for (GameArchive.Row r : rows) writer.write(r);
+            assertEquals(rows.length, writer.finish());
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Một dòng viết tay đúng định dạng (withStartFen = false → dòng của VERSION 1). */
+    private static void writeRawRow(DataOutputStream out, boolean withStartFen) throws IOException {
+        out.writeByte(1);
+        out.writeBoolean(true);
+        out.writeUTF("2 người");
+        out.writeBoolean(true);
+        out.writeUTF("Trắng");
+        out.writeInt(2);
+        out.writeBoolean(false);       // date_played NULL
+        out.writeLong(0);
+        out.writeInt(0);
+        out.writeInt(2);
+        out.write(new byte[]{7, 7});
+        if (withStartFen) out.writeBoolean(false);
+    }
+
+    private static void assertReadFails(byte[] file, String messagePart) {
+        try (GameArchive.Reader reader = new GameArchive.Reader(new ByteArrayInputStream(file))) {
+            GameArchive.Row r = new GameArchive.Row();
+            while (reader.next(r)) {
+                // đọc tới phần kết
+            }
+            fail("Phải báo lỗi");
+        } catch (IOException e) {
+            if (messagePart != null) {
+                assertTrue(e.getMessage(), e.getMessage() != null && e.getMessage().contains(messagePart));
+            }
+        }
+    }
+
+    private static void assertRow(GameArchive.Row expected, GameArchive.Row actual) {
+        assertEquals(expected.mode, actual.mode);
+        assertEquals(expected.winner, actual.winner);
+        assertEquals(expected.totalMoves, actual.totalMoves);
+        assertEquals(expected.datePlayed, actual.datePlayed);
+        assertEquals(expected.playedAt, actual.playedAt);
+        assertEquals(expected.aiLevel, actual.aiLevel);
+        assertArrayEquals(expected.moves, actual.moves);
+        assertEquals(expected.startFen, actual.startFen);
+    }
+}
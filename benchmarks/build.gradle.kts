@@ -0,0 +1,28 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+// Module JVM để đo hiệu năng engine cờ (app là module Android, JMH không chạy được trên đó).
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    implementation(project(":engine"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // gc.alloc.rate.norm: số byte cấp phát / 1 thao tác → bắt hồi quy cấp phát trên hot path
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
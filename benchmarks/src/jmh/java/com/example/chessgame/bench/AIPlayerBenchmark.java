@@ -0,0 +1,54 @@
+package com.example.chessgame.bench;
+
+import com.example.chessgame.logic.AIPlayer;
+import com.example.chessgame.logic.GameManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIPlayer.makeBestMove theo từng mức. nps đặt rất cao để budget chỉ phụ thuộc số node của mức
+ * (không bị cắt theo tốc độ máy đo) → cùng khối lượng công việc trên mọi máy.
+ * TT được xóa trước mỗi lần gọi để các lần đo không hưởng kết quả của lần trước.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AIPlayerBenchmark {
+    private static final long UNCAPPED_NPS = 100_000_000L;
+
+    @Param({"1", "2", "3"})
+    public int level;
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private GameManager gm;
+    private AIPlayer ai;
+
+    @Setup
+    public void setup() {
+        gm = BenchPositions.gameManager(position);
+        ai = new AIPlayer(gm, level, UNCAPPED_NPS);
+    }
+
+    @Benchmark
+    public boolean makeBestMove() {
+        ai.newGame();
+        boolean moved = ai.makeBestMove(gm.isWhiteTurn());
+        if (moved) gm.undo();
+        return moved;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.chessgame.bench;
+
+import com.example.chessgame.logic.GameManager;
+
+/**
+ * Vị trí đại diện cho 3 giai đoạn ván cờ.
+ */
+final class BenchPositions {
+    static final String OPENING = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3";
+    static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+    static final String ENDGAME = "8/pp2r1k1/2p1p3/3pP2p/1P1P1P1P/P5KR/8/8 w - - 0 1";
+
+    private BenchPositions() {}
+
+    static String fen(String name) {
+        switch (name) {
+            case "opening": return OPENING;
+            case "middlegame": return MIDDLEGAME;
+            case "endgame": return ENDGAME;
+            default: throw new IllegalArgumentException(name);
+        }
+    }
+
+    /** Nạp vị trí vào GameManager mới qua loadFen (lịch sử vị trí, đồng hồ 50 nước, lượt đi đều đúng). */
+    static GameManager gameManager(String name) {
+        GameManager gm = new GameManager();
+        gm.loadFen(fen(name));
+        return gm;
+    }
+}
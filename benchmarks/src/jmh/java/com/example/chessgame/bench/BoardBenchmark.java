@@ -0,0 +1,94 @@
+package com.example.chessgame.bench;
+
+import com.example.chessgame.logic.Board;
+import com.example.chessgame.logic.Fen;
+import com.example.chessgame.logic.MoveGenerator;
+import com.example.chessgame.logic.MoveValidator;
+import com.example.chessgame.model.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thao tác cơ bản trên Board / MoveValidator. Mỗi phép đo duyệt toàn bộ nước hợp lệ (hoặc 64 ô)
+ * của vị trí nên kết quả là thời gian cho cả vị trí, không phải cho 1 nước.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private Board board;
+    private MoveValidator validator;
+    private boolean white;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private int count;
+
+    @Setup
+    public void setup() {
+        Fen.Position pos = Fen.parse(BenchPositions.fen(position));
+        board = pos.board;
+        white = pos.whiteToMove;
+        validator = new MoveValidator(board);
+        validator.setEnPassantIndex(pos.enPassantIndex);
+        count = MoveGenerator.generateLegal(board, validator, white, moves);
+    }
+
+    @Benchmark
+    public void makeUndoMove(Blackhole bh) {
+        for (int i = 0; i < count; i++) {
+            int m = moves[i];
+            Board.MoveBackup backup = board.makeMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+            bh.consume(backup);
+            board.undoMove(backup);
+        }
+    }
+
+    @Benchmark
+    public Board copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public int isValidMove() {
+        int valid = 0;
+        for (int i = 0; i < count; i++) {
+            int m = moves[i];
+            if (validator.isValidMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m), white)) valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int isSquareAttacked() {
+        int attacked = 0;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (validator.isSquareAttacked(r, c, !white)) attacked++;
+            }
+        }
+        return attacked;
+    }
+
+    @Benchmark
+    public boolean isKingInCheck() {
+        return validator.isKingInCheck(white) | validator.isKingInCheck(!white);
+    }
+
+    @Benchmark
+    public boolean isCheckmate() {
+        return validator.isCheckmate(white);
+    }
+}
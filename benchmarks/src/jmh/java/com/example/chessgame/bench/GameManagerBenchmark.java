@@ -0,0 +1,51 @@
+package com.example.chessgame.bench;
+
+import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.MoveGenerator;
+import com.example.chessgame.model.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameManager.tryMove + undo cho mọi nước hợp lệ của vị trí (gồm cả kiểm tra kết thúc ván sau mỗi nước).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameManagerBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private GameManager gm;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private int count;
+
+    @Setup
+    public void setup() {
+        gm = BenchPositions.gameManager(position);
+        count = MoveGenerator.generateLegal(gm.getBoard(), gm.getValidator(), gm.isWhiteTurn(), moves);
+    }
+
+    @Benchmark
+    public int tryMoveUndo() {
+        int done = 0;
+        for (int i = 0; i < count; i++) {
+            int m = moves[i];
+            if (gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m))) {
+                done++;
+                gm.undo();
+            }
+        }
+        return done;
+    }
+}
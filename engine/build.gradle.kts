@@ -0,0 +1,83 @@
+plugins {
+    `java-library`
+}
+
+// Engine cờ thuần Java (không phụ thuộc Android): Board, MoveValidator, GameManager, AIPlayer, SearchEngine...
+// Dùng chung cho app (Android), benchmarks (JMH) và các công cụ chạy trên JVM (bench, self-play).
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Source set "vector": NnueVectorKernel dùng jdk.incubator.vector (JDK 17+). KHÔNG vào jar của engine
+// (app Android không có Vector API) — chỉ nằm trên classpath của các công cụ JVM bên dưới;
+// NnueKernel.load() nạp bằng reflection, thiếu lớp / module → bản scalar.
+val vector by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+val vectorJvmArgs = listOf("--add-modules", "jdk.incubator.vector")
+val jdk17 = javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(17)) }
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    javaCompiler.set(javaToolchains.compilerFor { languageVersion.set(JavaLanguageVersion.of(17)) })
+    options.release.set(17)
+    options.compilerArgs.addAll(vectorJvmArgs)
+}
+
+// Công cụ JVM: classpath có cả NnueVectorKernel, chạy trên JDK 17 với module Vector API
+tasks.withType<JavaExec>().configureEach {
+    javaLauncher.set(jdk17)
+    jvmArgs(vectorJvmArgs)
+}
+
+// Unit test cũng chạy như công cụ JVM → NnueKernelTest so được NnueVectorKernel với ScalarKernel
+tasks.named<Test>("test") {
+    classpath += vector.output
+    javaLauncher.set(jdk17)
+    jvmArgs(vectorJvmArgs)
+}
+
+// ./gradlew :engine:bench [-Pdepth=6]
+tasks.register<JavaExec>("bench") {
+    group = "engine"
+    description = "Chạy bench 50 vị trí, in tổng số node (chữ ký) và node/giây."
+    classpath = vector.runtimeClasspath
+    mainClass.set("com.example.chessgame.tools.Bench")
+    args(providers.gradleProperty("depth").getOrElse("6"))
+}
+
+// ./gradlew :engine:selfPlay -Pargs="--a name=new,nodes=20000 --b name=base,nodes=20000 --games 2000"
+tasks.register<JavaExec>("selfPlay") {
+    group = "engine"
+    description = "Giải đấu AI vs AI song song giữa 2 cấu hình engine (Elo / SPRT / nps)."
+    classpath = vector.runtimeClasspath
+    mainClass.set("com.example.chessgame.tools.SelfPlayTournament")
+    args(providers.gradleProperty("args").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
+
+// ./gradlew :engine:epd -Pargs="wac.epd --ms 1000 --threads 8"
+tasks.register<JavaExec>("epd") {
+    group = "engine"
+    description = "Chạy bộ test EPD (bm / am) song song qua AIPlayer, in tỉ lệ giải và thời gian tới lời giải."
+    classpath = vector.runtimeClasspath
+    mainClass.set("com.example.chessgame.tools.EpdSuite")
+    args(providers.gradleProperty("args").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
+
+// ./gradlew :engine:pgn -Pargs="games.pgn --threads 8"
+tasks.register<JavaExec>("pgn") {
+    group = "engine"
+    description = "Đọc file PGN lớn (memory-map, song song theo ván): đếm ván / nửa nước, tốc độ đọc."
+    classpath = vector.runtimeClasspath
+    mainClass.set("com.example.chessgame.tools.PgnReader")
+    args(providers.gradleProperty("args").getOrElse("").split(" ").filter { it.isNotBlank() })
+}
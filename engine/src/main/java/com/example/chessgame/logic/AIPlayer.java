@@ -0,0 +1,201 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AIPlayer.java
+ *
+ * - AI dùng GameManager làm nguồn chân lý (board + validator).
+ * - Tìm nước bằng SearchEngine trên bản sao bàn cờ, chỉ commit qua gm.tryMove.
+ * - Nước gốc = gm.getLegalMoves() (tính 1 lần mỗi vị trí); chỉ 1 nước hợp lệ → đi ngay.
+ * - 3 mức độ là 3 ngân sách tìm kiếm (SearchBudget: độ sâu, số node, nhiễu lượng giá)
+ *   trên CÙNG một engine; số node được kẹp theo tốc độ thiết bị (EngineCalibration).
+ * - Có đồng hồ → thêm giới hạn thời gian theo TimeManager.
+ * - Mức Chuyên gia (4): dùng NnueEvaluator nếu có mạng (setNetwork), không thì lượng giá thủ công.
+ * - analyze(...): chế độ phân tích Multi-PV (gợi ý / xem lại ván), không đi nước nào.
+ * - think(...): tìm nước theo thời gian cho trước, báo từng độ sâu (bộ test EPD), không đi nước nào.
+ * - prepareMove(...) → MoveTask: chụp vị trí trên luồng ván, search() trên luồng nền, commit() lại trên luồng ván
+ *   (UI không bị chặn trong lúc AI nghĩ; cancel() khi undo / reset / thoát).
+ */
+public class AIPlayer {
+
+    private static final String TAG = "AIPlayer";
+
+    private final GameManager gm;   // GameManager chứa board, validator, history...
+    private final Random rnd = new Random();  // Seed nhiễu lượng giá (mỗi nước khác nhau)
+    private final int aiLevel;      // Mức độ AI (1=dễ,2=trung bình,3=khó,4=chuyên gia/NNUE)
+    private final SearchBudget budget;
+    private SearchEngine engine;    // Engine tìm kiếm (tạo khi cần, giữ TT giữa các lần gọi)
+
+    /**
+     * Constructor nhận GameManager và cấp độ AI (tốc độ thiết bị mặc định).
+     * @param gm      game manager của ván hiện tại
+     * @param aiLevel 1..4 (SearchBudget.LEVEL_NNUE = 4)
+     */
+    public AIPlayer(GameManager gm, int aiLevel) {
+        this(gm, aiLevel, EngineCalibration.DEFAULT_NPS);
+    }
+
+    /**
+     * @param deviceNps tốc độ tìm kiếm đo được trên thiết bị (EngineCalibration.measureNps)
+     */
+    public AIPlayer(GameManager gm, int aiLevel, long deviceNps) {
+        this.gm = gm;
+        this.aiLevel = aiLevel;
+        this.budget = SearchBudget.forLevel(aiLevel, deviceNps);
+        EngineLog.d(TAG, "AI level " + aiLevel + ": " + budget + " (deviceNps=" + deviceNps + ")");
+    }
+
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /** Dùng mạng NNUE làm hàm lượng giá cho cả tìm nước lẫn analyze. */
+    public void setNetwork(NnueNetwork net) {
+        engine().setEvaluator(new NnueEvaluator(net));
+    }
+
+    /** Ván mới: xóa TT / history của engine (kết quả ván trước không còn liên quan). */
+    public void newGame() {
+        if (engine != null) engine.clearHash();
+    }
+
+    private SearchEngine engine() {
+        if (engine == null) engine = new SearchEngine();
+        return engine;
+    }
+
+    /**
+     * makeBestMove: tìm + đi nước ngay trên luồng gọi (công cụ JVM / test). App dùng prepareMove để không chặn UI.
+     * @param aiIsWhite màu của AI (true nếu AI chơi Trắng)
+     * @return true nếu AI thực hiện được một nước, false nếu không tìm được nước
+     */
+    public boolean makeBestMove(boolean aiIsWhite) {
+        MoveTask task = prepareMove(aiIsWhite);
+        return task.commit(task.search());
+    }
+
+    /**
+     * Chuẩn bị nước của AI (gọi trên luồng sở hữu gm): chụp vị trí gốc + chia thời gian theo đồng hồ hiện tại.
+     * Engine của AIPlayer chỉ được dùng bởi 1 search() tại một thời điểm (app: 1 luồng engine duy nhất).
+     */
+    public MoveTask prepareMove(boolean aiIsWhite) {
+        // Có đồng hồ → chia thời gian theo thời gian còn lại + increment
+        TimeManager tm = gm.hasClock()
+                ? TimeManager.forClock(gm.getRemainingMs(aiIsWhite), gm.getIncrementMs())
+                : null;
+        return new MoveTask(SearchEngine.RootPosition.of(gm), gm.getPositionKey(), gm.getTotalMoves(),
+                aiIsWhite, tm, rnd.nextLong());
+    }
+
+    /** Một lượt nghĩ của AI: search() trên luồng nền, commit() trên luồng ván, cancel() từ luồng ván. */
+    public final class MoveTask {
+        private final SearchEngine.RootPosition root;
+        private final long positionKey;
+        private final int ply;
+        private final boolean aiIsWhite;
+        private final TimeManager tm;
+        private final long noiseSeed;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private MoveTask(SearchEngine.RootPosition root, long positionKey, int ply, boolean aiIsWhite,
+                         TimeManager tm, long noiseSeed) {
+            this.root = root;
+            this.positionKey = positionKey;
+            this.ply = ply;
+            this.aiIsWhite = aiIsWhite;
+            this.tm = tm;
+            this.noiseSeed = noiseSeed;
+        }
+
+        /** Tìm nước (chạy được trên luồng bất kỳ); Move.NONE nếu không còn nước hợp lệ hoặc đã bị hủy. */
+        public int search() {
+            // Nước gốc lấy từ tập nước hợp lệ GameManager đã tính (không quét lại bàn cờ)
+            LegalMoves legal = root.getLegalMoves();
+            if (legal.isEmpty() || cancelled.get()) return Move.NONE;
+            if (legal.size() == 1) return legal.get(0); // nước bắt buộc → đi luôn, không tốn thời gian tìm kiếm
+
+            SearchEngine se = engine();
+            se.setPosition(root);
+            se.setBudget(budget, noiseSeed);
+            se.setStopSignal(cancelled);
+
+            List<SearchEngine.Line> lines;
+            try {
+                lines = se.analyze(budget.maxDepth, 1, tm);
+            } finally {
+                se.clearBudget();
+                se.setStopSignal(null);
+            }
+            if (lines.isEmpty() || cancelled.get()) return Move.NONE;
+
+            SearchEngine.Line best = lines.get(0);
+            EngineLog.d(TAG, "search: level=" + aiLevel + " " + best + " depth=" + best.depth
+                    + " nodes=" + se.getNodes() + (tm != null ? " time=" + tm.elapsedMs() + "ms" : ""));
+            return best.move;
+        }
+
+        /**
+         * Đi nước vừa tìm (gọi trên luồng sở hữu gm). Bỏ qua nếu đã hủy hoặc ván đã đổi từ lúc prepareMove
+         * (undo / reset / nước khác đã được đi).
+         */
+        public boolean commit(int m) {
+            if (m == Move.NONE || cancelled.get()) {
+                EngineLog.d(TAG, "commit: no move (aiIsWhite=" + aiIsWhite + ", cancelled=" + cancelled.get() + ")");
+                return false;
+            }
+            if (gm.getTotalMoves() != ply || gm.getPositionKey() != positionKey || gm.isGameOver()) {
+                EngineLog.d(TAG, "commit: stale result ignored");
+                return false;
+            }
+            return gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+        }
+
+        /** Hủy: search() đang chạy dừng trong vòng ~1024 node, commit() không đi nước nào. */
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * analyze: trả về numLines nước tốt nhất cho bên đang đi, kèm điểm và biến chính.
+     * Engine tìm trên bản sao bàn cờ → ván đang chơi KHÔNG bị thay đổi.
+     * Luôn phân tích ở sức mạnh tối đa (không áp dụng budget của mức AI).
+     * @param numLines số dòng (Multi-PV)
+     * @param depth    độ sâu tìm kiếm
+     */
+    public List<SearchEngine.Line> analyze(int numLines, int depth) {
+        SearchEngine se = engine();
+        se.setPosition(gm);
+        List<SearchEngine.Line> lines = se.analyze(depth, numLines);
+        EngineLog.d(TAG, "analyze: " + lines.size() + " lines, nodes=" + se.getNodes());
+        return lines;
+    }
+
+    /**
+     * think: tìm nước tốt nhất cho vị trí hiện tại trong moveTimeMs, sức mạnh tối đa, KHÔNG đi nước.
+     * @param listener nhận dòng tốt nhất sau mỗi độ sâu (null = không cần)
+     * @return dòng tốt nhất, null nếu bên đang đi không còn nước hợp lệ
+     */
+    public SearchEngine.Line think(long moveTimeMs, SearchEngine.IterationListener listener) {
+        SearchEngine se = engine();
+        se.setPosition(gm);
+        se.setIterationListener(listener);
+        try {
+            List<SearchEngine.Line> lines = se.analyze(SearchEngine.MAX_PLY - 1, 1,
+                    new TimeManager(moveTimeMs, moveTimeMs));
+            return lines.isEmpty() ? null : lines.get(0);
+        } finally {
+            se.setIterationListener(null);
+        }
+    }
+
+    /** Số node của lần tìm kiếm gần nhất. */
+    public long getNodes() {
+        return engine == null ? 0 : engine.getNodes();
+    }
+}
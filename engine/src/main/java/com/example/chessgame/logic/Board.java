@@ -7,10 +7,13 @@ import com.example.chessgame.model.Piece.Type;
  * Board.java
  * -----------
  * Lưu trữ trạng thái bàn cờ (8x8 Piece[][]), cung cấp các API:
- *  - setupBoard(): khởi tạo vị trí chuẩn
+ *  - setupBoard(): khởi tạo vị trí chuẩn; clear(): bàn trống (nạp FEN)
  *  - getPiece(...), placePiece(...), movePiece(...) : thao tác cơ bản
  *  - makeMove(...) và undoMove(...) : cho AI mô phỏng nước đi rồi hoàn tác (efficient)
  *  - copy(): tạo bản sao của bàn cờ (deep copy của Piece) — tùy chọn dùng cho AI
+ *  - getZobristKey(): key băm các quân trên bàn, cập nhật tăng dần mỗi khi đặt/nhấc quân
+ *  - getMaterialKey(): số lượng từng loại quân (Material), cập nhật tăng dần cùng chỗ với Zobrist key
+ *  - setPieceListener(...): báo từng thay đổi ô cho lượng giá tăng dần (NNUE accumulator)
  *
  * Move flow recommendation:
  *  - backup = board.makeMove(fromR,fromC,toR,toC);
@@ -21,6 +24,25 @@ public class Board {
     // Mảng 8x8 lưu các Piece (null = ô trống)
     private Piece[][] board = new Piece[8][8];
 
+    // Zobrist key của phần "quân trên bàn" (xem Zobrist.java), luôn đồng bộ với mảng board
+    private long zobristKey;
+
+    // Material key (xem Material.java): số quân theo Piece.code(), cũng cập nhật tăng dần
+    private long materialKey;
+
+    /**
+     * Nhận thông báo mỗi khi một quân được đặt / nhấc khỏi ô (code = Piece.code(), sq = row * 8 + col).
+     * make rồi undo luôn phát ra các thay đổi đối xứng → listener chỉ cần cộng/trừ, không cần stack.
+     */
+    public interface PieceListener {
+        void onPieceAdded(int code, int sq);
+        void onPieceRemoved(int code, int sq);
+        /** Cả bàn bị thay (setupBoard / copyFrom) → listener tính lại từ đầu. */
+        void onBoardReset(Board board);
+    }
+
+    private PieceListener listener;
+
     public Board() {
         setupBoard();
     }
@@ -57,6 +79,88 @@ public class Board {
         board[7][5] = new Piece(Type.BISHOP, true, 7, 5);
         board[7][6] = new Piece(Type.KNIGHT, true, 7, 6);
         board[7][7] = new Piece(Type.ROOK, true, 7, 7);
+
+        recomputeKey();
+        if (listener != null) listener.onBoardReset(this);
+    }
+
+    /** Xóa mọi quân khỏi bàn (dùng khi nạp vị trí từ FEN). */
+    public void clear() {
+        board = new Piece[8][8];
+        recomputeKey();
+        if (listener != null) listener.onBoardReset(this);
+    }
+
+    /** Gắn (hoặc gỡ với null) listener; listener được đồng bộ ngay với bàn hiện tại. */
+    public void setPieceListener(PieceListener listener) {
+        this.listener = listener;
+        if (listener != null) listener.onBoardReset(this);
+    }
+
+    /**
+     * Tạm ngắt listener trong lúc mô phỏng make → undo (MoveValidator kiểm tra an toàn vua):
+     * bàn trở lại y hệt nên listener không cần biết. Trả listener hiện tại để resumeListener gắn lại.
+     */
+    public PieceListener suspendListener() {
+        PieceListener l = listener;
+        listener = null;
+        return l;
+    }
+
+    /** Gắn lại listener từ suspendListener, KHÔNG onBoardReset (bàn phải đúng như lúc suspend). */
+    public void resumeListener(PieceListener l) {
+        listener = l;
+    }
+
+    /**
+     * Điểm ghi duy nhất vào mảng board: cập nhật Zobrist key, material key và báo listener.
+     * Không đổi row/col bên trong Piece (caller tự xử lý).
+     */
+    private void setSquare(int r, int c, Piece p) {
+        Piece old = board[r][c];
+        if (old == p) return;
+        int sq = r * 8 + c;
+        if (old != null) {
+            zobristKey ^= Zobrist.PIECES[old.code()][sq];
+            materialKey -= Material.delta(old.code(), sq);
+            if (listener != null) listener.onPieceRemoved(old.code(), sq);
+        }
+        if (p != null) {
+            zobristKey ^= Zobrist.PIECES[p.code()][sq];
+            materialKey += Material.delta(p.code(), sq);
+            if (listener != null) listener.onPieceAdded(p.code(), sq);
+        }
+        board[r][c] = p;
+    }
+
+    /** Tính lại zobristKey + materialKey từ đầu (chỉ dùng khi thay cả mảng board). */
+    private void recomputeKey() {
+        long key = 0L, material = 0L;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board[r][c];
+                if (p == null) continue;
+                key ^= Zobrist.pieceKey(p, r, c);
+                material += Material.delta(p.code(), r * 8 + c);
+            }
+        }
+        zobristKey = key;
+        materialKey = material;
+    }
+
+    /** Zobrist key của các quân trên bàn (chưa gồm lượt đi / nhập thành / en passant). */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /** Material key: số lượng từng loại quân (đọc bằng Material.count / isInsufficient). */
+    public long getMaterialKey() {
+        return materialKey;
+    }
+
+    /** Số quân có mã Piece.code() = code đang trên bàn, O(1). */
+    public int countPieces(int code) {
+        return Material.count(materialKey, code);
     }
 
     // -------------------------
@@ -82,8 +186,8 @@ public class Board {
         if (p == null) return null;
 
         Piece captured = getPiece(toR, toC);   // lưu quân bị ăn (nếu có)
-        board[toR][toC] = p;                   // đặt quân tại ô đích
-        board[fromR][fromC] = null;            // dọn ô cũ
+        setSquare(fromR, fromC, null);         // dọn ô cũ
+        setSquare(toR, toC, p);                // đặt quân tại ô đích
 
         // cập nhật vị trí trong Piece và cờ hasMoved
         p.setPosition(toR, toC);
@@ -96,7 +200,7 @@ public class Board {
      * Đặt quân cờ vào ô (r,c). Dùng cho undo, castling, en-passant, v.v.
      */
     public void placePiece(int r, int c, Piece p) {
-        board[r][c] = p;
+        setSquare(r, c, p);
         if (p != null) p.setPosition(r, c);
     }
 
@@ -163,8 +267,8 @@ public class Board {
         boolean originalHasMoved = moving.hasMoved();
 
         // Thực hiện di chuyển trong mảng
-        board[toR][toC] = moving;
-        board[fromR][fromC] = null;
+        setSquare(fromR, fromC, null);
+        setSquare(toR, toC, moving);
 
         // Cập nhật vị trí và đánh dấu đã di chuyển
         moving.setPosition(toR, toC);
@@ -183,11 +287,11 @@ public class Board {
     public void undoMove(MoveBackup backup) {
         if (backup == null || backup.movedPiece == null) return;
 
-        // Đặt movedPiece trở về vị trí cũ
-        board[backup.fromR][backup.fromC] = backup.movedPiece;
-
         // Khôi phục ô đích = quân bị ăn (có thể null)
-        board[backup.toR][backup.toC] = backup.capturedPiece;
+        setSquare(backup.toR, backup.toC, backup.capturedPiece);
+
+        // Đặt movedPiece trở về vị trí cũ
+        setSquare(backup.fromR, backup.fromC, backup.movedPiece);
 
         // Cập nhật vị trí trong đối tượng Piece
         backup.movedPiece.setPosition(backup.fromR, backup.fromC);
@@ -203,19 +307,24 @@ public class Board {
      */
     public Board copy() {
         Board nb = new Board();
-        // Tạo mảng sạch rồi sao chép từng ô
-        nb.board = new Piece[8][8];
+        nb.copyFrom(this);
+        return nb;
+    }
+
+    /**
+     * Ghi đè bàn cờ này bằng bản sao độc lập của other (deep copy về Piece).
+     * - Dùng khi cần tái sử dụng 1 Board (vd: engine tìm kiếm trên bàn riêng) thay vì tạo mới.
+     */
+    public void copyFrom(Board other) {
         for (int r = 0; r < 8; r++) {
             for (int c = 0; c < 8; c++) {
-                Piece p = this.board[r][c];
-                if (p != null) {
-                    // Sử dụng copy() đã có trong Piece để tránh tham chiếu chung
-                    nb.board[r][c] = p.copy();
-                } else {
-                    nb.board[r][c] = null;
-                }
+                Piece p = other.board[r][c];
+                // Sử dụng copy() đã có trong Piece để tránh tham chiếu chung
+                board[r][c] = p != null ? p.copy() : null;
             }
         }
-        return nb;
+        zobristKey = other.zobristKey;
+        materialKey = other.materialKey;
+        if (listener != null) listener.onBoardReset(this);
     }
 }
@@ -0,0 +1,123 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Piece;
+
+/**
+ * ClassicalEvaluator.java
+ * ------------------------
+ * Lượng giá thủ công: vật chất + bảng điểm vị trí (piece-square tables).
+ *  - Bảng viết theo góc nhìn Trắng, hàng 0 = rank 8 (trùng quy ước Board)
+ *  - Quân Đen tra bảng lật dọc (row → 7 - row)
+ *  - Vua dùng bảng tàn cuộc khi không còn Hậu hoặc vật chất ít
+ */
+public class ClassicalEvaluator implements Evaluator {
+
+    // Giá trị vật chất theo thứ tự Piece.Type: KING, QUEEN, ROOK, BISHOP, KNIGHT, PAWN
+    static final int[] VALUE = {0, 900, 500, 330, 320, 100};
+
+    private static final int[] PAWN_PST = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+             5,  5, 10, 25, 25, 10,  5,  5,
+             0,  0,  0, 20, 20,  0,  0,  0,
+             5, -5,-10,  0,  0,-10, -5,  5,
+             5, 10, 10,-20,-20, 10, 10,  5,
+             0,  0,  0,  0,  0,  0,  0,  0
+    };
+    private static final int[] KNIGHT_PST = {
+            -50,-40,-30,-30,-30,-30,-40,-50,
+            -40,-20,  0,  0,  0,  0,-20,-40,
+            -30,  0, 10, 15, 15, 10,  0,-30,
+            -30,  5, 15, 20, 20, 15,  5,-30,
+            -30,  0, 15, 20, 20, 15,  0,-30,
+            -30,  5, 10, 15, 15, 10,  5,-30,
+            -40,-20,  0,  5,  5,  0,-20,-40,
+            -50,-40,-30,-30,-30,-30,-40,-50
+    };
+    private static final int[] BISHOP_PST = {
+            -20,-10,-10,-10,-10,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5, 10, 10,  5,  0,-10,
+            -10,  5,  5, 10, 10,  5,  5,-10,
+            -10,  0, 10, 10, 10, 10,  0,-10,
+            -10, 10, 10, 10, 10, 10, 10,-10,
+            -10,  5,  0,  0,  0,  0,  5,-10,
+            -20,-10,-10,-10,-10,-10,-10,-20
+    };
+    private static final int[] ROOK_PST = {
+             0,  0,  0,  0,  0,  0,  0,  0,
+             5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+             0,  0,  0,  5,  5,  0,  0,  0
+    };
+    private static final int[] QUEEN_PST = {
+            -20,-10,-10, -5, -5,-10,-10,-20,
+            -10,  0,  0,  0,  0,  0,  0,-10,
+            -10,  0,  5,  5,  5,  5,  0,-10,
+             -5,  0,  5,  5,  5,  5,  0, -5,
+              0,  0,  5,  5,  5,  5,  0, -5,
+            -10,  5,  5,  5,  5,  5,  0,-10,
+            -10,  0,  5,  0,  0,  0,  0,-10,
+            -20,-10,-10, -5, -5,-10,-10,-20
+    };
+    private static final int[] KING_MID_PST = {
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -30,-40,-40,-50,-50,-40,-40,-30,
+            -20,-30,-30,-40,-40,-30,-30,-20,
+            -10,-20,-20,-20,-20,-20,-20,-10,
+             20, 20,  0,  0,  0,  0, 20, 20,
+             20, 30, 10,  0,  0, 10, 30, 20
+    };
+    private static final int[] KING_END_PST = {
+            -50,-40,-30,-20,-20,-30,-40,-50,
+            -30,-20,-10,  0,  0,-10,-20,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 30, 40, 40, 30,-10,-30,
+            -30,-10, 20, 30, 30, 20,-10,-30,
+            -30,-30,  0,  0,  0,  0,-30,-30,
+            -50,-30,-30,-30,-30,-30,-30,-50
+    };
+
+    @Override
+    public int evaluate(Board board, boolean whiteToMove) {
+        int score = 0;          // dương = có lợi cho Trắng
+        int nonPawnMaterial = 0;
+        boolean queens = false;
+        int whiteKingSq = -1, blackKingSq = -1;
+
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p == null) continue;
+                int sq = p.isWhite() ? r * 8 + c : (7 - r) * 8 + c;
+                int v;
+                switch (p.getType()) {
+                    case PAWN:   v = VALUE[5] + PAWN_PST[sq]; break;
+                    case KNIGHT: v = VALUE[4] + KNIGHT_PST[sq]; nonPawnMaterial += VALUE[4]; break;
+                    case BISHOP: v = VALUE[3] + BISHOP_PST[sq]; nonPawnMaterial += VALUE[3]; break;
+                    case ROOK:   v = VALUE[2] + ROOK_PST[sq]; nonPawnMaterial += VALUE[2]; break;
+                    case QUEEN:  v = VALUE[1] + QUEEN_PST[sq]; nonPawnMaterial += VALUE[1]; queens = true; break;
+                    default:
+                        // Vua: tính sau khi biết giai đoạn ván cờ
+                        if (p.isWhite()) whiteKingSq = sq; else blackKingSq = sq;
+                        v = 0;
+                }
+                score += p.isWhite() ? v : -v;
+            }
+        }
+
+        int[] kingPst = (!queens || nonPawnMaterial <= 2 * (VALUE[2] + VALUE[3])) ? KING_END_PST : KING_MID_PST;
+        if (whiteKingSq >= 0) score += kingPst[whiteKingSq];
+        if (blackKingSq >= 0) score -= kingPst[blackKingSq];
+
+        return whiteToMove ? score : -score;
+    }
+}
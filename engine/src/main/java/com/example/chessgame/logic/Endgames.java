@@ -0,0 +1,154 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Piece;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Endgames.java
+ * --------------
+ * Bảng tra lượng giá tàn cuộc chuyên biệt theo material signature (Material.signature).
+ * SearchEngine tra bảng trước khi gọi evaluator chính (Classical / NNUE): trúng → dùng hàm riêng.
+ *
+ *  - KXK  (Hậu / Xe / 2 Tượng / ... vs Vua trơ): đẩy vua yếu ra mép, kéo vua mạnh lại gần
+ *  - KBNK: đẩy vua yếu về góc CÙNG MÀU với Tượng (chỉ góc đó mới chiếu hết được)
+ *  - KPK : luật hình vuông — tốt không bị đuổi kịp → coi như thắng, vua yếu chặn trước tốt → gần hòa
+ *  - KNNK: không ép chiếu hết được → 0
+ *
+ * Bảng dựng 1 lần (static), mỗi tàn cuộc đăng ký cho cả hai màu.
+ * Các hàm chỉ quét bàn khi trúng bảng (rất ít quân) nên chi phí không đáng kể.
+ */
+public final class Endgames {
+    /** Thưởng cho bên mạnh khi thắng chắc về lý thuyết → engine ưu tiên đổi quân vào tàn cuộc này. */
+    static final int KNOWN_WIN = 1000;
+
+    private static final Map<Long, Evaluator> TABLE = new HashMap<>();
+
+    static {
+        for (String strong : new String[]{"KQ", "KR", "KBB", "KQQ", "KQR", "KRR", "KQB", "KQN", "KRB", "KRN"}) {
+            register(strong, "K", (board, white, strongWhite) -> mopUp(board, strongWhite));
+        }
+        register("KBN", "K", (board, white, strongWhite) -> kbnk(board, strongWhite));
+        register("KP", "K", Endgames::kpk);
+        register("KNN", "K", (board, white, strongWhite) -> 0);
+    }
+
+    /** Hàm lượng giá tàn cuộc: điểm cho bên mạnh (strongWhite), dương = bên mạnh có lợi. */
+    private interface Function {
+        int evaluate(Board board, boolean whiteToMove, boolean strongWhite);
+    }
+
+    private Endgames() {}
+
+    private static void register(String strong, String weak, Function f) {
+        TABLE.put(Material.signature(strong, weak),
+                (board, whiteToMove) -> {
+                    int s = f.evaluate(board, whiteToMove, true);
+                    return whiteToMove ? s : -s;
+                });
+        TABLE.put(Material.signature(weak, strong),
+                (board, whiteToMove) -> {
+                    int s = f.evaluate(board, whiteToMove, false);
+                    return whiteToMove ? -s : s;
+                });
+    }
+
+    /** Evaluator chuyên biệt cho material key này, hoặc null nếu không có. */
+    public static Evaluator lookup(long materialKey) {
+        return TABLE.get(Material.signature(materialKey));
+    }
+
+    // ===============================================================
+    // Hàm lượng giá (điểm cho bên mạnh)
+    // ===============================================================
+
+    private static int mopUp(Board board, boolean strongWhite) {
+        int strongKing = find(board, strongWhite ? Material.W_KING : Material.B_KING);
+        int weakKing = find(board, strongWhite ? Material.B_KING : Material.W_KING);
+        return KNOWN_WIN + nonKingMaterial(board, strongWhite)
+                + pushToEdge(weakKing) + pushClose(strongKing, weakKing);
+    }
+
+    private static int kbnk(Board board, boolean strongWhite) {
+        int strongKing = find(board, strongWhite ? Material.W_KING : Material.B_KING);
+        int weakKing = find(board, strongWhite ? Material.B_KING : Material.W_KING);
+        int bishop = find(board, strongWhite ? Material.W_BISHOP : Material.B_BISHOP);
+
+        // Tượng ô trắng → góc a8 (0) / h1 (63); Tượng ô đen → góc h8 (7) / a1 (56)
+        boolean light = (((bishop >> 3) + (bishop & 7)) & 1) == 0;
+        int corner = light
+                ? Math.min(distance(weakKing, 0), distance(weakKing, 63))
+                : Math.min(distance(weakKing, 7), distance(weakKing, 56));
+        return KNOWN_WIN + nonKingMaterial(board, strongWhite)
+                + (7 - corner) * 40 + pushClose(strongKing, weakKing);
+    }
+
+    private static int kpk(Board board, boolean whiteToMove, boolean strongWhite) {
+        int strongKing = relative(find(board, strongWhite ? Material.W_KING : Material.B_KING), strongWhite);
+        int weakKing = relative(find(board, strongWhite ? Material.B_KING : Material.W_KING), strongWhite);
+        int pawn = relative(find(board, strongWhite ? Material.W_PAWN : Material.B_PAWN), strongWhite);
+
+        // Góc nhìn bên mạnh: tốt luôn đi về hàng 0
+        int pr = pawn >> 3, pc = pawn & 7;
+        int promote = pc;                                  // ô phong cấp (hàng 0, cùng cột)
+        int pawnDist = pr == 6 ? 5 : pr;                   // nước đầu đi được 2 ô
+        int weakDist = distance(weakKing, promote) - (whiteToMove != strongWhite ? 1 : 0);
+        boolean ownKingBlocks = (strongKing & 7) == pc && (strongKing >> 3) < pr;
+
+        if (weakDist > pawnDist && !ownKingBlocks) {
+            // Ngoài hình vuông: vua yếu không đuổi kịp
+            return KNOWN_WIN + ClassicalEvaluator.VALUE[5] + (6 - pawnDist) * 20;
+        }
+        int wr = weakKing >> 3, wc = weakKing & 7;
+        boolean weakInFront = wr < pr && Math.abs(wc - pc) <= 1;
+        if (weakInFront && (pc == 0 || pc == 7 || wc == pc)) return 10; // chặn trước tốt / tốt biên → gần hòa
+
+        return ClassicalEvaluator.VALUE[5] + (6 - pr) * 10
+                + (distance(weakKing, pawn) - distance(strongKing, pawn)) * 10;
+    }
+
+    // ===============================================================
+    // Tiện ích
+    // ===============================================================
+
+    /** Ô đầu tiên có quân mã code (quét bàn; chỉ dùng khi rất ít quân), -1 nếu không có. */
+    private static int find(Board board, int code) {
+        Piece[][] b = board.getBoardArray();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = b[r][c];
+                if (p != null && p.code() == code) return r * 8 + c;
+            }
+        }
+        return -1;
+    }
+
+    /** Lật dọc ô khi bên mạnh là Đen → hàm tàn cuộc chỉ cần viết cho Trắng. */
+    private static int relative(int sq, boolean white) {
+        return white ? sq : sq ^ 56;
+    }
+
+    private static int nonKingMaterial(Board board, boolean white) {
+        int base = white ? Material.W_KING : Material.B_KING;
+        int sum = 0;
+        for (int t = 1; t < 6; t++) sum += board.countPieces(base + t) * ClassicalEvaluator.VALUE[t];
+        return sum;
+    }
+
+    /** Khoảng cách vua (Chebyshev) giữa hai ô. */
+    static int distance(int a, int b) {
+        return Math.max(Math.abs((a >> 3) - (b >> 3)), Math.abs((a & 7) - (b & 7)));
+    }
+
+    /** 0 ở trung tâm … 60 ở góc. */
+    private static int pushToEdge(int sq) {
+        int r = sq >> 3, c = sq & 7;
+        return ((3 - Math.min(r, 7 - r)) + (3 - Math.min(c, 7 - c))) * 10;
+    }
+
+    /** Thưởng cho vua mạnh áp sát vua yếu. */
+    private static int pushClose(int a, int b) {
+        return (7 - distance(a, b)) * 10;
+    }
+}
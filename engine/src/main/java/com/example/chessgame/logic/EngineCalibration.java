@@ -0,0 +1,54 @@
+package com.example.chessgame.logic;
+
+/**
+ * EngineCalibration.java
+ * -----------------------
+ * Đo tốc độ tìm kiếm (node/giây) của thiết bị, dùng để tính SearchBudget.
+ *  - Chạy SearchEngine trên một vị trí trung cuộc cố định trong khoảng thời gian ngắn
+ *  - Nên gọi 1 lần lúc khởi động (ngoài UI thread) rồi lưu lại kết quả
+ */
+public final class EngineCalibration {
+    /** Giá trị dùng khi chưa đo được (ước lượng cho máy tầm trung). */
+    public static final long DEFAULT_NPS = 20_000;
+
+    /**
+     * NNUE chỉ được bật khi đạt ít nhất tỉ lệ này so với nps của ClassicalEvaluator trên cùng máy
+     * (chậm hơn nữa thì số node mất đi lớn hơn lợi ích của lượng giá tốt hơn).
+     */
+    public static final double NNUE_MIN_RELATIVE_NPS = 0.5;
+
+    // Khai cuộc Ý: vị trí có đủ quân, nhiều nước ăn quân → đại diện cho trung cuộc
+    private static final int[][] OPENING = {
+            {6, 4, 4, 4}, {1, 4, 3, 4}, {7, 6, 5, 5}, {0, 1, 2, 2}, {7, 5, 4, 2}, {0, 6, 2, 5}
+    };
+
+    private EngineCalibration() {}
+
+    /**
+     * @param durationMs thời gian đo (200–500 ms là đủ ổn định)
+     * @return số node/giây (tối thiểu 1)
+     */
+    public static long measureNps(long durationMs) {
+        return measureNps(durationMs, new ClassicalEvaluator());
+    }
+
+    /** Đo nps với một evaluator cụ thể (vd: NnueEvaluator). */
+    public static long measureNps(long durationMs, Evaluator evaluator) {
+        GameManager gm = new GameManager();
+        for (int[] m : OPENING) gm.tryMove(m[0], m[1], m[2], m[3]);
+
+        SearchEngine engine = new SearchEngine(16);
+        engine.setEvaluator(evaluator);
+        engine.setPosition(gm);
+        TimeManager tm = new TimeManager(durationMs, durationMs);
+        long start = System.nanoTime();
+        engine.analyze(SearchEngine.MAX_PLY, 1, tm);
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+        return Math.max(1, engine.getNodes() * 1000 / elapsedMs);
+    }
+
+    /** NNUE có nằm trong budget nps so với lượng giá thủ công không. */
+    public static boolean nnueWithinBudget(long classicalNps, long nnueNps) {
+        return nnueNps >= classicalNps * NNUE_MIN_RELATIVE_NPS;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.chessgame.logic;
+
+/**
+ * EngineLog.java
+ * ---------------
+ * Điểm ghi log duy nhất của engine (engine không phụ thuộc android.util.Log).
+ *  - Mặc định: không ghi gì (JVM, benchmark, công cụ dòng lệnh không bị nhiễu)
+ *  - App Android cắm Sink chuyển sang android.util.Log (xem ChessApplication)
+ *  - Công cụ JVM có thể dùng STDERR
+ */
+public final class EngineLog {
+
+    /** Nơi nhận log. Phải thread-safe (engine có thể log từ luồng nền). */
+    public interface Sink {
+        void log(String tag, String message);
+    }
+
+    public static final Sink NONE = (tag, message) -> { };
+    public static final Sink STDERR = (tag, message) -> System.err.println(tag + ": " + message);
+
+    private static volatile Sink sink = NONE;
+
+    private EngineLog() {}
+
+    /** @param newSink null → tắt log */
+    public static void setSink(Sink newSink) {
+        sink = newSink != null ? newSink : NONE;
+    }
+
+    /** Có sink thật không — dùng để bỏ qua việc ghép chuỗi log tốn kém trên hot path. */
+    public static boolean isEnabled() {
+        return sink != NONE;
+    }
+
+    public static void d(String tag, String message) {
+        sink.log(tag, message);
+    }
+}
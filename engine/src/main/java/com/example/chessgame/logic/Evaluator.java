@@ -0,0 +1,17 @@
+package com.example.chessgame.logic;
+
+/**
+ * Evaluator.java
+ * ---------------
+ * Hàm lượng giá tĩnh dùng trong SearchEngine.
+ * Điểm tính theo centipawn, nhìn từ phía bên đang đi (dương = có lợi cho whiteToMove).
+ */
+public interface Evaluator {
+    int evaluate(Board board, boolean whiteToMove);
+
+    /**
+     * Gắn evaluator vào bàn cờ mà engine sẽ tìm kiếm trên đó.
+     * Evaluator tăng dần (NNUE) đăng ký Board.PieceListener ở đây; evaluator thường bỏ qua.
+     */
+    default void attach(Board board) {}
+}
@@ -0,0 +1,195 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+import com.example.chessgame.model.Piece.Type;
+
+/**
+ * Fen.java
+ * ---------
+ * Đọc / ghi vị trí dạng chuỗi FEN (Forsyth–Edwards Notation).
+ *  - Board không lưu quyền nhập thành riêng → quyền nhập thành được chuyển thành cờ hasMoved
+ *    của vua / xe (thiếu quyền = đánh dấu đã đi), khớp với Zobrist.castlingRights.
+ *  - Ô en passant → chỉ số row * 8 + col như MoveValidator.getEnPassantIndex.
+ *  - Hàng 0 của Board là hàng 8 của bàn cờ (Đen ở trên), đúng thứ tự FEN.
+ *
+ * Đọc bằng một lượt quét ký tự (không split / regex) → dùng được cho bộ test EPD hàng nghìn vị trí.
+ * Hai trường halfmove / fullmove là tùy chọn (EPD không có).
+ */
+public final class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARS = "KQRBNP"; // theo thứ tự Piece.Type
+
+    private Fen() {}
+
+    /** Vị trí đã đọc: bàn cờ mới + trạng thái ngoài bàn. */
+    public static class Position {
+        public final Board board;
+        public final boolean whiteToMove;
+        public final int enPassantIndex;   // -1 nếu không có
+        public final int halfmoveClock;
+        public final int fullmoveNumber;
+        /** Vị trí ngay sau trường cuối cùng đã đọc (EPD: phần operation bắt đầu từ đây). */
+        public final int end;
+
+        Position(Board board, boolean whiteToMove, int enPassantIndex, int halfmoveClock, int fullmoveNumber,
+                 int end) {
+            this.board = board;
+            this.whiteToMove = whiteToMove;
+            this.enPassantIndex = enPassantIndex;
+            this.halfmoveClock = halfmoveClock;
+            this.fullmoveNumber = fullmoveNumber;
+            this.end = end;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException nếu chuỗi không đúng định dạng
+     */
+    public static Position parse(String fen) {
+        return parse(fen, true);
+    }
+
+    /**
+     * @param clocks false → chỉ đọc 4 trường đầu (EPD), không đụng tới phần sau
+     * @throws IllegalArgumentException nếu chuỗi không đúng định dạng
+     */
+    public static Position parse(CharSequence fen, boolean clocks) {
+        int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        Board board = new Board();
+        board.clear();
+
+        // 1️⃣ Quân trên bàn
+        int r = 0, c = 0;
+        for (; i < n && !Character.isWhitespace(fen.charAt(i)); i++) {
+            char ch = fen.charAt(i);
+            if (ch == '/') {
+                if (c != 8) throw error("FEN hàng sai độ dài", fen);
+                r++;
+                c = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                c += ch - '0';
+                if (c > 8) throw error("FEN hàng quá dài", fen);
+            } else {
+                int t = PIECE_CHARS.indexOf(Character.toUpperCase(ch));
+                if (t < 0) throw error("FEN ký tự quân không hợp lệ: " + ch, fen);
+                if (r > 7 || c > 7) throw error("FEN hàng quá dài", fen);
+                Piece p = new Piece(Type.values()[t], Character.isUpperCase(ch), r, c);
+                p.setMoved(true); // quyền nhập thành đặt lại bên dưới
+                board.placePiece(r, c, p);
+                c++;
+            }
+        }
+        if (r != 7 || c != 8) throw error("FEN phải có 8 hàng", fen);
+
+        // 2️⃣ Lượt đi
+        i = skipSpaces(fen, i);
+        if (i >= n) throw error("FEN thiếu trường", fen);
+        boolean white;
+        char side = fen.charAt(i++);
+        if (side == 'w') white = true;
+        else if (side == 'b') white = false;
+        else throw error("FEN lượt đi không hợp lệ: " + side, fen);
+
+        // 3️⃣ Quyền nhập thành
+        i = skipSpaces(fen, i);
+        for (; i < n && !Character.isWhitespace(fen.charAt(i)); i++) {
+            switch (fen.charAt(i)) {
+                case 'K': unmark(board, 7, 4, 7, 7); break;
+                case 'Q': unmark(board, 7, 4, 7, 0); break;
+                case 'k': unmark(board, 0, 4, 0, 7); break;
+                case 'q': unmark(board, 0, 4, 0, 0); break;
+                case '-': break;
+                default: throw error("FEN quyền nhập thành không hợp lệ", fen);
+            }
+        }
+
+        // 4️⃣ Ô en passant
+        // Trường có mặt thì phải là "-" hoặc đúng 2 ký tự (ô); cụt / thừa ký tự → lỗi, không coi như "-"
+        int ep = -1;
+        i = skipSpaces(fen, i);
+        int end = i;
+        while (end < n && !Character.isWhitespace(fen.charAt(end))) end++;
+        if (end - i == 1 && fen.charAt(i) == '-') {
+            i = end;
+        } else if (end - i == 2) {
+            int col = fen.charAt(i) - 'a', row = '8' - fen.charAt(i + 1);
+            if (col < 0 || col > 7 || row < 0 || row > 7) throw error("FEN ô en passant không hợp lệ", fen);
+            ep = row * 8 + col;
+            i = end;
+        } else if (end > i) {
+            throw error("FEN ô en passant không hợp lệ", fen);
+        }
+
+        // 5️⃣ Halfmove / fullmove (tùy chọn)
+        int halfmove = 0, fullmove = 1;
+        if (clocks) {
+            int j = skipSpaces(fen, i);
+            if (j < n && Character.isDigit(fen.charAt(j))) {
+                for (halfmove = 0; j < n && Character.isDigit(fen.charAt(j)); j++) halfmove = halfmove * 10 + fen.charAt(j) - '0';
+                j = skipSpaces(fen, j);
+                if (j < n && Character.isDigit(fen.charAt(j))) {
+                    for (fullmove = 0; j < n && Character.isDigit(fen.charAt(j)); j++) fullmove = fullmove * 10 + fen.charAt(j) - '0';
+                }
+                i = j;
+            }
+        }
+        return new Position(board, white, ep, halfmove, Math.max(1, fullmove), i);
+    }
+
+    /** Ghi vị trí ra chuỗi FEN (quyền nhập thành suy từ hasMoved như Zobrist.castlingRights). */
+    public static String toFen(Board board, boolean whiteToMove, int enPassantIndex,
+                               int halfmoveClock, int fullmoveNumber) {
+        StringBuilder sb = new StringBuilder(90);
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char ch = PIECE_CHARS.charAt(p.getType().ordinal());
+                sb.append(p.isWhite() ? ch : Character.toLowerCase(ch));
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (r < 7) sb.append('/');
+        }
+
+        sb.append(whiteToMove ? " w " : " b ");
+        int rights = Zobrist.castlingRights(board);
+        if (rights == 0) sb.append('-');
+        if ((rights & Zobrist.WHITE_KING_SIDE) != 0) sb.append('K');
+        if ((rights & Zobrist.WHITE_QUEEN_SIDE) != 0) sb.append('Q');
+        if ((rights & Zobrist.BLACK_KING_SIDE) != 0) sb.append('k');
+        if ((rights & Zobrist.BLACK_QUEEN_SIDE) != 0) sb.append('q');
+
+        sb.append(' ').append(enPassantIndex < 0 ? "-" : Move.square(enPassantIndex));
+        sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return sb.toString();
+    }
+
+    private static int skipSpaces(CharSequence s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static IllegalArgumentException error(String msg, CharSequence fen) {
+        return new IllegalArgumentException(msg + ": " + fen);
+    }
+
+    /** Quyền nhập thành: vua và xe tương ứng chưa đi (nếu đúng loại quân ở ô gốc). */
+    private static void unmark(Board board, int kr, int kc, int rr, int rc) {
+        Piece king = board.getPiece(kr, kc), rook = board.getPiece(rr, rc);
+        if (king == null || king.getType() != Type.KING || rook == null || rook.getType() != Type.ROOK) return;
+        king.setMoved(false);
+        rook.setMoved(false);
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * GameJournal.java
+ * -----------------
+ * Nhật ký tự lưu (autosave) của ván ĐANG CHƠI: file chỉ ghi nối thêm, sống sót khi app bị kill giữa ván.
+ *  - Phần đầu: magic + Header (chế độ, mức AI, thể thức thời gian, FEN bắt đầu)
+ *  - Mỗi nước = 1 bản ghi 3 byte: Move.encode (12 bit, 2 byte) + 1 byte kiểm tra; hoàn tác = bản ghi UNDO
+ *  - Đồng hồ: bản ghi CLOCK + 4 bản ghi dữ liệu (ms còn lại của Trắng, Đen: mỗi bên 32 bit = 2 bản ghi);
+ *    bản ghi CLOCK sau cùng có hiệu lực (thời gian đã dùng không hoàn lại khi undo)
+ *  - write() mỗi bản ghi ngay (vào page cache của OS → không mất khi process chết);
+ *    fsync (force) gom theo lô SYNC_EVERY bản ghi hoặc khi gọi sync() (vd onPause)
+ *  - Bản ghi cuối bị ghi dở / byte rác → bị bỏ qua khi đọc (byte kiểm tra theo số thứ tự bản ghi)
+ *  - Nén (compaction): khi số bản ghi vượt xa số nước thực tế (nhiều undo) → ghi lại header + các nước
+ *    ra file tạm, fsync, đổi tên nguyên tử đè lên file cũ
+ *  - Chỉ dùng java.io.File + FileChannel (không java.nio.file) → chạy được trên Android API 21
+ *
+ * Khôi phục: read(...) → Saved (header + int[] nước + đồng hồ) → GameManager.replay(...) (chỉ make, không sinh nước).
+ * Không thread-safe: mọi lời gọi trên cùng một luồng (app dùng 1 luồng autosave riêng).
+ */
+public final class GameJournal implements Closeable {
+    private static final int MAGIC = 0x43484A31;   // "CHJ1"
+    private static final int RECORD = 3;
+    private static final int UNDO = 0xFFFF;
+    private static final int CLOCK = 0xFFFE;
+    private static final int CLOCK_WORDS = 4;      // 2 bên x 32 bit, 16 bit mỗi bản ghi
+    private static final int SYNC_EVERY = 16;
+    private static final int COMPACT_SLACK = 64;
+
+    /** Thông tin để dựng lại ván khi tiếp tục (không đổi trong suốt ván). */
+    public static final class Header {
+        public final String mode;
+        public final int aiLevel;          // 0 = 2 người
+        public final long baseMs, incrementMs;
+        public final String startFen;      // null = thế chuẩn
+
+        public Header(String mode, int aiLevel, long baseMs, long incrementMs, String startFen) {
+            this.mode = mode;
+            this.aiLevel = aiLevel;
+            this.baseMs = baseMs;
+            this.incrementMs = incrementMs;
+            this.startFen = startFen;
+        }
+    }
+
+    /** Nội dung đọc được từ file nhật ký. */
+    public static final class Saved {
+        public final Header header;
+        public final int[] moves;          // các nước còn hiệu lực (đã trừ undo)
+        public final long whiteMs, blackMs;   // thời gian còn lại ở bản ghi CLOCK cuối, -1 nếu không có
+        public final int records;          // số bản ghi hợp lệ trong file
+        public final boolean truncated;    // có phần đuôi hỏng bị bỏ qua
+
+        Saved(Header header, int[] moves, long whiteMs, long blackMs, int records, boolean truncated) {
+            this.header = header;
+            this.moves = moves;
+            this.whiteMs = whiteMs;
+            this.blackMs = blackMs;
+            this.records = records;
+            this.truncated = truncated;
+        }
+    }
+
+    private final File file;
+    private final Header header;
+    private FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD * (1 + CLOCK_WORDS));
+    private int[] moves = new int[256];
+    private int ply;
+    private long whiteMs = -1, blackMs = -1;   // đồng hồ ghi sau cùng (-1 = chưa có)
+    private int records;
+    private int moveRecords;                   // bản ghi nước + UNDO (không tính CLOCK) → quyết định nén
+    private int unsynced;
+
+    private GameJournal(File file, Header header) {
+        this.file = file;
+        this.header = header;
+    }
+
+    // ===============================================================
+    // 📝 Ghi
+    // ===============================================================
+
+    /** Tạo nhật ký mới cho ván (ghi đè file cũ một cách nguyên tử), bắt đầu với các nước moves. */
+    public static GameJournal create(File file, Header header, int[] moves) throws IOException {
+        GameJournal j = new GameJournal(file, header);
+        j.moves = Arrays.copyOf(moves, Math.max(256, moves.length * 2));
+        j.ply = moves.length;
+        j.rewrite();
+        return j;
+    }
+
+    /** Ghi một nước vừa đi. */
+    public void append(int move) throws IOException {
+        if (ply == moves.length) moves = Arrays.copyOf(moves, ply * 2);
+        moves[ply++] = move;
+        moveRecords++;
+        writeRecords(move);
+    }
+
+    /** Ghi một lần hoàn tác (bỏ qua nếu không còn nước nào). */
+    public void undo() throws IOException {
+        if (ply == 0) return;
+        ply--;
+        moveRecords++;
+        writeRecords(UNDO);
+        if (moveRecords >= 2 * ply + COMPACT_SLACK) compact();
+    }
+
+    /** Ghi thời gian còn lại của hai bên (ms, kẹp vào 0..2^32-1). */
+    public void clock(long whiteMs, long blackMs) throws IOException {
+        this.whiteMs = clampMs(whiteMs);
+        this.blackMs = clampMs(blackMs);
+        writeRecords(clockWords(this.whiteMs, this.blackMs));
+    }
+
+    /** Đẩy mọi bản ghi chưa fsync xuống đĩa. */
+    public void sync() throws IOException {
+        if (unsynced > 0) {
+            channel.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /** Ghi lại file chỉ gồm header + các nước còn hiệu lực. */
+    public void compact() throws IOException {
+        close();
+        rewrite();
+    }
+
+    public int ply() { return ply; }
+
+    public Header header() { return header; }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            sync();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /** Xóa nhật ký (ván đã kết thúc và được lưu vào lịch sử / bỏ ván). */
+    public static void delete(File file) throws IOException {
+        if (file.exists() && !file.delete()) throw new IOException("Không xóa được " + file);
+    }
+
+    /** Ghi liền các bản ghi trong 1 lần write (bản ghi CLOCK + dữ liệu không bị tách bởi sync giữa chừng). */
+    private void writeRecords(int... values) throws IOException {
+        record.clear();
+        for (int v : values) put(record, v, records++);
+        record.flip();
+        while (record.hasRemaining()) channel.write(record);
+        unsynced += values.length;
+        if (unsynced >= SYNC_EVERY) sync();
+    }
+
+    private static void put(ByteBuffer buf, int value, int index) {
+        buf.put((byte) value).put((byte) (value >>> 8)).put(check(value, index));
+    }
+
+    private static long clampMs(long ms) {
+        return Math.max(0, Math.min(0xFFFFFFFFL, ms));
+    }
+
+    private static int[] clockWords(long whiteMs, long blackMs) {
+        return new int[]{CLOCK, (int) (whiteMs >>> 16) & 0xFFFF, (int) whiteMs & 0xFFFF,
+                (int) (blackMs >>> 16) & 0xFFFF, (int) blackMs & 0xFFFF};
+    }
+
+    private void rewrite() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        byte[] head = encodeHeader(header);
+        int[] clock = whiteMs >= 0 ? clockWords(whiteMs, blackMs) : new int[0];
+        ByteBuffer buf = ByteBuffer.allocate(head.length + (ply + clock.length) * RECORD);
+        buf.put(head);
+        for (int i = 0; i < ply; i++) put(buf, moves[i], i);
+        for (int i = 0; i < clock.length; i++) put(buf, clock[i], ply + i);
+        buf.flip();
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            FileChannel ch = out.getChannel();
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(false);
+        }
+        // rename() của POSIX thay file đích nguyên tử: đọc lại luôn thấy file cũ hoặc file mới, không lẫn
+        if (!tmp.renameTo(file)) throw new IOException("Không đổi tên được " + tmp + " → " + file);
+        records = ply + clock.length;
+        moveRecords = ply;
+        unsynced = 0;
+        channel = new FileOutputStream(file, true).getChannel();
+    }
+
+    // ===============================================================
+    // 📖 Đọc
+    // ===============================================================
+
+    /**
+     * Đọc nhật ký; null nếu không có file hoặc header hỏng.
+     * Dừng ở bản ghi hỏng đầu tiên (ghi dở khi mất điện) → Saved.truncated = true.
+     */
+    public static Saved read(File file) throws IOException {
+        byte[] data;
+        try (FileInputStream in = new FileInputStream(file)) {
+            data = new byte[(int) in.getChannel().size()];
+            int n = 0;
+            while (n < data.length) {
+                int r = in.read(data, n, data.length - n);
+                if (r < 0) break;
+                n += r;
+            }
+            if (n < data.length) data = Arrays.copyOf(data, n);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        Header header;
+        int pos;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC) return null;
+            int len = in.readInt();
+            header = new Header(in.readUTF(), in.readInt(), in.readLong(), in.readLong(),
+                    in.readBoolean() ? in.readUTF() : null);
+            pos = 8 + len;
+        } catch (IOException e) {
+            return null;
+        }
+
+        int[] moves = new int[Math.max(16, (data.length - pos) / RECORD)];
+        int[] clock = new int[CLOCK_WORDS];
+        long whiteMs = -1, blackMs = -1;
+        int ply = 0, n = 0;
+        boolean truncated = false;
+        for (; pos + RECORD <= data.length; pos += RECORD, n++) {
+            int value = valueAt(data, pos, n);
+            if (value < 0) {
+                truncated = true;
+                break;
+            }
+            if (value == CLOCK) {
+                // Cả 4 bản ghi dữ liệu phải nguyên vẹn, nếu không coi như đuôi hỏng (giữ đồng hồ trước đó)
+                int k = 0;
+                while (k < CLOCK_WORDS && pos + (k + 2) * RECORD <= data.length
+                        && (clock[k] = valueAt(data, pos + (k + 1) * RECORD, n + k + 1)) >= 0) k++;
+                if (k < CLOCK_WORDS) {
+                    truncated = true;
+                    break;
+                }
+                whiteMs = (long) clock[0] << 16 | clock[1];
+                blackMs = (long) clock[2] << 16 | clock[3];
+                pos += CLOCK_WORDS * RECORD;
+                n += CLOCK_WORDS;
+            } else if (value == UNDO) {
+                if (ply > 0) ply--;
+            } else if (value < 4096 && Move.from(value) != Move.to(value)) {
+                moves[ply++] = value;
+            } else {
+                truncated = true;
+                break;
+            }
+        }
+        if (pos < data.length) truncated = true;
+        return new Saved(header, Arrays.copyOf(moves, ply), whiteMs, blackMs, n, truncated);
+    }
+
+    /** Giá trị 16 bit của bản ghi thứ index tại pos, -1 nếu byte kiểm tra sai. */
+    private static int valueAt(byte[] data, int pos, int index) {
+        int value = (data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8;
+        return data[pos + 2] == check(value, index) ? value : -1;
+    }
+
+    private static byte[] encodeHeader(Header h) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeUTF(h.mode != null ? h.mode : "");
+        out.writeInt(h.aiLevel);
+        out.writeLong(h.baseMs);
+        out.writeLong(h.incrementMs);
+        out.writeBoolean(h.startFen != null);
+        if (h.startFen != null) out.writeUTF(h.startFen);
+        out.flush();
+
+        ByteArrayOutputStream all = new ByteArrayOutputStream(body.size() + 8);
+        DataOutputStream head = new DataOutputStream(all);
+        head.writeInt(MAGIC);
+        head.writeInt(body.size());
+        body.writeTo(head);
+        head.flush();
+        return all.toByteArray();
+    }
+
+    /** Byte kiểm tra: phụ thuộc cả giá trị lẫn số thứ tự → đuôi rác / bản ghi lệch vị trí bị phát hiện. */
+    private static byte check(int value, int index) {
+        int h = (value * 0x9E3779B1) ^ (index * 0x85EBCA6B);
+        return (byte) (h ^ (h >>> 8) ^ (h >>> 16) ^ (h >>> 24) ^ 0x5A);
+    }
+}
@@ -0,0 +1,557 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+import com.example.chessgame.model.Piece.Type;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ✅ GameManager.java (Final Fixed Version)
+ *
+ * Quản lý toàn bộ trạng thái ván cờ:
+ *  - Lưu trữ bàn cờ, trạng thái lượt, lịch sử nước đi (MoveLog: mảng int gọn, undo / redo / seek)
+ *  - Kiểm tra thắng / thua / hòa, bao gồm cả chiếu bí (checkmate) và bí hòa (stalemate)
+ *  - Hòa do lặp 3 lần / luật 50 nước (PositionHistory: key từng vị trí + halfmove clock)
+ *  - Mất vua / hòa do thiếu quân chiếu hết: đọc material key của Board (Material), O(1)
+ *  - Tập nước hợp lệ của mỗi vị trí tính 1 lần (LegalMoves), cache LRU theo Zobrist key
+ *    → dùng chung cho kiểm tra nước, kết thúc ván, tô sáng UI, nước gốc của AI; undo không tính lại
+ *  - Nạp / xuất vị trí dạng FEN (loadFen / toFen): bàn cờ, lượt, nhập thành, en passant, halfmove / fullmove
+ *  - Đồng hồ thi đấu (base + increment): trừ thời gian mỗi nước, hết giờ = thua
+ *  - Sau mỗi thay đổi đã commit → công bố PositionSnapshot bất biến, có version, qua AtomicReference
+ *    (không khóa): UI chỉ vẽ từ snapshot, không đọc Board đang bị make / undo
+ *  - Phát sự kiện cho GameListener đã đăng ký (nước đi / đổi lượt / kết thúc ván) ngay sau khi công bố
+ *    snapshot → UI, AI, lưu lịch sử phản ứng theo sự kiện thay vì hỏi vòng (polling)
+ *  - Cung cấp API cho UI (ChessBoardView, ChessActivity)
+ */
+public class GameManager {
+    // ----- Biến nội bộ -----
+    private final Board board;                // Đối tượng Board lưu ma trận quân cờ
+    private final MoveValidator validator;    // Kiểm tra hợp lệ nước đi
+    private boolean whiteTurn = true;         // true = Trắng đi, false = Đen đi
+
+    private final MoveLog log = new MoveLog();                       // 1 int / nửa nước (undo / redo / seek)
+    private final PositionHistory positions = new PositionHistory(); // key + halfmove clock song song với log
+    private boolean gameOver = false;         // true nếu ván đã kết thúc
+    private String winner = "";               // "Trắng" | "Đen" | "Hòa" | ""
+
+    // ----- Vị trí bắt đầu ván (thế chuẩn hoặc FEN) -----
+    private boolean startWhite = true;        // bên đi trước ở vị trí bắt đầu
+    private int startFullmove = 1;            // số nước (fullmove) ở vị trí bắt đầu
+    private String startFen = null;           // null = thế chuẩn
+
+    // ----- Snapshot cho UI (ghi trên luồng ván đấu, đọc từ luồng bất kỳ) -----
+    private final AtomicReference<PositionSnapshot> snapshot = new AtomicReference<>();
+    private long snapshotVersion = 0;
+
+    // ----- Sự kiện ván đấu -----
+    /**
+     * Nhận sự kiện của ván (gọi trên luồng vừa thay đổi ván, SAU khi snapshot đã công bố).
+     * Thứ tự sau một nước: onMove → onTurnChange HOẶC onGameOver.
+     */
+    public interface GameListener {
+        /** Một nước vừa được đi (tryMove / redo). */
+        default void onMove(int move, PositionSnapshot after) {}
+
+        /** Tới lượt snapshot.isWhiteToMove() và ván chưa kết thúc (sau nước đi, undo, seek, reset, loadFen). */
+        default void onTurnChange(PositionSnapshot snapshot) {}
+
+        /** Ván vừa kết thúc (chiếu hết, hòa, hết giờ...) — chỉ phát 1 lần cho mỗi lần kết thúc. */
+        default void onGameOver(PositionSnapshot snapshot) {}
+    }
+
+    // Sao chép khi ghi: listener được phép tự gỡ / đăng ký thêm ngay trong lúc nhận sự kiện
+    private final CopyOnWriteArrayList<GameListener> listeners = new CopyOnWriteArrayList<>();
+
+    // ----- Cache nước hợp lệ (LRU theo positionKey) -----
+    private static final int LEGAL_CACHE_SIZE = 16;
+    private final java.util.LinkedHashMap<Long, LegalMoves> legalCache =
+            new java.util.LinkedHashMap<Long, LegalMoves>(LEGAL_CACHE_SIZE * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(java.util.Map.Entry<Long, LegalMoves> eldest) {
+                    return size() > LEGAL_CACHE_SIZE;
+                }
+            };
+
+    // ----- Đồng hồ (time control) -----
+    private long baseTimeMs = 0;              // 0 = không giới hạn thời gian
+    private long incrementMs = 0;             // cộng thêm sau mỗi nước
+    private long whiteTimeMs, blackTimeMs;    // thời gian còn lại, tính tới đầu lượt hiện tại
+    private long turnStartNanos;              // mốc bắt đầu lượt hiện tại
+
+    // ----- Constructor -----
+    public GameManager() {
+        board = new Board();
+        validator = new MoveValidator(board);
+        resetPositions();
+        publish();
+    }
+
+    // Getter để lớp khác dùng
+    public Board getBoard() { return board; }
+    public boolean isWhiteTurn() { return whiteTurn; }
+    public boolean isGameOver() { return gameOver; }
+    public String getWinner() { return winner; }
+    public MoveValidator getValidator() { return validator; }
+
+    /** Số nửa nước từ lần ăn quân / đi tốt gần nhất (luật 50 nước: 100). */
+    public int getHalfmoveClock() { return positions.halfmoveClock(); }
+
+    /** Số lần vị trí hiện tại đã xuất hiện trước đó (2 = lặp 3 lần). */
+    public int getRepetitionCount() { return positions.repetitions(); }
+
+    /** Zobrist.positionKey của vị trí hiện tại (quân + nhập thành + en passant + bên đi). */
+    public long getPositionKey() { return positions.currentKey(); }
+
+    /** Key của mọi vị trí từ vị trí bắt đầu tới hiện tại (getTotalMoves() + 1 phần tử). */
+    public long[] getPositionKeys() {
+        long[] keys = new long[positions.plies() + 1];
+        for (int i = 0; i < keys.length; i++) keys[i] = positions.keyAt(i);
+        return keys;
+    }
+
+    /** Lịch sử vị trí để SearchEngine phát hiện lặp ngay trong cây tìm kiếm. */
+    PositionHistory positions() { return positions; }
+
+    // ===============================================================
+    // 📸 Snapshot
+    // ===============================================================
+
+    /** Snapshot mới nhất đã công bố (không bao giờ null, không bao giờ là trạng thái dở dang). */
+    public PositionSnapshot getSnapshot() { return snapshot.get(); }
+
+    /** Chụp trạng thái hiện tại → snapshot mới (version + 1). Gọi sau mỗi thay đổi đã hoàn tất. */
+    private void publish() {
+        int ply = log.ply();
+        int last = ply > 0 ? MoveLog.moveOf(log.get(ply - 1)) : Move.NONE;
+        // Khi ván kết thúc whiteTurn không đổi lượt → bên đi thật sự suy từ nước cuối
+        boolean toMove = ply > 0 ? !MoveLog.has(log.get(ply - 1), MoveLog.FLAG_WHITE) : whiteTurn;
+        snapshot.set(new PositionSnapshot(++snapshotVersion, board, toMove, validator.getEnPassantIndex(), last, ply,
+                validator.isKingInCheck(toMove), gameOver, winner, getLegalMoves()));
+    }
+
+    public void addListener(GameListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Công bố snapshot rồi báo listener: đổi lượt, hoặc kết thúc ván nếu gameOver. */
+    private void publishAndNotify(int move) {
+        publish();
+        PositionSnapshot snap = snapshot.get();
+        if (move != Move.NONE) {
+            for (GameListener l : listeners) l.onMove(move, snap);
+        }
+        for (GameListener l : listeners) {
+            if (snap.isGameOver()) l.onGameOver(snap);
+            else l.onTurnChange(snap);
+        }
+    }
+
+    private void resetPositions() {
+        resetPositions(0);
+    }
+
+    private void resetPositions(int halfmoveClock) {
+        positions.reset(Zobrist.positionKey(board, validator.getEnPassantIndex(), whiteTurn), halfmoveClock);
+    }
+
+    // ===============================================================
+    // 📋 FEN: nạp / xuất vị trí
+    // ===============================================================
+
+    /**
+     * Bắt đầu ván mới từ vị trí FEN (xóa lịch sử; đồng hồ về base).
+     * Vị trí đã kết thúc (chiếu hết, hết nước, thiếu quân...) → isGameOver() = true ngay.
+     * @throws IllegalArgumentException nếu FEN không hợp lệ (ván hiện tại giữ nguyên)
+     */
+    public void loadFen(String fen) {
+        setupFen(fen);
+        publishAndNotify(Move.NONE);
+    }
+
+    /** Như loadFen nhưng chưa công bố snapshot / báo listener. */
+    private void setupFen(String fen) {
+        Fen.Position pos = Fen.parse(fen);
+        board.copyFrom(pos.board);
+        validator.setEnPassantIndex(pos.enPassantIndex);
+        log.clear();
+        whiteTurn = pos.whiteToMove;
+        startWhite = pos.whiteToMove;
+        startFullmove = pos.fullmoveNumber;
+        startFen = fen.trim();
+        gameOver = false;
+        winner = "";
+        resetPositions(pos.halfmoveClock);
+        resetClock();
+
+        // updateGameState() xét vị trí sau nước của bên whiteTurn → đặt tạm lượt bên kia rồi trả lại
+        whiteTurn = !whiteTurn;
+        updateGameState();
+        whiteTurn = pos.whiteToMove;
+    }
+
+    /** Vị trí hiện tại dạng FEN (đủ 6 trường). */
+    public String toFen() {
+        return Fen.toFen(board, whiteTurn, validator.getEnPassantIndex(), positions.halfmoveClock(), getFullmoveNumber());
+    }
+
+    /** Số thứ tự nước đi theo FEN (tăng sau mỗi nước của Đen). */
+    public int getFullmoveNumber() {
+        return startFullmove + (log.ply() + (startWhite ? 0 : 1)) / 2;
+    }
+
+    /** Bên đi trước ở vị trí bắt đầu ván (false nếu ván nạp từ FEN với Đen đi trước). */
+    public boolean isStartWhite() { return startWhite; }
+
+    /** FEN vị trí bắt đầu ván (null = thế chuẩn) → đủ để phát lại MoveLog từ đầu (PGN). */
+    public String getStartFen() { return startFen; }
+
+    // ===============================================================
+    // ✅ Nước hợp lệ của vị trí hiện tại
+    // ===============================================================
+
+    /** Nước hợp lệ của bên đang đi, nhóm theo ô xuất phát (rỗng nếu ván đã kết thúc). */
+    public LegalMoves getLegalMoves() {
+        return gameOver ? LegalMoves.EMPTY : legalMovesFor(whiteTurn);
+    }
+
+    private LegalMoves legalMovesFor(boolean white) {
+        long key = Zobrist.positionKey(board, validator.getEnPassantIndex(), white);
+        LegalMoves lm = legalCache.get(key);
+        if (lm == null) {
+            lm = LegalMoves.generate(board, validator, white, key);
+            legalCache.put(key, lm);
+        }
+        return lm;
+    }
+
+    // ===============================================================
+    // ⏱️ Đồng hồ thi đấu
+    // ===============================================================
+
+    /**
+     * Đặt thể thức thời gian (áp dụng ngay, đồng hồ hai bên về base).
+     * @param baseMs      thời gian mỗi bên (0 = tắt đồng hồ)
+     * @param incrementMs số ms cộng thêm sau mỗi nước đi
+     */
+    public void setTimeControl(long baseMs, long incrementMs) {
+        this.baseTimeMs = Math.max(0, baseMs);
+        this.incrementMs = Math.max(0, incrementMs);
+        resetClock();
+    }
+
+    private void resetClock() {
+        whiteTimeMs = baseTimeMs;
+        blackTimeMs = baseTimeMs;
+        turnStartNanos = System.nanoTime();
+    }
+
+    public boolean hasClock() { return baseTimeMs > 0; }
+    public long getIncrementMs() { return incrementMs; }
+
+    /** Thời gian còn lại của một bên (đã trừ thời gian đang chạy nếu đang tới lượt bên đó). */
+    public long getRemainingMs(boolean white) {
+        long t = white ? whiteTimeMs : blackTimeMs;
+        if (hasClock() && !gameOver && white == whiteTurn) {
+            t -= (System.nanoTime() - turnStartNanos) / 1_000_000L;
+        }
+        return Math.max(0, t);
+    }
+
+    /**
+     * Kiểm tra bên đang đi đã hết giờ chưa; nếu hết → kết thúc ván, bên kia thắng.
+     * @return true nếu vừa (hoặc đã) hết giờ
+     */
+    public boolean checkFlag() {
+        if (!hasClock() || gameOver) return false;
+        if (getRemainingMs(whiteTurn) > 0) return false;
+        if (whiteTurn) whiteTimeMs = 0; else blackTimeMs = 0;
+        gameOver = true;
+        winner = whiteTurn ? "Đen" : "Trắng";
+        publishAndNotify(Move.NONE);
+        return true;
+    }
+
+    // ===============================================================
+    // ♟️ tryMove(): Thực hiện nước đi nếu hợp lệ
+    // ===============================================================
+    public boolean tryMove(int fr, int fc, int tr, int tc) {
+        // 1️⃣ Nếu ván đã kết thúc -> không cho đi
+        if (gameOver) return false;
+
+        // 2️⃣ Lấy quân nguồn; nếu trống -> invalid
+        Piece moved = board.getPiece(fr, fc);
+        if (moved == null) return false;
+
+        // 3️⃣ Kiểm tra hợp lệ nước đi (theo luật + an toàn vua) — tra trong tập nước đã tính
+        int m = Move.encode(fr, fc, tr, tc);
+        if (!getLegalMoves().contains(m)) return false;
+
+        // ⏱️ Hết giờ trước khi đi → thua, không thực hiện nước
+        if (checkFlag()) return false;
+
+        // 4️⃣ Thực hiện nước (en passant, phong hậu, nhập thành) + ghi 1 int vào move log
+        log.push(applyMove(m));
+
+        // ⏱️ Trừ thời gian đã dùng + cộng increment cho bên vừa đi
+        if (hasClock()) {
+            long remaining = getRemainingMs(whiteTurn) + incrementMs;
+            if (whiteTurn) whiteTimeMs = remaining; else blackTimeMs = remaining;
+            turnStartNanos = System.nanoTime();
+        }
+
+        // 5️⃣ Kiểm tra kết thúc ván + đổi lượt, rồi mới công bố cho UI / báo listener
+        updateGameState();
+        publishAndNotify(m);
+        return true; // ✅ Move hợp lệ, đã thực hiện xong
+    }
+
+    /**
+     * Thực hiện nước m (đã hợp lệ) trên board, cập nhật ô en passant + PositionHistory.
+     * @return entry đóng gói để hoàn tác (MoveLog)
+     */
+    private int applyMove(int m) {
+        int fr = Move.fromRow(m), fc = Move.fromCol(m);
+        int tr = Move.toRow(m), tc = Move.toCol(m);
+        Piece p = board.getPiece(fr, fc);
+        Piece captured = board.getPiece(tr, tc);
+        int prevEp = validator.getEnPassantIndex();
+        int flags = 0;
+
+        // En passant: tốt đi chéo vào ô en passant trống → quân bị ăn nằm cùng hàng xuất phát
+        if (p.getType() == Type.PAWN && fc != tc && captured == null && prevEp == tr * 8 + tc) {
+            flags |= MoveLog.FLAG_EN_PASSANT;
+            captured = board.getPiece(fr, tc);
+            board.placePiece(fr, tc, null);
+        }
+        if (p.hasMoved()) flags |= MoveLog.FLAG_MOVER_MOVED;
+        if (captured != null && captured.hasMoved()) flags |= MoveLog.FLAG_CAPTURED_MOVED;
+
+        board.movePiece(fr, fc, tr, tc);
+
+        // Phong cấp (luôn phong Hậu)
+        if (p.getType() == Type.PAWN && (tr == 0 || tr == 7)) {
+            flags |= MoveLog.FLAG_PROMOTION;
+            Piece queen = new Piece(Type.QUEEN, p.isWhite(), tr, tc);
+            queen.setMoved(true);
+            board.placePiece(tr, tc, queen);
+        }
+
+        // Nhập thành: vua đi 2 cột → dời xe tương ứng
+        if (p.getType() == Type.KING && Math.abs(tc - fc) == 2) {
+            flags |= MoveLog.FLAG_CASTLING;
+            boolean kingSide = tc > fc;
+            board.movePiece(fr, kingSide ? 7 : 0, fr, kingSide ? tc - 1 : tc + 1);
+        }
+
+        // Ô en passant cho nước kế tiếp (chỉ sau khi tốt đi 2 ô)
+        validator.setEnPassantIndex(p.getType() == Type.PAWN && Math.abs(tr - fr) == 2
+                ? ((fr + tr) / 2) * 8 + tc : -1);
+
+        positions.push(Zobrist.positionKey(board, validator.getEnPassantIndex(), !p.isWhite()),
+                p.getType() == Type.PAWN || captured != null);
+        return MoveLog.pack(m, captured != null ? captured.code() : 0, flags, prevEp, p.isWhite());
+    }
+
+    /** Hoàn tác entry (phải là nước gần nhất đang áp dụng). */
+    private void revertMove(int entry) {
+        int m = MoveLog.moveOf(entry);
+        int fr = Move.fromRow(m), fc = Move.fromCol(m);
+        int tr = Move.toRow(m), tc = Move.toCol(m);
+        boolean white = MoveLog.has(entry, MoveLog.FLAG_WHITE);
+
+        if (MoveLog.has(entry, MoveLog.FLAG_CASTLING)) {
+            boolean kingSide = tc > fc;
+            int rookFrom = kingSide ? 7 : 0;
+            board.movePiece(fr, kingSide ? tc - 1 : tc + 1, fr, rookFrom);
+            board.getPiece(fr, rookFrom).setMoved(false); // nhập thành chỉ hợp lệ khi xe chưa đi
+        }
+
+        Piece mover = MoveLog.has(entry, MoveLog.FLAG_PROMOTION)
+                ? new Piece(Type.PAWN, white, fr, fc)
+                : board.getPiece(tr, tc);
+        board.placePiece(tr, tc, null);
+        board.placePiece(fr, fc, mover);
+        mover.setMoved(MoveLog.has(entry, MoveLog.FLAG_MOVER_MOVED));
+
+        int code = MoveLog.capturedOf(entry);
+        if (code != 0) {
+            int cr = MoveLog.has(entry, MoveLog.FLAG_EN_PASSANT) ? fr : tr;
+            Piece captured = Piece.fromCode(code, cr, tc);
+            captured.setMoved(MoveLog.has(entry, MoveLog.FLAG_CAPTURED_MOVED));
+            board.placePiece(cr, tc, captured);
+        }
+
+        validator.setEnPassantIndex(MoveLog.prevEpOf(entry));
+        positions.pop();
+    }
+
+    // ===============================================================
+    // ⚖️ Cập nhật trạng thái ván đấu sau nước của bên whiteTurn
+    // ===============================================================
+    private void updateGameState() {
+        long material = board.getMaterialKey();
+        // ❗1. Nếu mất vua trắng => Đen thắng
+        if (Material.count(material, Material.W_KING) == 0) {
+            gameOver = true;
+            winner = "Đen";
+        }
+        // ❗2. Nếu mất vua đen => Trắng thắng
+        else if (Material.count(material, Material.B_KING) == 0) {
+            gameOver = true;
+            winner = "Trắng";
+        }
+        // ❗3. Không bên nào đủ quân chiếu hết (K vs K, K+N / K+B vs K, Tượng cùng màu ô) => Hòa
+        else if (Material.isInsufficient(material)) {
+            gameOver = true;
+            winner = "Hòa";
+        }
+        // ❗4. Bên kia hết nước hợp lệ: bị chiếu → chiếu hết, không bị chiếu → hòa (stalemate)
+        //     Tập nước này được cache → lượt sau (kiểm tra nước, UI, AI) dùng lại luôn
+        else if (legalMovesFor(!whiteTurn).isEmpty()) {
+            gameOver = true;
+            winner = validator.isKingInCheck(!whiteTurn)
+                    ? (whiteTurn ? "Trắng" : "Đen") // người vừa đi là người thắng
+                    : "Hòa";
+        }
+        // ❗5. Lặp lại vị trí 3 lần / 50 nước không ăn quân, không đi tốt => Hòa
+        else if (positions.repetitions() >= 2 || positions.halfmoveClock() >= 100) {
+            gameOver = true;
+            winner = "Hòa";
+        }
+
+        // 🔁 Nếu game chưa kết thúc -> đổi lượt
+        if (!gameOver) whiteTurn = !whiteTurn;
+    }
+
+    // ===============================================================
+    // ⏪ Undo / ⏩ Redo / seek (xem lại ván)
+    // ===============================================================
+    public boolean undo() {
+        if (!stepBack()) return false;
+        publishAndNotify(Move.NONE);
+        return true;
+    }
+
+    /** Đi lại nước vừa undo (không trừ đồng hồ). */
+    public boolean redo() {
+        if (!stepForward()) return false;
+        publishAndNotify(MoveLog.moveOf(log.get(log.ply() - 1)));
+        return true;
+    }
+
+    /** Nhảy tới nửa nước thứ ply (0 = thế ban đầu, tối đa getMoveLog().length()); công bố 1 snapshot. */
+    public boolean seek(int ply) {
+        if (ply < 0 || ply > log.length()) return false;
+        boolean changed = false;
+        while (log.ply() > ply) changed |= stepBack();
+        while (log.ply() < ply && stepForward()) changed = true;
+        if (changed) publishAndNotify(Move.NONE);
+        return log.ply() == ply;
+    }
+
+    private boolean stepBack() {
+        if (!log.canUndo()) return false;
+        int entry = log.undo();
+        revertMove(entry);
+
+        // Trước một nước đã đi, ván chắc chắn chưa kết thúc và tới lượt bên vừa đi
+        gameOver = false;
+        winner = "";
+        whiteTurn = MoveLog.has(entry, MoveLog.FLAG_WHITE);
+
+        // Đồng hồ: thời gian đã dùng không hoàn lại, chỉ bắt đầu lượt mới từ bây giờ
+        turnStartNanos = System.nanoTime();
+        return true;
+    }
+
+    private boolean stepForward() {
+        if (!log.canRedo() || gameOver) return false;
+        int entry = log.redo();
+        applyMove(MoveLog.moveOf(entry));
+        updateGameState();
+        turnStartNanos = System.nanoTime();
+        return true;
+    }
+
+    // ===============================================================
+    // ⚡ Phát lại nhanh (khôi phục autosave)
+    // ===============================================================
+
+    /**
+     * Bắt đầu lại ván từ startFen (null = thế chuẩn) rồi đi liền các nước moves theo đường "chỉ make":
+     * không sinh tập nước hợp lệ, không xét kết thúc ván ở từng ply — chỉ kiểm tra rẻ (ô xuất phát có quân
+     * của bên đang đi), tính trạng thái ván + công bố snapshot + báo listener MỘT lần ở cuối.
+     * Dùng cho dữ liệu do chính app ghi (GameJournal), không dùng cho nước người dùng nhập.
+     * @throws IllegalArgumentException nếu startFen không hợp lệ (ván hiện tại giữ nguyên)
+     * @return số nước đã áp dụng (dừng ở nước sai đầu tiên)
+     */
+    public int replay(String startFen, int[] moves) {
+        return replay(startFen, moves, -1, -1);
+    }
+
+    /**
+     * Như replay(startFen, moves), kèm khôi phục đồng hồ (GameJournal.Saved.whiteMs / blackMs)
+     * TRƯỚC khi báo listener; lượt hiện tại bắt đầu tính giờ từ lúc replay.
+     * @param whiteMs thời gian còn lại của Trắng (< 0 = giữ base của time control)
+     * @param blackMs thời gian còn lại của Đen (< 0 = giữ base của time control)
+     */
+    public int replay(String startFen, int[] moves, long whiteMs, long blackMs) {
+        if (startFen != null) setupFen(startFen); else setupStandard();
+        int applied = 0;
+        for (int m : moves) {
+            Piece p = board.getPiece(Move.fromRow(m), Move.fromCol(m));
+            if (p == null || p.isWhite() != whiteTurn || Move.from(m) == Move.to(m)) break;
+            Piece target = board.getPiece(Move.toRow(m), Move.toCol(m));
+            if (target != null && target.isWhite() == whiteTurn) break;
+            log.push(applyMove(m));
+            whiteTurn = !whiteTurn;
+            applied++;
+        }
+        if (applied > 0) {
+            whiteTurn = !whiteTurn;   // updateGameState() xét vị trí sau nước của bên vừa đi
+            updateGameState();
+        }
+        if (hasClock() && whiteMs >= 0 && blackMs >= 0) {
+            whiteTimeMs = whiteMs;
+            blackTimeMs = blackMs;
+        }
+        turnStartNanos = System.nanoTime();
+        publishAndNotify(Move.NONE);
+        return applied;
+    }
+
+    /** Nhật ký nước đi (chỉ đọc: ply, length, get(i) → MoveLog.moveOf). */
+    public MoveLog getMoveLog() { return log; }
+
+    public int getTotalMoves() {
+        return log.ply();
+    }
+
+    // ===============================================================
+    // 🔁 Reset bàn cờ về trạng thái ban đầu
+    // ===============================================================
+    public void reset() {
+        setupStandard();
+        publishAndNotify(Move.NONE);
+    }
+
+    private void setupStandard() {
+        board.reset();
+        log.clear();
+        validator.setEnPassantIndex(-1);
+        whiteTurn = true;
+        startWhite = true;
+        startFullmove = 1;
+        startFen = null;
+        gameOver = false;
+        winner = "";
+        resetPositions();
+        resetClock();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+/**
+ * LegalMoves.java
+ * ----------------
+ * Tập nước hợp lệ của bên đang đi tại MỘT vị trí, tính 1 lần rồi dùng chung cho:
+ *  - GameManager: kiểm tra nước đi + phát hiện chiếu hết / hết nước
+ *  - ChessBoardView: tô sáng ô đích khi chạm vào quân
+ *  - SearchEngine: danh sách nước ở gốc (không sinh lại)
+ *
+ * Nước được nhóm theo ô xuất phát (counting sort theo from):
+ * các nước của ô sq nằm trong [start(sq), end(sq)).
+ * Bất biến sau khi tạo → an toàn khi cache và chia sẻ.
+ */
+public final class LegalMoves {
+    public static final LegalMoves EMPTY = new LegalMoves(0L, new int[0], new int[65]);
+
+    private final long key;        // Zobrist.positionKey của vị trí
+    private final int[] moves;     // Move.encode, nhóm theo ô xuất phát
+    private final int[] offsets;   // 65 phần tử: offsets[sq] .. offsets[sq + 1]
+
+    private LegalMoves(long key, int[] moves, int[] offsets) {
+        this.key = key;
+        this.moves = moves;
+        this.offsets = offsets;
+    }
+
+    /** Nước hợp lệ của một vị trí rời (vd: đọc từ FEN / EPD) không gắn với GameManager. */
+    public static LegalMoves of(Board board, int enPassantIndex, boolean white) {
+        MoveValidator validator = new MoveValidator(board);
+        validator.setEnPassantIndex(enPassantIndex);
+        return generate(board, validator, white, Zobrist.positionKey(board, enPassantIndex, white));
+    }
+
+    /** Sinh nước hợp lệ của bên white trên board (board không bị thay đổi). */
+    static LegalMoves generate(Board board, MoveValidator validator, boolean white, long key) {
+        int[] buf = new int[MoveGenerator.MAX_MOVES];
+        int n = MoveGenerator.generateLegal(board, validator, white, buf);
+
+        int[] offsets = new int[65];
+        for (int i = 0; i < n; i++) offsets[Move.from(buf[i]) + 1]++;
+        for (int sq = 0; sq < 64; sq++) offsets[sq + 1] += offsets[sq];
+
+        int[] moves = new int[n];
+        int[] fill = new int[64];
+        for (int i = 0; i < n; i++) {
+            int from = Move.from(buf[i]);
+            moves[offsets[from] + fill[from]++] = buf[i];
+        }
+        return new LegalMoves(key, moves, offsets);
+    }
+
+    public long getKey() { return key; }
+
+    public int size() { return moves.length; }
+
+    public boolean isEmpty() { return moves.length == 0; }
+
+    public int get(int i) { return moves[i]; }
+
+    /** Vị trí đầu / cuối (không gồm) các nước xuất phát từ ô sq = row * 8 + col. */
+    public int start(int sq) { return offsets[sq]; }
+    public int end(int sq) { return offsets[sq + 1]; }
+
+    public boolean hasMovesFrom(int row, int col) {
+        int sq = row * 8 + col;
+        return offsets[sq + 1] > offsets[sq];
+    }
+
+    public boolean contains(int move) {
+        int from = Move.from(move);
+        for (int i = offsets[from]; i < offsets[from + 1]; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    /** Chép toàn bộ nước vào out (đủ MoveGenerator.MAX_MOVES phần tử), trả về số nước. */
+    public int copyTo(int[] out) {
+        System.arraycopy(moves, 0, out, 0, moves.length);
+        return moves.length;
+    }
+}
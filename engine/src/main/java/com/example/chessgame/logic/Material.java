@@ -0,0 +1,95 @@
+package com.example.chessgame.logic;
+
+/**
+ * Material.java
+ * --------------
+ * Material key: số lượng từng loại quân gói trong 1 long, Board cập nhật tăng dần trong setSquare.
+ *
+ * Bố cục key (mỗi ô 4 bit, tối đa 15 quân / loại — đủ cả khi phong cấp):
+ *   ô 1..12   số quân có mã Piece.code() tương ứng (1..6 Trắng, 7..12 Đen: K Q R B N P)
+ *   ô 13      số Tượng (cả hai bên) đứng trên ô trắng → nhận biết K+B vs K+B cùng màu ô
+ *
+ *  - count(key, code): đọc số quân, O(1)
+ *  - isInsufficient(key): hòa do không đủ quân chiếu hết, O(1)
+ *  - signature(key): bỏ ô 13 → chỉ còn vật chất, dùng tra bảng tàn cuộc (Endgames)
+ *
+ * Ô sáng/tối: hàng 0 = rank 8, cột 0 = cột a → a8 (0,0) là ô trắng ⇔ (row + col) chẵn.
+ */
+public final class Material {
+    // Mã quân theo Piece.code()
+    public static final int W_KING = 1, W_QUEEN = 2, W_ROOK = 3, W_BISHOP = 4, W_KNIGHT = 5, W_PAWN = 6;
+    public static final int B_KING = 7, B_QUEEN = 8, B_ROOK = 9, B_BISHOP = 10, B_KNIGHT = 11, B_PAWN = 12;
+
+    static final int LIGHT_BISHOPS = 13;
+    private static final int BITS = 4;
+
+    /** Phần key chỉ chứa số quân (ô 1..12). */
+    private static final long SIGNATURE_MASK = ((1L << (13 * BITS)) - 1) & ~0xFL;
+
+    /** Tốt / Xe / Hậu của cả hai bên: còn 1 quân bất kỳ trong nhóm này là đủ để chiếu hết. */
+    private static final long HEAVY_OR_PAWN_MASK = slot(W_QUEEN) | slot(W_ROOK) | slot(W_PAWN)
+            | slot(B_QUEEN) | slot(B_ROOK) | slot(B_PAWN);
+
+    private Material() {}
+
+    private static long slot(int code) {
+        return 0xFL << (code * BITS);
+    }
+
+    /** Lượng cộng vào key khi quân code được đặt lên ô sq (trừ đi khi nhấc ra). */
+    static long delta(int code, int sq) {
+        long d = 1L << (code * BITS);
+        if ((code == W_BISHOP || code == B_BISHOP) && (((sq >> 3) + (sq & 7)) & 1) == 0) {
+            d += 1L << (LIGHT_BISHOPS * BITS);
+        }
+        return d;
+    }
+
+    public static int count(long key, int code) {
+        return (int) (key >>> (code * BITS)) & 0xF;
+    }
+
+    /** Key chỉ gồm số lượng quân (bỏ thông tin màu ô của Tượng). */
+    public static long signature(long key) {
+        return key & SIGNATURE_MASK;
+    }
+
+    /**
+     * Signature từ chuỗi quân của hai bên, vd signature("KBN", "K").
+     * Dùng để dựng bảng tra (Endgames) và trong công cụ / test.
+     */
+    public static long signature(String white, String black) {
+        long key = 0L;
+        for (char ch : white.toCharArray()) key += 1L << (codeOf(ch, true) * BITS);
+        for (char ch : black.toCharArray()) key += 1L << (codeOf(ch, false) * BITS);
+        return key;
+    }
+
+    private static int codeOf(char ch, boolean white) {
+        int base = white ? 1 : 7;
+        switch (Character.toUpperCase(ch)) {
+            case 'K': return base;
+            case 'Q': return base + 1;
+            case 'R': return base + 2;
+            case 'B': return base + 3;
+            case 'N': return base + 4;
+            case 'P': return base + 5;
+            default: throw new IllegalArgumentException("Ký tự quân không hợp lệ: " + ch);
+        }
+    }
+
+    /**
+     * Không bên nào có thể chiếu hết (luật hòa):
+     *  - K vs K, K+N vs K, K+B vs K
+     *  - chỉ còn Tượng (không Mã), tất cả cùng màu ô (vd K+B vs K+B cùng màu)
+     */
+    public static boolean isInsufficient(long key) {
+        if ((key & HEAVY_OR_PAWN_MASK) != 0) return false;
+        int knights = count(key, W_KNIGHT) + count(key, B_KNIGHT);
+        int bishops = count(key, W_BISHOP) + count(key, B_BISHOP);
+        if (knights + bishops <= 1) return true;
+        if (knights > 0) return false;
+        int light = count(key, LIGHT_BISHOPS);
+        return light == 0 || light == bishops;
+    }
+}
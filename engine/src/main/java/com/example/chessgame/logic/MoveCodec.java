@@ -0,0 +1,246 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * MoveCodec.java
+ * ---------------
+ * Nén chuỗi nước đi của một ván thành BLOB nhỏ gọn để lưu SQLite (≈ 5 bit / nửa nước).
+ *  - Mỗi nước = chỉ số của nó trong danh sách nước hợp lệ ĐÃ SẮP XẾP (tăng dần theo Move.encode) của vị trí
+ *    → chỉ cần vị trí bắt đầu để giải mã, không lưu ô đi / ô đến
+ *  - Chỉ số được mã hóa bằng range coder (kiểu LZMA, 32 bit) với mô hình đều trên n nước hợp lệ
+ *    → tốn log2(n) bit thay vì nguyên 1 byte; vị trí chỉ có 1 nước hợp lệ tốn 0 bit
+ *  - Định dạng: [phiên bản 1 byte][số ply: varint][dữ liệu range coder]
+ *  - Decoder đọc TUẦN TỰ (streaming): mỗi next() trả 1 nước và đưa GameManager bên trong tới vị trí sau nước đó
+ *
+ * Vị trí bắt đầu KHÔNG nằm trong BLOB: null = thế chuẩn, hoặc FEN lưu riêng (GameManager.getStartFen()).
+ */
+public final class MoveCodec {
+    private static final int VERSION = 1;
+    private static final long TOP = 1L << 24;          // range < TOP → đẩy 1 byte ra
+    private static final long MASK32 = 0xFFFFFFFFL;
+
+    private MoveCodec() {}
+
+    // ===============================================================
+    // 📦 Mã hóa
+    // ===============================================================
+
+    /** Nén các nước đã đi tới ply hiện tại của gm (phát lại trên GameManager riêng, gm không đổi). */
+    public static byte[] encode(GameManager gm) {
+        MoveLog log = gm.getMoveLog();
+        int[] moves = new int[log.ply()];
+        for (int i = 0; i < moves.length; i++) moves[i] = MoveLog.moveOf(log.get(i));
+        return encode(moves, gm.getStartFen());
+    }
+
+    /**
+     * @param moves    Move.encode theo thứ tự đi
+     * @param startFen vị trí bắt đầu (null = thế chuẩn)
+     * @throws IllegalArgumentException nếu có nước không hợp lệ tại vị trí của nó
+     */
+    public static byte[] encode(int[] moves, String startFen) {
+        GameManager gm = newGame(startFen);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + moves.length);
+        out.write(VERSION);
+        writeVarint(out, moves.length);
+        int headerSize = out.size();
+
+        RangeEncoder rc = new RangeEncoder(out);
+        int[] sorted = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < moves.length; i++) {
+            int n = sortedLegal(gm, sorted);
+            int index = Arrays.binarySearch(sorted, 0, n, moves[i]);
+            if (index < 0) throw new IllegalArgumentException("Nước không hợp lệ ở ply " + i + ": " + Move.toUci(moves[i]));
+            rc.encode(index, n);
+            play(gm, moves[i]);
+        }
+        rc.flush();
+
+        // Byte 0 ở cuối không cần lưu: decoder coi đọc quá cuối = 0
+        byte[] blob = out.toByteArray();
+        int len = blob.length;
+        while (len > headerSize && blob[len - 1] == 0) len--;
+        return len == blob.length ? blob : Arrays.copyOf(blob, len);
+    }
+
+    /** Giải nén toàn bộ chuỗi nước. */
+    public static int[] decode(byte[] blob, String startFen) {
+        Decoder d = new Decoder(blob, startFen);
+        int[] moves = new int[d.length()];
+        for (int i = 0; i < moves.length; i++) moves[i] = d.next();
+        return moves;
+    }
+
+    // ===============================================================
+    // 📖 Giải mã tuần tự
+    // ===============================================================
+
+    /** Giải mã từng nước, đồng thời dựng lại vị trí (game()) sau mỗi nước. */
+    public static final class Decoder {
+        private final GameManager gm;
+        private final RangeDecoder rc;
+        private final int length;
+        private final int[] sorted = new int[MoveGenerator.MAX_MOVES];
+        private int ply = 0;
+
+        /** @throws IllegalArgumentException nếu BLOB sai phiên bản / hỏng phần đầu */
+        public Decoder(byte[] blob, String startFen) {
+            if (blob.length < 2 || blob[0] != VERSION) throw new IllegalArgumentException("BLOB nước đi không hợp lệ");
+            int[] pos = {1};
+            length = readVarint(blob, pos);
+            rc = new RangeDecoder(blob, pos[0]);
+            gm = newGame(startFen);
+        }
+
+        /** Tổng số nửa nước trong BLOB. */
+        public int length() { return length; }
+
+        /** Số nửa nước đã giải mã. */
+        public int ply() { return ply; }
+
+        public boolean hasNext() { return ply < length; }
+
+        /**
+         * Nước kế tiếp (đã được đi trên game()).
+         * @throws IllegalStateException nếu đã hết nước hoặc dữ liệu hỏng
+         */
+        public int next() {
+            if (ply >= length) throw new IllegalStateException("Hết nước đi");
+            int n = sortedLegal(gm, sorted);
+            int index = rc.decode(n);
+            if (index < 0) throw new IllegalStateException("BLOB nước đi hỏng ở ply " + ply);
+            int m = sorted[index];
+            play(gm, m);
+            ply++;
+            return m;
+        }
+
+        /** Ván đang được dựng lại (vị trí sau ply() nước). Không tự đi nước trên đó khi còn giải mã. */
+        public GameManager game() { return gm; }
+    }
+
+    // ===============================================================
+    // 🔧 Nội bộ
+    // ===============================================================
+
+    private static GameManager newGame(String startFen) {
+        GameManager gm = new GameManager();
+        if (startFen != null) gm.loadFen(startFen);
+        return gm;
+    }
+
+    /** Nước hợp lệ của vị trí hiện tại, sắp tăng dần → chỉ số giống hệt nhau ở cả hai phía. */
+    private static int sortedLegal(GameManager gm, int[] out) {
+        int n = gm.getLegalMoves().copyTo(out);
+        Arrays.sort(out, 0, n);
+        return n;
+    }
+
+    private static void play(GameManager gm, int m) {
+        if (!gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m))) {
+            throw new IllegalStateException("Không đi được " + Move.toUci(m));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    private static int readVarint(byte[] b, int[] pos) {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos[0] >= b.length) throw new IllegalArgumentException("BLOB nước đi bị cắt cụt");
+            int x = b[pos[0]++] & 0xFF;
+            v |= (x & 0x7F) << shift;
+            if ((x & 0x80) == 0) return v;
+        }
+        throw new IllegalArgumentException("BLOB nước đi không hợp lệ");
+    }
+
+    /**
+     * Range encoder kiểu LZMA (low 33 bit có nhớ, range 32 bit).
+     * Byte đầu tiên của LZMA luôn là 0 → bỏ luôn, decoder bù lại.
+     */
+    private static final class RangeEncoder {
+        private final ByteArrayOutputStream out;
+        private long low = 0;
+        private long range = MASK32;
+        private int cache = 0;
+        private long cacheSize = 1;
+        private boolean first = true;
+
+        RangeEncoder(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        /** Mã hóa symbol trong [0, n) với xác suất đều 1/n. */
+        void encode(int symbol, int n) {
+            if (n <= 1) return;
+            range /= n;
+            low += symbol * range;
+            while (range < TOP) {
+                range <<= 8;
+                shiftLow();
+            }
+        }
+
+        void flush() {
+            for (int i = 0; i < 5; i++) shiftLow();
+        }
+
+        private void shiftLow() {
+            if (low < 0xFF000000L || low > MASK32) {
+                int carry = (int) (low >>> 32);
+                int temp = cache;
+                do {
+                    if (first) first = false;
+                    else out.write((temp + carry) & 0xFF);
+                    temp = 0xFF;
+                } while (--cacheSize != 0);
+                cache = (int) ((low >>> 24) & 0xFF);
+            }
+            cacheSize++;
+            low = (low & 0x00FFFFFFL) << 8;
+        }
+    }
+
+    private static final class RangeDecoder {
+        private final byte[] in;
+        private int pos;
+        private long range = MASK32;
+        private long code = 0;
+
+        RangeDecoder(byte[] in, int pos) {
+            this.in = in;
+            this.pos = pos;
+            for (int i = 0; i < 4; i++) code = (code << 8) | nextByte();
+        }
+
+        /** Symbol trong [0, n), -1 nếu dữ liệu hỏng. */
+        int decode(int n) {
+            if (n <= 1) return n == 1 ? 0 : -1;
+            range /= n;
+            long symbol = code / range;
+            if (symbol >= n) return -1;
+            code -= symbol * range;
+            while (range < TOP) {
+                range <<= 8;
+                code = ((code << 8) | nextByte()) & MASK32;
+            }
+            return (int) symbol;
+        }
+
+        // Đọc quá cuối = 0 (flush của encoder có thể bị cắt bớt các byte 0 cuối)
+        private int nextByte() {
+            return pos < in.length ? in[pos++] & 0xFF : 0;
+        }
+    }
+}
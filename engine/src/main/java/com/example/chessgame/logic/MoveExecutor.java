@@ -0,0 +1,151 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+import com.example.chessgame.model.Piece.Type;
+
+/**
+ * MoveExecutor.java
+ * ------------------
+ * make/unmake đầy đủ luật cho nước đi đóng gói (Move.encode):
+ *  - En passant, nhập thành (di chuyển cả xe), phong Hậu
+ *  - Cập nhật ô en passant trong MoveValidator
+ *
+ * Thông tin undo được đẩy vào stack mảng nguyên thủy (không cấp phát object mỗi nước),
+ * nên make/unmake phải gọi theo thứ tự LIFO:
+ *   exec.make(m); ... ; exec.unmake(m);
+ *
+ * Lưu ý: KHÔNG kiểm tra hợp lệ — nước đi phải được sinh bởi MoveGenerator hoặc đã qua isValidMove.
+ */
+public class MoveExecutor {
+    // Cờ nước đặc biệt lưu trong undo info
+    private static final int FLAG_EN_PASSANT = 1;
+    private static final int FLAG_CASTLING = 2;
+    private static final int FLAG_PROMOTION = 4;
+
+    private final Board board;
+    private final MoveValidator validator;
+
+    // Stack undo: [flags | moverHasMoved << 3 | (prevEp + 1) << 4]
+    private int[] undoInfo = new int[128];
+    private Piece[] capturedStack = new Piece[128];
+    private Piece[] pawnStack = new Piece[128]; // Tốt gốc trước khi phong cấp
+    private int size = 0;
+
+    public MoveExecutor(Board board, MoveValidator validator) {
+        this.board = board;
+        this.validator = validator;
+    }
+
+    /** Số nước đang nằm trong stack (chưa unmake). */
+    public int depth() {
+        return size;
+    }
+
+    /** Xóa stack undo (khi bàn cờ được nạp lại từ nguồn khác). */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            capturedStack[i] = null;
+            pawnStack[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Thực hiện nước đi m trên board.
+     * @return quân bị ăn (null nếu không ăn)
+     */
+    public Piece make(int m) {
+        int fr = Move.fromRow(m), fc = Move.fromCol(m);
+        int tr = Move.toRow(m), tc = Move.toCol(m);
+        Piece p = board.getPiece(fr, fc);
+        Piece captured = board.getPiece(tr, tc);
+        int prevEp = validator.getEnPassantIndex();
+        int flags = 0;
+
+        if (size == undoInfo.length) grow();
+
+        // En passant: tốt đi chéo vào ô trống trùng ô en passant → quân bị ăn nằm cùng hàng xuất phát
+        if (p.getType() == Type.PAWN && fc != tc && captured == null && prevEp == tr * 8 + tc) {
+            flags |= FLAG_EN_PASSANT;
+            captured = board.getPiece(fr, tc);
+            board.placePiece(fr, tc, null);
+        }
+
+        boolean moverHasMoved = p.hasMoved();
+        board.movePiece(fr, fc, tr, tc);
+
+        // Phong cấp (luôn phong Hậu như GameManager)
+        if (p.getType() == Type.PAWN && (tr == 0 || tr == 7)) {
+            flags |= FLAG_PROMOTION;
+            Piece queen = new Piece(Type.QUEEN, p.isWhite(), tr, tc);
+            queen.setMoved(true);
+            board.placePiece(tr, tc, queen);
+            pawnStack[size] = p;
+        }
+
+        // Nhập thành: vua đi 2 cột → dời xe tương ứng
+        if (p.getType() == Type.KING && Math.abs(tc - fc) == 2) {
+            flags |= FLAG_CASTLING;
+            boolean kingSide = tc > fc;
+            board.movePiece(fr, kingSide ? 7 : 0, fr, kingSide ? tc - 1 : tc + 1);
+        }
+
+        // Cập nhật ô en passant cho nước kế tiếp
+        if (p.getType() == Type.PAWN && Math.abs(tr - fr) == 2) {
+            validator.setEnPassantIndex(((fr + tr) / 2) * 8 + tc);
+        } else {
+            validator.setEnPassantIndex(-1);
+        }
+
+        undoInfo[size] = flags | (moverHasMoved ? 8 : 0) | ((prevEp + 1) << 4);
+        capturedStack[size] = captured;
+        size++;
+        return captured;
+    }
+
+    /** Hoàn tác nước m (phải là nước make gần nhất). */
+    public void unmake(int m) {
+        size--;
+        int info = undoInfo[size];
+        Piece captured = capturedStack[size];
+        capturedStack[size] = null;
+
+        int fr = Move.fromRow(m), fc = Move.fromCol(m);
+        int tr = Move.toRow(m), tc = Move.toCol(m);
+        int flags = info & 7;
+
+        if ((flags & FLAG_CASTLING) != 0) {
+            boolean kingSide = tc > fc;
+            int rookFrom = kingSide ? 7 : 0;
+            board.movePiece(fr, kingSide ? tc - 1 : tc + 1, fr, rookFrom);
+            board.getPiece(fr, rookFrom).setMoved(false); // nhập thành chỉ hợp lệ khi xe chưa đi
+        }
+
+        Piece mover;
+        if ((flags & FLAG_PROMOTION) != 0) {
+            mover = pawnStack[size];
+            pawnStack[size] = null;
+        } else {
+            mover = board.getPiece(tr, tc);
+        }
+
+        board.placePiece(tr, tc, null);
+        board.placePiece(fr, fc, mover);
+        mover.setMoved((info & 8) != 0);
+
+        if (captured != null) {
+            if ((flags & FLAG_EN_PASSANT) != 0) board.placePiece(fr, tc, captured);
+            else board.placePiece(tr, tc, captured);
+        }
+
+        validator.setEnPassantIndex((info >>> 4) - 1);
+    }
+
+    private void grow() {
+        int n = undoInfo.length * 2;
+        undoInfo = java.util.Arrays.copyOf(undoInfo, n);
+        capturedStack = java.util.Arrays.copyOf(capturedStack, n);
+        pawnStack = java.util.Arrays.copyOf(pawnStack, n);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+import com.example.chessgame.model.Piece.Type;
+
+/**
+ * MoveGenerator.java
+ * -------------------
+ * Sinh nước đi theo từng loại quân (thay vì thử 64x64 ô đích với isValidMove).
+ *  - generatePseudo(...): nước đi đúng hình dạng, CHƯA kiểm tra vua bị chiếu (engine tự lọc sau make)
+ *  - generateLegal(...): lọc qua MoveValidator.isValidMove → danh sách hợp lệ hoàn toàn
+ *
+ * Nước đi trả về dạng int đóng gói (Move.encode), ghi vào mảng out do caller cấp sẵn
+ * (256 phần tử là đủ cho mọi vị trí hợp lệ).
+ */
+public final class MoveGenerator {
+    public static final int MAX_MOVES = 256;
+
+    private static final int[][] KNIGHT_STEPS = {
+            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    private static final int[][] KING_STEPS = {
+            {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+    private static final int[][] ROOK_DIRS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private MoveGenerator() {}
+
+    /**
+     * Sinh nước đi giả hợp lệ (pseudo-legal) cho bên white.
+     * - Nhập thành được kiểm tra đầy đủ qua validator (ô đi qua không bị chiếu).
+     * @param capturesOnly true → chỉ sinh nước ăn quân và phong cấp (dùng cho quiescence search)
+     * @return số nước ghi vào out
+     */
+    public static int generatePseudo(Board board, MoveValidator validator, boolean white,
+                                     int[] out, boolean capturesOnly) {
+        int n = 0;
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p == null || p.isWhite() != white) continue;
+
+                switch (p.getType()) {
+                    case PAWN:
+                        n = pawnMoves(board, validator, p, r, c, out, n, capturesOnly);
+                        break;
+                    case KNIGHT:
+                        n = stepMoves(board, white, r, c, KNIGHT_STEPS, out, n, capturesOnly);
+                        break;
+                    case KING:
+                        n = stepMoves(board, white, r, c, KING_STEPS, out, n, capturesOnly);
+                        if (!capturesOnly && !p.hasMoved()) {
+                            if (validator.isValidMove(r, c, r, c + 2, white)) out[n++] = Move.encode(r, c, r, c + 2);
+                            if (validator.isValidMove(r, c, r, c - 2, white)) out[n++] = Move.encode(r, c, r, c - 2);
+                        }
+                        break;
+                    case ROOK:
+                        n = slideMoves(board, white, r, c, ROOK_DIRS, out, n, capturesOnly);
+                        break;
+                    case BISHOP:
+                        n = slideMoves(board, white, r, c, BISHOP_DIRS, out, n, capturesOnly);
+                        break;
+                    case QUEEN:
+                        n = slideMoves(board, white, r, c, ROOK_DIRS, out, n, capturesOnly);
+                        n = slideMoves(board, white, r, c, BISHOP_DIRS, out, n, capturesOnly);
+                        break;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Sinh toàn bộ nước đi hợp lệ (đã lọc "vua không bị chiếu") cho bên white.
+     * @return số nước ghi vào out
+     */
+    public static int generateLegal(Board board, MoveValidator validator, boolean white, int[] out) {
+        int n = generatePseudo(board, validator, white, out, false);
+        int legal = 0;
+        for (int i = 0; i < n; i++) {
+            int m = out[i];
+            if (validator.isValidMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m), white)) {
+                out[legal++] = m;
+            }
+        }
+        return legal;
+    }
+
+    private static int pawnMoves(Board board, MoveValidator validator, Piece p, int r, int c,
+                                 int[] out, int n, boolean capturesOnly) {
+        int dir = p.isWhite() ? -1 : 1;
+        int tr = r + dir;
+        if (tr < 0 || tr > 7) return n;
+        boolean promotes = tr == 0 || tr == 7;
+
+        // Đi thẳng (phong cấp vẫn được tính trong quiescence)
+        if (board.getPiece(tr, c) == null && (!capturesOnly || promotes)) {
+            out[n++] = Move.encode(r, c, tr, c);
+            int startRow = p.isWhite() ? 6 : 1;
+            if (!capturesOnly && r == startRow && board.getPiece(tr + dir, c) == null) {
+                out[n++] = Move.encode(r, c, tr + dir, c);
+            }
+        }
+
+        // Ăn chéo + en passant
+        int ep = validator.getEnPassantIndex();
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int tc = c + dc;
+            if (tc < 0 || tc > 7) continue;
+            Piece target = board.getPiece(tr, tc);
+            if ((target != null && target.isWhite() != p.isWhite()) || (target == null && ep == tr * 8 + tc)) {
+                out[n++] = Move.encode(r, c, tr, tc);
+            }
+        }
+        return n;
+    }
+
+    private static int stepMoves(Board board, boolean white, int r, int c, int[][] steps,
+                                 int[] out, int n, boolean capturesOnly) {
+        for (int[] s : steps) {
+            int tr = r + s[0], tc = c + s[1];
+            if (tr < 0 || tr > 7 || tc < 0 || tc > 7) continue;
+            Piece target = board.getPiece(tr, tc);
+            if (target == null) {
+                if (!capturesOnly) out[n++] = Move.encode(r, c, tr, tc);
+            } else if (target.isWhite() != white) {
+                out[n++] = Move.encode(r, c, tr, tc);
+            }
+        }
+        return n;
+    }
+
+    private static int slideMoves(Board board, boolean white, int r, int c, int[][] dirs,
+                                  int[] out, int n, boolean capturesOnly) {
+        for (int[] d : dirs) {
+            int tr = r + d[0], tc = c + d[1];
+            while (tr >= 0 && tr <= 7 && tc >= 0 && tc <= 7) {
+                Piece target = board.getPiece(tr, tc);
+                if (target == null) {
+                    if (!capturesOnly) out[n++] = Move.encode(r, c, tr, tc);
+                } else {
+                    if (target.isWhite() != white) out[n++] = Move.encode(r, c, tr, tc);
+                    break;
+                }
+                tr += d[0];
+                tc += d[1];
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.chessgame.logic;
+
+import java.util.Arrays;
+
+/**
+ * MoveLog.java
+ * -------------
+ * Nhật ký nước đi gọn của một ván: MỖI NỬA NƯỚC = 1 int (mảng nguyên thủy, không object, không khóa).
+ *
+ * Bố cục 1 entry:
+ *   bit  0–11  nước đi (Move.encode: from | to << 6)
+ *   bit 12–15  mã quân bị ăn (Piece.code, 0 = không ăn)
+ *   bit 16     en passant
+ *   bit 17     nhập thành
+ *   bit 18     phong cấp (Hậu)
+ *   bit 19     quân đi đã từng di chuyển trước nước này (hasMoved)
+ *   bit 20     quân bị ăn đã từng di chuyển (xe bị ăn → quyền nhập thành)
+ *   bit 21–27  ô en passant TRƯỚC nước đi + 1 (0 = không có)
+ *   bit 28     bên đi là Trắng
+ * → đủ để hoàn tác mà không cần giữ tham chiếu Piece; halfmove clock / key vị trí nằm ở PositionHistory.
+ *
+ * Hỗ trợ redo: undo chỉ lùi con trỏ ply, các entry phía sau giữ nguyên cho tới khi đi nước mới.
+ */
+public final class MoveLog {
+    static final int CAPTURED_SHIFT = 12;
+    static final int FLAG_EN_PASSANT = 1 << 16;
+    static final int FLAG_CASTLING = 1 << 17;
+    static final int FLAG_PROMOTION = 1 << 18;
+    static final int FLAG_MOVER_MOVED = 1 << 19;
+    static final int FLAG_CAPTURED_MOVED = 1 << 20;
+    static final int PREV_EP_SHIFT = 21;
+    static final int FLAG_WHITE = 1 << 28;
+
+    private int[] entries = new int[128];
+    private int ply;      // số nửa nước đang áp dụng trên bàn
+    private int length;   // số nửa nước đã ghi (> ply nếu vừa undo → redo được)
+
+    // ----- Đóng gói / đọc entry -----
+    static int pack(int move, int capturedCode, int flags, int prevEp, boolean white) {
+        return (move & 0xFFF) | (capturedCode << CAPTURED_SHIFT) | flags
+                | ((prevEp + 1) << PREV_EP_SHIFT) | (white ? FLAG_WHITE : 0);
+    }
+
+    public static int moveOf(int entry) { return entry & 0xFFF; }
+    static int capturedOf(int entry) { return (entry >>> CAPTURED_SHIFT) & 0xF; }
+    static int prevEpOf(int entry) { return ((entry >>> PREV_EP_SHIFT) & 0x7F) - 1; }
+    static boolean has(int entry, int flag) { return (entry & flag) != 0; }
+
+    // ----- Con trỏ -----
+    public int ply() { return ply; }
+    public int length() { return length; }
+    public boolean canUndo() { return ply > 0; }
+    public boolean canRedo() { return ply < length; }
+
+    /** Entry của nửa nước thứ i (0-based, i < length). */
+    public int get(int i) { return entries[i]; }
+
+    /** Ghi nước mới tại ply hiện tại; xóa nhánh redo phía sau. */
+    void push(int entry) {
+        if (ply == entries.length) entries = Arrays.copyOf(entries, ply * 2);
+        entries[ply++] = entry;
+        length = ply;
+    }
+
+    /** Lùi 1 nửa nước, trả về entry vừa bỏ (vẫn giữ để redo). */
+    int undo() {
+        return entries[--ply];
+    }
+
+    /** Tiến lại 1 nửa nước đã ghi, trả về entry. */
+    int redo() {
+        return entries[ply++];
+    }
+
+    void clear() {
+        ply = 0;
+        length = 0;
+    }
+}
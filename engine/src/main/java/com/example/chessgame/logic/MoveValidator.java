@@ -18,17 +18,27 @@ public class MoveValidator {
     private final Board board;
 
     /**
-     * En passant square: lưu ô có thể bị ăn en-passant (row,col) hoặc null
+     * En passant square: lưu ô có thể bị ăn en-passant dưới dạng row * 8 + col, hoặc -1 nếu không có
      * Đây là trạng thái của bàn cờ, lưu tại MoveValidator để thuận tiện xử lý
      */
-    private int[] enPassantSquare = null;
+    private int enPassantIndex = -1;
 
     public MoveValidator(Board board) {
         this.board = board;
     }
 
     public int[] getEnPassantSquare() {
-        return enPassantSquare;
+        return enPassantIndex < 0 ? null : new int[]{ enPassantIndex >> 3, enPassantIndex & 7 };
+    }
+
+    /** Ô en passant dạng row * 8 + col (-1 nếu không có) — không cấp phát, dùng cho engine. */
+    public int getEnPassantIndex() {
+        return enPassantIndex;
+    }
+
+    /** Đặt ô en passant (row * 8 + col, hoặc -1 để xóa). Dùng khi make/unmake nước ngoài commit. */
+    public void setEnPassantIndex(int index) {
+        this.enPassantIndex = index;
     }
 
     // ------------------------------
@@ -91,49 +101,55 @@ public class MoveValidator {
         int enPassantCapturedRow = -1, enPassantCapturedCol = -1;
 
         // Nếu commit == false -> mô phỏng để kiểm tra tính an toàn, sau đó UNDO
+        // (listener của Board — vd NNUE accumulator — tạm ngắt: mô phỏng không được chạm tới nó)
         if (!commit) {
-            // Xác định xem đây có phải là nước en passant không (đi ngang 1, lên/xuống 1, ô đích trống, enPassantSquare trùng)
-            boolean isEnPassant = false;
-            Piece destPiece = board.getPiece(toR, toC);
-            if (p.getType() == Type.PAWN && Math.abs(toC - fromC) == 1 && Math.abs(toR - fromR) == 1 && destPiece == null) {
-                if (enPassantSquare != null && enPassantSquare[0] == toR && enPassantSquare[1] == toC) {
-                    isEnPassant = true;
+            Board.PieceListener suspended = board.suspendListener();
+            try {
+                // Xác định xem đây có phải là nước en passant không (đi ngang 1, lên/xuống 1, ô đích trống, enPassantSquare trùng)
+                boolean isEnPassant = false;
+                Piece destPiece = board.getPiece(toR, toC);
+                if (p.getType() == Type.PAWN && Math.abs(toC - fromC) == 1 && Math.abs(toR - fromR) == 1 && destPiece == null) {
+                    if (enPassantIndex == toR * 8 + toC) {
+                        isEnPassant = true;
+                    }
                 }
-            }
 
-            if (isEnPassant) {
-                // Mô phỏng en passant: remove pawn bị ăn (ở hàng khác), di chuyển quân
-                int captureRow = p.isWhite() ? toR + 1 : toR - 1;
-                enPassantCapturedRow = captureRow;
-                enPassantCapturedCol = toC;
-                enPassantCapturedPiece = board.getPiece(captureRow, toC);
-
-                // Thực hiện mô phỏng: đặt ô bắt (captureRow,toC) = null, dịch quân tới toR,toC, dọn from
-                Piece moving = board.getPiece(fromR, fromC);
-                boolean origMoved = moving.hasMoved();
-
-                // apply simulation
-                board.placePiece(captureRow, toC, null);
-                board.placePiece(toR, toC, moving);
-                board.placePiece(fromR, fromC, null);
-                moving.setPosition(toR, toC);
-                moving.setMoved(true);
-
-                // Kiểm tra vua có bị chiếu không
-                makesKingInCheck = isKingInCheck(p.isWhite());
-
-                // Undo mô phỏng
-                board.placePiece(fromR, fromC, moving);
-                board.placePiece(toR, toC, null);
-                board.placePiece(captureRow, toC, enPassantCapturedPiece);
-                moving.setPosition(fromR, fromC);
-                moving.setMoved(origMoved);
-
-            } else {
-                // Thông thường: dùng makeMove/undoMove để mô phỏng an toàn (Board.MoveBackup)
-                backup = board.makeMove(fromR, fromC, toR, toC); // thực hiện tạm thời
-                makesKingInCheck = isKingInCheck(p.isWhite());
-                board.undoMove(backup); // hoàn tác mô phỏng
+                if (isEnPassant) {
+                    // Mô phỏng en passant: remove pawn bị ăn (ở hàng khác), di chuyển quân
+                    int captureRow = p.isWhite() ? toR + 1 : toR - 1;
+                    enPassantCapturedRow = captureRow;
+                    enPassantCapturedCol = toC;
+                    enPassantCapturedPiece = board.getPiece(captureRow, toC);
+
+                    // Thực hiện mô phỏng: đặt ô bắt (captureRow,toC) = null, dịch quân tới toR,toC, dọn from
+                    Piece moving = board.getPiece(fromR, fromC);
+                    boolean origMoved = moving.hasMoved();
+
+                    // apply simulation
+                    board.placePiece(captureRow, toC, null);
+                    board.placePiece(toR, toC, moving);
+                    board.placePiece(fromR, fromC, null);
+                    moving.setPosition(toR, toC);
+                    moving.setMoved(true);
+
+                    // Kiểm tra vua có bị chiếu không
+                    makesKingInCheck = isKingInCheck(p.isWhite());
+
+                    // Undo mô phỏng
+                    board.placePiece(fromR, fromC, moving);
+                    board.placePiece(toR, toC, null);
+                    board.placePiece(captureRow, toC, enPassantCapturedPiece);
+                    moving.setPosition(fromR, fromC);
+                    moving.setMoved(origMoved);
+
+                } else {
+                    // Thông thường: dùng makeMove/undoMove để mô phỏng an toàn (Board.MoveBackup)
+                    backup = board.makeMove(fromR, fromC, toR, toC); // thực hiện tạm thời
+                    makesKingInCheck = isKingInCheck(p.isWhite());
+                    board.undoMove(backup); // hoàn tác mô phỏng
+                }
+            } finally {
+                board.resumeListener(suspended);
             }
 
             // Nếu mô phỏng cho thấy vua bị chiếu → invalid
@@ -147,18 +163,18 @@ public class MoveValidator {
         // Handle en passant when committing (special-case capture)
         if (p.getType() == Type.PAWN && Math.abs(toC - fromC) == 1 && Math.abs(toR - fromR) == 1 && dest == null) {
             // en passant capture: quân bị ăn nằm ở captureRow
-            if (enPassantSquare != null && enPassantSquare[0] == toR && enPassantSquare[1] == toC) {
+            if (enPassantIndex == toR * 8 + toC) {
                 int captureRow = p.isWhite() ? toR + 1 : toR - 1;
                 // remove the captured pawn
                 board.placePiece(captureRow, toC, null);
             }
         }
 
-        // Cập nhật En Passant: nếu pawn đi 2 ô thì set enPassantSquare, ngược lại clear
+        // Cập nhật En Passant: nếu pawn đi 2 ô thì set enPassantIndex, ngược lại clear
         if (p.getType() == Type.PAWN && Math.abs(toR - fromR) == 2) {
-            enPassantSquare = new int[]{ (fromR + toR) / 2, toC };
+            enPassantIndex = ((fromR + toR) / 2) * 8 + toC;
         } else {
-            enPassantSquare = null;
+            enPassantIndex = -1;
         }
 
         // Thực hiện di chuyển chính thức (dùng movePiece có sẵn)
@@ -203,8 +219,8 @@ public class MoveValidator {
         if (Math.abs(tc - fc) == 1 && tr == fr + dir) {
             // normal capture
             if (dest != null && dest.isWhite() != p.isWhite()) return true;
-            // en-passant: dest empty but enPassantSquare set to this square
-            if (enPassantSquare != null && enPassantSquare[0] == tr && enPassantSquare[1] == tc) return true;
+            // en-passant: dest empty but enPassantIndex set to this square
+            if (enPassantIndex == tr * 8 + tc) return true;
         }
 
         return false;
@@ -294,7 +310,7 @@ public class MoveValidator {
      * Kiểm tra xem ô (r,c) có đang bị tấn công bởi màu byWhite hay không.
      * Dùng cho kiểm tra castling (không được đi qua ô bị chiếu) và kiểm tra tổng quát.
      */
-    private boolean isSquareAttacked(int r, int c, boolean byWhite) {
+    public boolean isSquareAttacked(int r, int c, boolean byWhite) {
         // out-of-range -> not attacked (defensive)
         if (r < 0 || r > 7 || c < 0 || c > 7) return false;
 
@@ -402,10 +418,16 @@ public class MoveValidator {
                         // Nếu không hợp lệ theo quy tắc piece-specific -> skip early
                         if (!isValidMove(r, c, tr, tc, whiteToMove)) continue;
 
-                        // Mô phỏng nước đi bằng Board.makeMove/undoMove (an toàn)
-                        Board.MoveBackup backup = board.makeMove(r, c, tr, tc);
-                        boolean kingStillInCheck = isKingInCheck(whiteToMove);
-                        board.undoMove(backup);
+                        // Mô phỏng nước đi bằng Board.makeMove/undoMove (an toàn, không báo listener)
+                        Board.PieceListener suspended = board.suspendListener();
+                        boolean kingStillInCheck;
+                        try {
+                            Board.MoveBackup backup = board.makeMove(r, c, tr, tc);
+                            kingStillInCheck = isKingInCheck(whiteToMove);
+                            board.undoMove(backup);
+                        } finally {
+                            board.resumeListener(suspended);
+                        }
 
                         if (!kingStillInCheck) {
                             // Tồn tại nước thoát chiếu -> không phải checkmate
@@ -0,0 +1,136 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Piece;
+
+/**
+ * NnueEvaluator.java
+ * -------------------
+ * Lượng giá bằng mạng NNUE (xem NnueNetwork), chạy hoàn toàn trên CPU bằng số nguyên.
+ *
+ * Accumulator (lớp ẩn thứ nhất, int16) cho 2 góc nhìn được cập nhật TĂNG DẦN:
+ * evaluator đăng ký làm Board.PieceListener, mỗi lần Board đặt/nhấc quân chỉ cộng/trừ
+ * 1 hàng trọng số (H phần tử) thay vì tính lại 768 x H. Undo phát ra thay đổi ngược lại
+ * nên không cần lưu stack accumulator.
+ *
+ * Các vòng lặp trong (addRow / subRow / forward) nằm ở NnueKernel: mặc định ScalarKernel — vòng int đơn giản
+ * trên mảng liên tục, không rẽ nhánh → JIT/ART tự vector hóa (SIMD) được; công cụ desktop / UCI chạy JDK 17+
+ * với jdk.incubator.vector dùng NnueVectorKernel (source set "vector").
+ *
+ * Một NnueEvaluator chỉ gắn với MỘT Board tại một thời điểm (gọi attach).
+ */
+public class NnueEvaluator implements Evaluator, Board.PieceListener {
+    private static final NnueKernel KERNEL = NnueKernel.load();
+
+    private final NnueNetwork net;
+    private final int hidden;
+    private final short[] accWhite;   // góc nhìn Trắng
+    private final short[] accBlack;   // góc nhìn Đen (lật màu + lật hàng)
+    private Board attached;
+
+    public NnueEvaluator(NnueNetwork net) {
+        this.net = net;
+        this.hidden = net.hidden;
+        this.accWhite = new short[hidden];
+        this.accBlack = new short[hidden];
+    }
+
+    @Override
+    public void attach(Board board) {
+        if (attached != null && attached != board) attached.setPieceListener(null);
+        attached = board;
+        board.setPieceListener(this); // → onBoardReset tính lại accumulator
+    }
+
+    @Override
+    public int evaluate(Board board, boolean whiteToMove) {
+        if (board != attached) attach(board);
+        short[] us = whiteToMove ? accWhite : accBlack;
+        short[] them = whiteToMove ? accBlack : accWhite;
+        long out = (long) forward(us, net.outputWeights, 0) + forward(them, net.outputWeights, hidden)
+                + net.outputBias;
+        return (int) (out * net.scale / (NnueNetwork.QA * NnueNetwork.QB));
+    }
+
+    /** Accumulator của một góc nhìn (test so bản tăng dần với bản tính lại từ đầu). */
+    short[] accumulator(boolean white) {
+        return white ? accWhite : accBlack;
+    }
+
+    /** Clipped ReLU [0, QA] rồi nhân vô hướng với trọng số output int8. */
+    private int forward(short[] acc, byte[] weights, int offset) {
+        return KERNEL.forward(acc, weights, offset, hidden);
+    }
+
+    // ------------------------------
+    // Board.PieceListener: cập nhật accumulator tăng dần
+    // ------------------------------
+    @Override
+    public void onPieceAdded(int code, int sq) {
+        addRow(accWhite, featureWhite(code, sq));
+        addRow(accBlack, featureBlack(code, sq));
+    }
+
+    @Override
+    public void onPieceRemoved(int code, int sq) {
+        subRow(accWhite, featureWhite(code, sq));
+        subRow(accBlack, featureBlack(code, sq));
+    }
+
+    @Override
+    public void onBoardReset(Board board) {
+        System.arraycopy(net.featureBias, 0, accWhite, 0, hidden);
+        System.arraycopy(net.featureBias, 0, accBlack, 0, hidden);
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p != null) onPieceAdded(p.code(), r * 8 + c);
+            }
+        }
+    }
+
+    // Feature = (loại quân 0..11) * 64 + ô; góc nhìn Đen: đổi màu quân và lật hàng
+    private static int featureWhite(int code, int sq) {
+        return (code - 1) * 64 + sq;
+    }
+
+    private static int featureBlack(int code, int sq) {
+        int flipped = code <= 6 ? code + 6 : code - 6;
+        return (flipped - 1) * 64 + (sq ^ 56);
+    }
+
+    private void addRow(short[] acc, int feature) {
+        KERNEL.add(acc, net.featureWeights, feature * hidden, hidden);
+    }
+
+    private void subRow(short[] acc, int feature) {
+        KERNEL.sub(acc, net.featureWeights, feature * hidden, hidden);
+    }
+
+    /** Bản vòng lặp thường của NnueKernel (mặc định, mọi nền tảng). */
+    static final class ScalarKernel implements NnueKernel {
+        @Override
+        public void add(short[] acc, short[] w, int base, int n) {
+            for (int j = 0; j < n; j++) acc[j] += w[base + j];
+        }
+
+        @Override
+        public void sub(short[] acc, short[] w, int base, int n) {
+            for (int j = 0; j < n; j++) acc[j] -= w[base + j];
+        }
+
+        @Override
+        public int forward(short[] acc, byte[] weights, int offset, int n) {
+            int sum = 0;
+            for (int j = 0; j < n; j++) {
+                int v = Math.min(Math.max(acc[j], 0), NnueNetwork.QA);
+                sum += v * weights[offset + j];
+            }
+            return sum;
+        }
+
+        @Override
+        public String toString() {
+            return "scalar";
+        }
+    }
+}
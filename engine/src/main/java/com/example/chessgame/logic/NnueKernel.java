@@ -0,0 +1,37 @@
+package com.example.chessgame.logic;
+
+/**
+ * NnueKernel.java
+ * ----------------
+ * Ba vòng lặp trong của NnueEvaluator (cộng / trừ 1 hàng trọng số vào accumulator, clipped ReLU · output).
+ *  - NnueEvaluator.ScalarKernel: vòng int đơn giản, chạy mọi nơi (Android, JVM 11) — JIT/ART tự vector hóa
+ *  - NnueVectorKernel (source set "vector", Java 17 + jdk.incubator.vector): SIMD tường minh cho công cụ
+ *    desktop / UCI; KHÔNG nằm trong jar của engine → app Android không bao giờ thấy lớp này
+ *
+ * load(): thử nạp NnueVectorKernel bằng reflection (chỉ có khi classpath + --add-modules jdk.incubator.vector),
+ * lỗi / thiếu lớp / -Dchess.nnue.vector=false → ScalarKernel. Kết quả hai bản giống hệt nhau từng bit.
+ */
+interface NnueKernel {
+    /** acc[j] += w[base + j], j = 0..n-1 (int16, tràn quay vòng như vòng scalar). */
+    void add(short[] acc, short[] w, int base, int n);
+
+    /** acc[j] -= w[base + j], j = 0..n-1. */
+    void sub(short[] acc, short[] w, int base, int n);
+
+    /** Σ clamp(acc[j], 0, QA) * weights[offset + j], j = 0..n-1. */
+    int forward(short[] acc, byte[] weights, int offset, int n);
+
+    static NnueKernel load() {
+        if (!"false".equals(System.getProperty("chess.nnue.vector"))) {
+            try {
+                Class<?> c = Class.forName("com.example.chessgame.logic.NnueVectorKernel");
+                NnueKernel k = (NnueKernel) c.getDeclaredConstructor().newInstance();
+                EngineLog.d("NnueKernel", "Vector API: " + k);
+                return k;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Android / JVM không bật jdk.incubator.vector → bản scalar
+            }
+        }
+        return new NnueEvaluator.ScalarKernel();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.chessgame.logic;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * NnueNetwork.java
+ * -----------------
+ * Trọng số (đã lượng tử hóa) của mạng NNUE 768 → H (x2 góc nhìn) → 1, đọc từ file nhị phân.
+ *
+ * Định dạng (little-endian):
+ *   magic    int32  = 0x45554E43 ("CNUE")
+ *   version  int32  = 1
+ *   inputs   int32  = 768  (12 loại quân x 64 ô)
+ *   hidden   int32  = H    (bội số của 16 để vòng lặp vector hóa gọn)
+ *   scale    int32  = hệ số đổi output ra centipawn
+ *   featureWeights int16[768 * H]  (hàng = feature, cột = neuron → cộng/trừ 1 hàng liên tục)
+ *   featureBias    int16[H]
+ *   outputWeights  int8[2 * H]     (H đầu: góc nhìn bên đang đi, H sau: bên kia)
+ *   outputBias     int32           (đã nhân QA * QB)
+ *
+ * Lượng tử hóa: accumulator int16 với QA = 255 (clipped ReLU về [0, QA]), output int8 với QB = 64.
+ * Điểm (cp) = (Σ relu(acc) * outputWeights + outputBias) * scale / (QA * QB).
+ */
+public class NnueNetwork {
+    public static final int MAGIC = 0x45554E43;
+    public static final int VERSION = 1;
+    public static final int INPUTS = 768;
+    public static final int QA = 255;
+    public static final int QB = 64;
+
+    final int hidden;
+    final int scale;
+    final short[] featureWeights;
+    final short[] featureBias;
+    final byte[] outputWeights;
+    final int outputBias;
+
+    NnueNetwork(int hidden, int scale, short[] featureWeights, short[] featureBias,
+                byte[] outputWeights, int outputBias) {
+        this.hidden = hidden;
+        this.scale = scale;
+        this.featureWeights = featureWeights;
+        this.featureBias = featureBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    public int getHiddenSize() {
+        return hidden;
+    }
+
+    /**
+     * Đọc mạng từ stream (asset Android hoặc file trên JVM). Không đóng stream.
+     * @throws IOException nếu sai magic / version / kích thước
+     */
+    public static NnueNetwork load(InputStream in) throws IOException {
+        DataInputStream din = new DataInputStream(in);
+        ByteBuffer header = readLE(din, 20);
+        if (header.getInt() != MAGIC) throw new IOException("NNUE: sai magic");
+        if (header.getInt() != VERSION) throw new IOException("NNUE: không hỗ trợ version");
+        if (header.getInt() != INPUTS) throw new IOException("NNUE: số input phải là " + INPUTS);
+        int hidden = header.getInt();
+        int scale = header.getInt();
+        if (hidden <= 0 || hidden > 4096 || hidden % 16 != 0) throw new IOException("NNUE: hidden size không hợp lệ: " + hidden);
+
+        short[] fw = new short[INPUTS * hidden];
+        readLE(din, fw.length * 2).asShortBuffer().get(fw);
+        short[] fb = new short[hidden];
+        readLE(din, hidden * 2).asShortBuffer().get(fb);
+        byte[] ow = new byte[2 * hidden];
+        din.readFully(ow);
+        int ob = readLE(din, 4).getInt();
+        return new NnueNetwork(hidden, scale, fw, fb, ow, ob);
+    }
+
+    private static ByteBuffer readLE(DataInputStream in, int bytes) throws IOException {
+        byte[] buf = new byte[bytes];
+        in.readFully(buf);
+        return ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
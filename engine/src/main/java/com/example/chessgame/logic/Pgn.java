@@ -0,0 +1,104 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pgn.java
+ * ---------
+ * Ghi ván cờ ra PGN (Portable Game Notation) từ MoveLog của GameManager.
+ *  - Phát lại ván trên một GameManager riêng (từ thế chuẩn hoặc getStartFen()) → ván đang chơi không bị đụng tới
+ *  - Mỗi nước: SAN (San.toSan, phân biệt quân theo LegalMoves) + "+" / "#"
+ *  - Tag: 7 tag bắt buộc (Event, Site, Date, Round, White, Black, Result) trước, tag khác theo thứ tự truyền vào;
+ *    ván bắt đầu từ FEN → thêm SetUp "1" + FEN
+ *  - Movetext xuống dòng trước cột 80
+ *
+ * Đọc PGN khối lớn: xem tools/PgnReader.
+ */
+public final class Pgn {
+    private static final String[] ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final int LINE_WIDTH = 79;
+
+    private Pgn() {}
+
+    /** Kết quả theo ký hiệu PGN: "1-0", "0-1", "1/2-1/2" hoặc "*" (ván chưa kết thúc). */
+    public static String result(GameManager gm) {
+        if (!gm.isGameOver()) return "*";
+        switch (gm.getWinner()) {
+            case "Trắng": return "1-0";
+            case "Đen": return "0-1";
+            default: return "1/2-1/2";
+        }
+    }
+
+    /**
+     * PGN của các nước đã đi tới ply hiện tại của gm.
+     * @param tags tag bổ sung / ghi đè (vd Event, White, Black, Date); null = mặc định "?"
+     */
+    public static String write(GameManager gm, Map<String, String> tags) {
+        String result = result(gm);
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String t : ROSTER) all.put(t, "?");
+        all.put("Date", "????.??.??");
+        if (tags != null) all.putAll(tags);
+        all.put("Result", result);
+        if (gm.getStartFen() != null) {
+            all.put("SetUp", "1");
+            all.put("FEN", gm.getStartFen());
+        }
+
+        StringBuilder sb = new StringBuilder(1024);
+        for (Map.Entry<String, String> e : all.entrySet()) {
+            sb.append('[').append(e.getKey()).append(" \"")
+                    .append(e.getValue().replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]\n");
+        }
+        sb.append('\n');
+
+        MoveLine line = new MoveLine(sb);
+        GameManager replay = new GameManager();
+        if (gm.getStartFen() != null) replay.loadFen(gm.getStartFen());
+        MoveLog log = gm.getMoveLog();
+        for (int i = 0; i < log.ply(); i++) {
+            int m = MoveLog.moveOf(log.get(i));
+            boolean white = replay.isWhiteTurn();
+            int number = replay.getFullmoveNumber();
+            String san = San.toSan(replay.getBoard(), replay.getLegalMoves(), m);
+            if (!replay.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m))) break;
+
+            if (replay.getValidator().isKingInCheck(!white)) {
+                boolean mate = replay.isGameOver() && replay.getWinner().equals(white ? "Trắng" : "Đen");
+                san += mate ? "#" : "+";
+            }
+            if (white) line.add(number + ".");
+            else if (i == 0) line.add(number + "...");
+            line.add(san);
+        }
+        line.add(result);
+        sb.append('\n');
+        return sb.toString();
+    }
+
+    /** Ghép token movetext, xuống dòng khi vượt LINE_WIDTH. */
+    private static final class MoveLine {
+        private final StringBuilder sb;
+        private int column = 0;
+
+        MoveLine(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        void add(String token) {
+            if (column > 0 && column + 1 + token.length() > LINE_WIDTH) {
+                sb.append('\n');
+                column = 0;
+            } else if (column > 0) {
+                sb.append(' ');
+                column++;
+            }
+            sb.append(token);
+            column += token.length();
+        }
+    }
+}
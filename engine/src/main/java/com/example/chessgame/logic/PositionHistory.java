@@ -0,0 +1,96 @@
+package com.example.chessgame.logic;
+
+import java.util.Arrays;
+
+/**
+ * PositionHistory.java
+ * ---------------------
+ * Dãy Zobrist key (Zobrist.positionKey) của mọi vị trí đã qua + đồng hồ nửa nước (halfmove clock),
+ * dùng chung cho GameManager (luật hòa) và SearchEngine (phát hiện lặp trong cây tìm kiếm).
+ *
+ *  - Lặp vị trí: chỉ so sánh key, chỉ quét lùi tới nước không đảo ngược được gần nhất
+ *    (ăn quân / đi tốt → halfmove clock = 0), bước 2 nửa nước (cùng bên đi)
+ *  - Luật 50 nước: halfmove clock >= 100
+ *
+ * Mảng nguyên thủy, tăng kích thước khi cần → push/pop không cấp phát.
+ */
+public final class PositionHistory {
+    private long[] keys = new long[256];
+    private int[] halfmove = new int[256];   // halfmove clock tại từng vị trí
+    private int size;
+
+    /** Bắt đầu lại từ vị trí gốc. */
+    public void reset(long rootKey, int halfmoveClock) {
+        size = 0;
+        push(rootKey, halfmoveClock);
+    }
+
+    /** Thêm vị trí sau một nước đi. */
+    public void push(long key, boolean irreversible) {
+        push(key, irreversible ? 0 : halfmove[size - 1] + 1);
+    }
+
+    private void push(long key, int clock) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            halfmove = Arrays.copyOf(halfmove, size * 2);
+        }
+        keys[size] = key;
+        halfmove[size] = clock;
+        size++;
+    }
+
+    /** Bỏ vị trí cuối (undo / unmake). Không bao giờ bỏ vị trí gốc. */
+    public void pop() {
+        if (size > 1) size--;
+    }
+
+    public void copyFrom(PositionHistory other) {
+        if (keys.length < other.size) {
+            keys = new long[other.keys.length];
+            halfmove = new int[other.keys.length];
+        }
+        System.arraycopy(other.keys, 0, keys, 0, other.size);
+        System.arraycopy(other.halfmove, 0, halfmove, 0, other.size);
+        size = other.size;
+    }
+
+    /** Key của vị trí thứ i (0 = vị trí gốc, plies() = vị trí hiện tại). */
+    public long keyAt(int i) {
+        return keys[i];
+    }
+
+    public long currentKey() {
+        return keys[size - 1];
+    }
+
+    public int halfmoveClock() {
+        return halfmove[size - 1];
+    }
+
+    /** Số nửa nước đã lưu (không tính vị trí gốc). */
+    public int plies() {
+        return size - 1;
+    }
+
+    /** Số lần vị trí hiện tại đã xuất hiện TRƯỚC ĐÓ (2 → lặp 3 lần). */
+    public int repetitions() {
+        return countRepetitions(Integer.MAX_VALUE);
+    }
+
+    /** Vị trí hiện tại đã xuất hiện ít nhất 1 lần trước đó (đủ để coi là hòa trong tìm kiếm). */
+    public boolean isRepeated() {
+        return countRepetitions(1) > 0;
+    }
+
+    private int countRepetitions(int stopAt) {
+        int last = size - 1;
+        long key = keys[last];
+        int limit = Math.max(0, last - halfmove[last]);
+        int count = 0;
+        for (int i = last - 4; i >= limit; i -= 2) {  // lặp cần ít nhất 4 nửa nước
+            if (keys[i] == key && ++count >= stopAt) break;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+
+/**
+ * PositionSnapshot.java
+ * ----------------------
+ * Ảnh chụp BẤT BIẾN của ván tại một thời điểm, GameManager công bố sau mỗi thay đổi đã commit
+ * (tryMove, undo, redo, reset, loadFen, hết giờ) qua một AtomicReference.
+ *  - UI (ChessBoardView) chỉ vẽ / tô sáng / chọn quân từ snapshot → không bao giờ thấy nước đang
+ *    make / undo dở của MoveValidator hay AI, kể cả khi chúng chạy trên luồng khác
+ *  - version tăng dần theo từng lần công bố → so sánh để biết có cần vẽ lại không
+ *  - Quân lưu dạng mã Piece.code() (0 = trống), 1 byte / ô; không giữ tham chiếu tới Board
+ *  - LegalMoves vốn bất biến → chia sẻ luôn, không sao chép
+ */
+public final class PositionSnapshot {
+    private final long version;
+    private final byte[] squares;          // 64 ô, sq = row * 8 + col, mã Piece.code() hoặc 0
+    private final boolean whiteToMove;
+    private final int enPassantIndex;      // -1 nếu không có
+    private final int lastMove;            // Move.encode của nước vừa đi, Move.NONE nếu chưa có
+    private final int ply;
+    private final boolean inCheck;         // bên đang đi bị chiếu
+    private final boolean gameOver;
+    private final String winner;
+    private final LegalMoves legalMoves;
+
+    PositionSnapshot(long version, Board board, boolean whiteToMove, int enPassantIndex, int lastMove, int ply,
+                     boolean inCheck, boolean gameOver, String winner, LegalMoves legalMoves) {
+        this.version = version;
+        this.squares = new byte[64];
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p != null) squares[r * 8 + c] = (byte) p.code();
+            }
+        }
+        this.whiteToMove = whiteToMove;
+        this.enPassantIndex = enPassantIndex;
+        this.lastMove = lastMove;
+        this.ply = ply;
+        this.inCheck = inCheck;
+        this.gameOver = gameOver;
+        this.winner = winner;
+        this.legalMoves = legalMoves;
+    }
+
+    public long getVersion() { return version; }
+
+    /** Mã quân tại ô (Piece.code(): 1..6 Trắng, 7..12 Đen), 0 nếu trống. */
+    public int pieceAt(int row, int col) { return squares[row * 8 + col]; }
+
+    /** Quân tại ô là của Trắng (ô trống → false). */
+    public boolean isWhiteAt(int row, int col) {
+        int code = squares[row * 8 + col];
+        return code != 0 && code <= 6;
+    }
+
+    public boolean isWhiteToMove() { return whiteToMove; }
+    public int getEnPassantIndex() { return enPassantIndex; }
+    public int getLastMove() { return lastMove; }
+    public int getPly() { return ply; }
+    public boolean isInCheck() { return inCheck; }
+    public boolean isGameOver() { return gameOver; }
+    public String getWinner() { return winner; }
+
+    /** Nước hợp lệ của bên đang đi (rỗng nếu ván đã kết thúc). */
+    public LegalMoves getLegalMoves() { return legalMoves; }
+
+    @Override
+    public String toString() {
+        return "v" + version + " ply=" + ply + (whiteToMove ? " w" : " b")
+                + (lastMove != Move.NONE ? " last=" + Move.toUci(lastMove) : "")
+                + (gameOver ? " over=" + winner : "");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+import com.example.chessgame.model.Piece.Type;
+
+/**
+ * San.java
+ * ---------
+ * Ký hiệu đại số chuẩn (SAN: "Nf3", "exd5", "O-O", "e8=Q") cho nước đi dạng Move.encode.
+ *  - Phân biệt 2 quân cùng loại đi tới cùng ô (cột → hàng → cả hai) dựa trên LegalMoves của vị trí,
+ *    không sinh lại nước
+ *  - toSan(...) không gồm hậu tố "+" / "#" (caller tự thêm khi biết nước đó chiếu / chiếu hết)
+ *  - parse(...) bỏ qua hậu tố + # ! ?, chấp nhận "0-0", thiếu "=", hoặc dạng UCI "e2e4"
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "KQRBN"; // theo thứ tự Piece.Type (Tốt không có chữ)
+
+    private San() {}
+
+    /** SAN của nước move (phải nằm trong legal) trên board (vị trí TRƯỚC nước đi). */
+    public static String toSan(Board board, LegalMoves legal, int move) {
+        int fr = Move.fromRow(move), fc = Move.fromCol(move);
+        int tr = Move.toRow(move), tc = Move.toCol(move);
+        Piece p = board.getPiece(fr, fc);
+        if (p == null) throw new IllegalArgumentException("Ô xuất phát trống: " + Move.toUci(move));
+
+        Type type = p.getType();
+        if (type == Type.KING && Math.abs(tc - fc) == 2) {
+            return tc > fc ? "O-O" : "O-O-O";
+        }
+
+        StringBuilder sb = new StringBuilder(8);
+        boolean capture = board.getPiece(tr, tc) != null;
+        if (type == Type.PAWN) {
+            if (fc != tc) {                      // tốt chỉ đi chéo khi ăn (kể cả en passant)
+                sb.append((char) ('a' + fc)).append('x');
+            }
+            sb.append(Move.square(Move.to(move)));
+            if (tr == 0 || tr == 7) sb.append("=Q");
+            return sb.toString();
+        }
+
+        sb.append(PIECE_LETTERS.charAt(type.ordinal()));
+
+        // Phân biệt: các nước khác của cùng loại quân, cùng màu, tới cùng ô đích
+        boolean ambiguous = false, sameFile = false, sameRank = false;
+        int to = Move.to(move);
+        for (int i = 0; i < legal.size(); i++) {
+            int m = legal.get(i);
+            if (m == move || Move.to(m) != to) continue;
+            Piece other = board.getPiece(Move.fromRow(m), Move.fromCol(m));
+            if (other == null || other.getType() != type) continue;
+            ambiguous = true;
+            if (Move.fromCol(m) == fc) sameFile = true;
+            if (Move.fromRow(m) == fr) sameRank = true;
+        }
+        if (ambiguous) {
+            if (!sameFile) sb.append((char) ('a' + fc));
+            else if (!sameRank) sb.append((char) ('8' - fr));
+            else sb.append(Move.square(Move.from(move)));
+        }
+
+        if (capture) sb.append('x');
+        sb.append(Move.square(to));
+        return sb.toString();
+    }
+
+    /**
+     * Tìm nước hợp lệ khớp với chuỗi SAN (hoặc UCI).
+     * @return Move.encode, hoặc Move.NONE nếu không khớp nước nào
+     */
+    public static int parse(String text, Board board, LegalMoves legal) {
+        String want = normalize(text);
+        if (want.isEmpty()) return Move.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int m = legal.get(i);
+            if (normalize(toSan(board, legal, m)).equals(want)) return m;
+        }
+        // Dạng UCI: "e2e4", "e7e8q"
+        if (want.length() >= 4) {
+            for (int i = 0; i < legal.size(); i++) {
+                int m = legal.get(i);
+                if (want.toLowerCase().startsWith(Move.toUci(m))) return m;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /** Bỏ hậu tố chú thích / chiếu, dấu "=" của phong cấp; "0-0" → "O-O". */
+    private static String normalize(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '+' || ch == '#' || ch == '!' || ch == '?' || ch == '=') continue;
+            sb.append(ch == '0' ? 'O' : ch);
+        }
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.chessgame.logic;
+
+/**
+ * SearchBudget.java
+ * ------------------
+ * Mức độ AI = ngân sách tìm kiếm trên CÙNG một engine (không phải 3 thuật toán khác nhau):
+ *  - maxDepth  : độ sâu tối đa
+ *  - nodeLimit : số node tối đa cho 1 nước (quyết định sức mạnh)
+ *  - evalNoise : nhiễu ±cp cộng vào lượng giá (làm AI "mắc lỗi" ở mức dễ)
+ *
+ * nodeLimit = min(số node của mức, nps thiết bị × độ trễ tối đa):
+ *  - Máy mạnh: đúng số node của mức → sức mạnh như nhau trên mọi máy
+ *  - Máy yếu: bị cắt theo độ trễ → không bao giờ "treo" lâu hơn mức cho phép
+ */
+public class SearchBudget {
+    // Theo mức 1..4:                 Dễ      Trung bình   Khó                    Chuyên gia (NNUE)
+    private static final int[] DEPTH        = {2,      4,           SearchEngine.MAX_PLY,  SearchEngine.MAX_PLY};
+    private static final long[] NODES       = {2_000,  25_000,      200_000,               200_000};
+    private static final long[] LATENCY_MS  = {250,    800,         2_500,                 3_000};
+    private static final int[] NOISE_CP     = {120,    35,          0,                     0};
+    public static final int LEVEL_NNUE = 4;
+    private static final long MIN_NODES = 500;
+
+    public final int maxDepth;
+    public final long nodeLimit;
+    public final int evalNoise;
+
+    public SearchBudget(int maxDepth, long nodeLimit, int evalNoise) {
+        this.maxDepth = maxDepth;
+        this.nodeLimit = nodeLimit;
+        this.evalNoise = evalNoise;
+    }
+
+    /**
+     * Budget cho mức AI trên thiết bị có tốc độ deviceNps (node/giây, xem EngineCalibration).
+     * @param level 1 = Dễ, 2 = Trung bình, 3 = Khó, 4 = Chuyên gia (ngoài khoảng → kẹp về 1..4)
+     * @param deviceNps node/giây của evaluator sẽ dùng (NNUE chậm hơn → truyền nps đo với NNUE)
+     */
+    public static SearchBudget forLevel(int level, long deviceNps) {
+        int i = Math.max(1, Math.min(LEVEL_NNUE, level)) - 1;
+        long latencyCap = Math.max(MIN_NODES, deviceNps * LATENCY_MS[i] / 1000);
+        return new SearchBudget(DEPTH[i], Math.min(NODES[i], latencyCap), NOISE_CP[i]);
+    }
+
+    @Override
+    public String toString() {
+        return "depth<=" + maxDepth + " nodes<=" + nodeLimit + " noise=±" + evalNoise;
+    }
+}
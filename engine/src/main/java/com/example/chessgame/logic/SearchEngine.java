@@ -0,0 +1,539 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SearchEngine.java
+ * ------------------
+ * Engine tìm kiếm alpha-beta (PVS) với iterative deepening, bảng chuyển vị (TT),
+ * quiescence search, killer/history heuristic — chạy trên BẢN SAO bàn cờ riêng,
+ * không bao giờ chạm vào GameManager của ván đang chơi.
+ *
+ * Multi-PV: analyze(depth, N) trả về N nước tốt nhất kèm điểm và biến chính (PV).
+ *  - Mỗi độ sâu: tìm dòng 1, rồi tìm lại gốc với các nước đã chọn bị loại ra, ...
+ *  - Các dòng dùng CHUNG một TT nên cây con đã tính ở dòng trước được dùng lại → N dòng
+ *    rẻ hơn nhiều so với N lần tìm kiếm độc lập.
+ *
+ * Quản lý thời gian: analyze(..., TimeManager) dừng theo soft/hard budget,
+ * dừng sớm khi nước tốt nhất ổn định, kéo dài khi dòng chính fail-low (aspiration window).
+ *
+ * Giới hạn sức mạnh (SearchBudget): giới hạn số node + nhiễu lượng giá có kiểm soát.
+ *
+ * Chạy trên luồng nền: chụp RootPosition.of(gm) trên luồng ván, setPosition(root) + analyze trên luồng tìm kiếm;
+ * setStopSignal(...) cho phép luồng khác hủy giữa chừng (undo / reset / thoát màn hình).
+ *
+ * Hòa do lặp / 50 nước: PositionHistory (key các nước đã đi trong ván + đường đi trong cây),
+ * push khi make, pop khi unmake; key của node lấy luôn từ đó cho TT.
+ * Hòa do thiếu quân chiếu hết + tàn cuộc chuyên biệt: tra theo Board.getMaterialKey() (Material, Endgames), O(1).
+ *
+ * Điểm tính theo centipawn, nhìn từ phía bên đang đi ở gốc.
+ */
+public class SearchEngine {
+    public static final int MATE = 100000;
+    static final int INF = 1000000;
+    public static final int MAX_PLY = 64;
+    private static final int ASPIRATION_WINDOW = 40;
+
+    /**
+     * Một dòng phân tích: nước đi gốc, điểm, độ sâu và biến chính (PV).
+     */
+    public static class Line {
+        public final int move;      // nước đi gốc (Move.encode)
+        public final int score;     // centipawn, góc nhìn bên đang đi
+        public final int depth;     // độ sâu đã tìm xong
+        public final int[] pv;      // biến chính, pv[0] == move
+
+        public Line(int move, int score, int depth, int[] pv) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.pv = pv;
+        }
+
+        public boolean isMate() {
+            return Math.abs(score) > MATE - MAX_PLY;
+        }
+
+        /** Điểm dạng "+0.35" hoặc "#3" / "#-2" (chiếu hết sau N nước). */
+        public String scoreText() {
+            if (isMate()) {
+                int plies = MATE - Math.abs(score);
+                int movesToMate = (plies + 1) / 2;
+                return score > 0 ? "#" + movesToMate : "#-" + movesToMate;
+            }
+            return String.format(java.util.Locale.US, "%+.2f", score / 100.0);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(Move.toUci(move)).append(" (").append(scoreText()).append(")");
+            for (int m : pv) sb.append(' ').append(Move.toUci(m));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Vị trí gốc chụp từ GameManager (bản sao độc lập) → nạp vào engine ở luồng khác mà không đọc gm.
+     */
+    public static final class RootPosition {
+        final Board board;
+        final int enPassantIndex;
+        final boolean whiteToMove;
+        final LegalMoves legal;               // bất biến, dùng chung được
+        final PositionHistory positions = new PositionHistory();
+
+        private RootPosition(GameManager gm) {
+            board = gm.getBoard().copy();
+            enPassantIndex = gm.getValidator().getEnPassantIndex();
+            whiteToMove = gm.isWhiteTurn();
+            legal = gm.getLegalMoves();
+            positions.copyFrom(gm.positions());
+        }
+
+        /** Gọi trên luồng sở hữu gm. */
+        public static RootPosition of(GameManager gm) {
+            return new RootPosition(gm);
+        }
+
+        public LegalMoves getLegalMoves() { return legal; }
+    }
+
+    // ----- Bàn cờ riêng của engine -----
+    private final Board board = new Board();
+    private final MoveValidator validator = new MoveValidator(board);
+    private final MoveExecutor executor = new MoveExecutor(board, validator);
+    private final TranspositionTable tt;
+    private final PositionHistory positions = new PositionHistory(); // ván trước gốc + đường đi hiện tại
+    private Evaluator evaluator = new ClassicalEvaluator();
+    private boolean rootWhite = true;
+
+    // ----- Bộ nhớ tìm kiếm (cấp phát 1 lần) -----
+    private final int[][] moveBuf = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] orderBuf = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][4096];
+    private final int[] excludedRoot = new int[MoveGenerator.MAX_MOVES];
+    private int excludedCount = 0;
+    private final int[] rootMoves = new int[MoveGenerator.MAX_MOVES];
+    private int rootCount = -1;     // -1 = tự sinh nước ở gốc; >= 0 = dùng danh sách hợp lệ có sẵn
+    private long nodes;
+
+    /** Nhận kết quả mỗi độ sâu vừa tìm xong (vd: đo thời gian tới lời giải của bộ test EPD). */
+    public interface IterationListener {
+        void onIteration(Line best, long nodes);
+    }
+
+    private IterationListener iterationListener;
+
+    // ----- Giới hạn thời gian / node -----
+    private TimeManager timer;      // null = chỉ giới hạn theo độ sâu
+    private long nodeLimit = Long.MAX_VALUE;
+    private int evalNoise = 0;      // biên độ nhiễu ±cp (0 = tắt)
+    private long noiseSeed = 0;
+    private boolean canAbort;       // chỉ cho dừng giữa chừng khi đã có kết quả độ sâu trước
+    private boolean aborted;
+    private AtomicBoolean stopSignal;   // != null && true → dừng ngay (kết quả bị bỏ), đặt từ luồng khác
+
+    public SearchEngine() {
+        this(18); // 2^18 entry x 16 byte = 4 MB
+    }
+
+    public SearchEngine(int ttSizeLog2) {
+        tt = new TranspositionTable(ttSizeLog2);
+    }
+
+    public void setEvaluator(Evaluator evaluator) {
+        board.setPieceListener(null); // gỡ evaluator tăng dần cũ (nếu có)
+        this.evaluator = evaluator;
+        evaluator.attach(board);
+    }
+
+    /**
+     * Áp dụng ngân sách tìm kiếm (giới hạn node + nhiễu lượng giá).
+     * Nhiễu được suy ra từ Zobrist key nên cùng vị trí luôn cùng nhiễu trong 1 lần tìm (TT nhất quán);
+     * đổi seed để AI không lặp lại y hệt giữa các ván.
+     */
+    public void setBudget(SearchBudget budget, long noiseSeed) {
+        this.nodeLimit = budget.nodeLimit;
+        this.evalNoise = budget.evalNoise;
+        this.noiseSeed = noiseSeed;
+    }
+
+    /** Bỏ mọi giới hạn node / nhiễu (sức mạnh tối đa). */
+    public void clearBudget() {
+        nodeLimit = Long.MAX_VALUE;
+        evalNoise = 0;
+    }
+
+    /** Gắn (hoặc gỡ với null) listener nhận dòng tốt nhất sau mỗi độ sâu. */
+    public void setIterationListener(IterationListener listener) {
+        this.iterationListener = listener;
+    }
+
+    /**
+     * Gắn (hoặc gỡ với null) cờ hủy: luồng khác set(true) → analyze dừng trong vòng ~1024 node,
+     * kể cả khi chưa xong độ sâu nào (kết quả khi đó không dùng được).
+     */
+    public void setStopSignal(AtomicBoolean stopSignal) {
+        this.stopSignal = stopSignal;
+    }
+
+    /** Số node đã duyệt trong lần analyze gần nhất. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Xóa TT + history (vd: khi bắt đầu ván mới). */
+    public void clearHash() {
+        tt.clear();
+        for (int[] h : history) Arrays.fill(h, 0);
+    }
+
+    /**
+     * Nạp vị trí hiện tại của ván đấu (sao chép, không giữ tham chiếu tới board của gm).
+     * Nước ở gốc lấy từ gm.getLegalMoves() (đã tính sẵn, không sinh / lọc lại).
+     */
+    public void setPosition(GameManager gm) {
+        setPosition(gm.getBoard(), gm.getValidator().getEnPassantIndex(), gm.isWhiteTurn());
+        rootCount = gm.getLegalMoves().copyTo(rootMoves);
+        positions.copyFrom(gm.positions()); // lặp với các nước đã đi trong ván cũng tính là hòa
+    }
+
+    /** Nạp vị trí đã chụp bằng RootPosition.of(gm) (gọi được trên luồng tìm kiếm). */
+    public void setPosition(RootPosition root) {
+        setPosition(root.board, root.enPassantIndex, root.whiteToMove);
+        rootCount = root.legal.copyTo(rootMoves);
+        positions.copyFrom(root.positions);
+    }
+
+    public void setPosition(Board source, int enPassantIndex, boolean whiteToMove) {
+        executor.clear();
+        board.copyFrom(source);
+        validator.setEnPassantIndex(enPassantIndex);
+        rootWhite = whiteToMove;
+        rootCount = -1;
+        positions.reset(Zobrist.positionKey(board, enPassantIndex, whiteToMove), 0);
+    }
+
+    /** Tìm nước tốt nhất (Multi-PV với N = 1). Trả về null nếu không còn nước hợp lệ. */
+    public Line search(int maxDepth) {
+        List<Line> lines = analyze(maxDepth, 1);
+        return lines.isEmpty() ? null : lines.get(0);
+    }
+
+    /**
+     * Multi-PV: trả về tối đa multiPv dòng tốt nhất (sắp xếp giảm dần theo điểm).
+     * Danh sách rỗng nếu bên đang đi không còn nước hợp lệ.
+     */
+    public List<Line> analyze(int maxDepth, int multiPv) {
+        return analyze(maxDepth, multiPv, null);
+    }
+
+    /**
+     * Multi-PV có giới hạn thời gian. timer == null → chỉ dừng theo maxDepth.
+     * Khi vượt hard budget giữa chừng, kết quả của độ sâu dang dở bị bỏ, trả về độ sâu gần nhất đã xong.
+     */
+    public List<Line> analyze(int maxDepth, int multiPv, TimeManager timer) {
+        nodes = 0;
+        this.timer = timer;
+        aborted = false;
+        canAbort = false;
+        if (timer != null) timer.start();
+        for (int[] k : killers) Arrays.fill(k, Move.NONE);
+        List<Line> result = new ArrayList<>();
+        int stableIterations = 0;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            List<Line> lines = new ArrayList<>();
+            boolean failedLow = false;
+            excludedCount = 0;
+            for (int i = 0; i < multiPv; i++) {
+                int score;
+                if (i == 0 && depth >= 4 && !result.isEmpty() && !result.get(0).isMate()) {
+                    // Aspiration window quanh điểm độ sâu trước; fail-low → báo TimeManager kéo dài
+                    int prev = result.get(0).score;
+                    int window = ASPIRATION_WINDOW;
+                    int alpha = prev - window, beta = prev + window;
+                    while (true) {
+                        score = negamax(depth, 0, alpha, beta, rootWhite);
+                        if (aborted) break;
+                        if (score <= alpha) {
+                            failedLow = true;
+                            window *= 4;
+                            alpha = window > 1000 ? -INF : score - window;
+                        } else if (score >= beta) {
+                            window *= 4;
+                            beta = window > 1000 ? INF : score + window;
+                        } else {
+                            break;
+                        }
+                    }
+                } else {
+                    score = negamax(depth, 0, -INF, INF, rootWhite);
+                }
+                if (aborted || pvLength[0] == 0) break; // hết giờ / hết nước gốc chưa bị loại
+                int[] pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+                lines.add(new Line(pv[0], score, depth, pv));
+                excludedRoot[excludedCount++] = pv[0];
+            }
+            if (aborted || lines.isEmpty()) break;
+
+            if (!result.isEmpty()) {
+                Line prevBest = result.get(0), best = lines.get(0);
+                stableIterations = best.move == prevBest.move ? stableIterations + 1 : 0;
+                if (best.score < prevBest.score - ASPIRATION_WINDOW) failedLow = true;
+            }
+            result = lines;
+            canAbort = true;
+            if (iterationListener != null) iterationListener.onIteration(lines.get(0), nodes);
+            if (lines.get(0).isMate()) break; // đã thấy chiếu hết → tìm sâu hơn không đổi kết quả
+            if (nodes >= nodeLimit) break;
+            if (timer != null && !timer.canStartIteration(stableIterations, failedLow)) break;
+        }
+        excludedCount = 0;
+        this.timer = null;
+        return result;
+    }
+
+    /** Kiểm tra vượt node limit, và hết giờ / bị hủy mỗi 1024 node (gọi nanoTime / đọc volatile mỗi node quá tốn). */
+    private boolean checkAbort() {
+        if (!aborted) {
+            if ((nodes & 1023) == 0 && stopSignal != null && stopSignal.get()) aborted = true;
+            else if (canAbort) {
+                if (nodes >= nodeLimit) aborted = true;
+                else if (timer != null && (nodes & 1023) == 0 && timer.hardLimitReached()) aborted = true;
+            }
+        }
+        return aborted;
+    }
+
+    /** Lượng giá tĩnh (tàn cuộc chuyên biệt nếu có trong bảng) + nhiễu (nếu có budget nhiễu). */
+    private int evaluate(boolean white) {
+        Evaluator endgame = Endgames.lookup(board.getMaterialKey());
+        int score = endgame != null ? endgame.evaluate(board, white) : evaluator.evaluate(board, white);
+        if (evalNoise > 0) {
+            long h = (board.getZobristKey() ^ noiseSeed) * 0x9E3779B97F4A7C15L;
+            score += (int) ((h >>> 33) % (2 * evalNoise + 1)) - evalNoise;
+        }
+        return score;
+    }
+
+    // ------------------------------
+    // Alpha-beta (negamax + PVS)
+    // ------------------------------
+    private int negamax(int depth, int ply, int alpha, int beta, boolean white) {
+        pvLength[ply] = ply;
+        nodes++;
+        if (checkAbort()) return 0;
+        // Hòa do lặp (1 lần lặp là đủ: bên có lợi sẽ tránh) / luật 50 nước / thiếu quân — chỉ so sánh key
+        if (ply > 0 && (positions.isRepeated() || positions.halfmoveClock() >= 100
+                || Material.isInsufficient(board.getMaterialKey()))) return 0;
+        if (ply >= MAX_PLY - 1) return evaluate(white);
+
+        boolean inCheck = validator.isKingInCheck(white);
+        if (inCheck && ply < MAX_PLY / 2) depth++; // check extension
+        if (depth <= 0) return quiesce(ply, alpha, beta, white);
+
+        long key = positions.currentKey(); // = Zobrist.positionKey của node này (đã push khi make)
+        long entry = tt.probe(key);
+        int ttMove = Move.NONE;
+        if (entry != 0L) {
+            ttMove = TranspositionTable.moveOf(entry);
+            if (ply > 0 && TranspositionTable.depthOf(entry) >= depth) {
+                int s = scoreFromTT(TranspositionTable.scoreOf(entry), ply);
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && s >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && s <= alpha)) {
+                    return s;
+                }
+            }
+        }
+
+        int[] moves = moveBuf[ply];
+        boolean rootListed = ply == 0 && rootCount >= 0; // nước gốc đã hợp lệ sẵn
+        int n;
+        if (rootListed) {
+            n = rootCount;
+            System.arraycopy(rootMoves, 0, moves, 0, n);
+        } else {
+            n = MoveGenerator.generatePseudo(board, validator, white, moves, false);
+        }
+        scoreMoves(moves, orderBuf[ply], n, ttMove, ply, white);
+
+        int origAlpha = alpha;
+        int best = -INF, bestMove = Move.NONE, legal = 0;
+        for (int i = 0; i < n; i++) {
+            int m = pickNext(moves, orderBuf[ply], i, n);
+            if (ply == 0 && isExcluded(m)) continue;
+
+            boolean pawnMove = board.getPiece(Move.fromRow(m), Move.fromCol(m)).getType() == Piece.Type.PAWN;
+            Piece captured = executor.make(m);
+            if (!rootListed && validator.isKingInCheck(white)) {
+                executor.unmake(m);
+                continue;
+            }
+            legal++;
+            positions.push(Zobrist.positionKey(board, validator.getEnPassantIndex(), !white), pawnMove || captured != null);
+
+            int s;
+            if (legal == 1) {
+                s = -negamax(depth - 1, ply + 1, -beta, -alpha, !white);
+            } else {
+                s = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha, !white);
+                if (s > alpha && s < beta) s = -negamax(depth - 1, ply + 1, -beta, -alpha, !white);
+            }
+            positions.pop();
+            executor.unmake(m);
+            if (aborted) return 0;
+
+            if (s > best) {
+                best = s;
+                bestMove = m;
+                if (s > alpha) {
+                    alpha = s;
+                    updatePv(ply, m);
+                    if (alpha >= beta) {
+                        if (captured == null) rememberQuiet(m, ply, depth, white);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legal == 0) {
+            pvLength[ply] = ply;
+            if (ply == 0 && excludedCount > 0) return -INF; // Multi-PV: đã hết nước gốc
+            return inCheck ? -MATE + ply : 0;               // chiếu hết / hết nước (hòa)
+        }
+
+        // Gốc có loại nước (Multi-PV dòng 2+) → kết quả không phải của cả vị trí, không lưu TT
+        if (ply > 0 || excludedCount == 0) {
+            int bound = best <= origAlpha ? TranspositionTable.BOUND_UPPER
+                    : best >= beta ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+            tt.store(key, bestMove, depth, bound, scoreToTT(best, ply));
+        }
+        return best;
+    }
+
+    // ------------------------------
+    // Quiescence: chỉ xét nước ăn quân / phong cấp để tránh hiệu ứng chân trời
+    // ------------------------------
+    private int quiesce(int ply, int alpha, int beta, boolean white) {
+        pvLength[ply] = ply;
+        nodes++;
+        if (checkAbort()) return 0;
+        int standPat = evaluate(white);
+        if (standPat >= beta || ply >= MAX_PLY - 1) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        int[] moves = moveBuf[ply];
+        int n = MoveGenerator.generatePseudo(board, validator, white, moves, true);
+        scoreMoves(moves, orderBuf[ply], n, Move.NONE, ply, white);
+
+        for (int i = 0; i < n; i++) {
+            int m = pickNext(moves, orderBuf[ply], i, n);
+            executor.make(m);
+            if (validator.isKingInCheck(white)) {
+                executor.unmake(m);
+                continue;
+            }
+            int s = -quiesce(ply + 1, -beta, -alpha, !white);
+            executor.unmake(m);
+            if (aborted) return 0;
+
+            if (s >= beta) return s;
+            if (s > alpha) {
+                alpha = s;
+                updatePv(ply, m);
+            }
+        }
+        return alpha;
+    }
+
+    // ------------------------------
+    // Sắp xếp nước đi: TT move > ăn quân (MVV-LVA) > killer > history
+    // ------------------------------
+    private void scoreMoves(int[] moves, int[] order, int n, int ttMove, int ply, boolean white) {
+        int[] hist = history[white ? 0 : 1];
+        for (int i = 0; i < n; i++) {
+            int m = moves[i];
+            if (m == ttMove) {
+                order[i] = 1 << 30;
+                continue;
+            }
+            Piece victim = board.getPiece(Move.toRow(m), Move.toCol(m));
+            Piece attacker = board.getPiece(Move.fromRow(m), Move.fromCol(m));
+            if (victim != null) {
+                order[i] = (1 << 24) + ClassicalEvaluator.VALUE[victim.getType().ordinal()] * 8
+                        - ClassicalEvaluator.VALUE[attacker.getType().ordinal()] / 100;
+            } else if (attacker.getType() == Piece.Type.PAWN && (Move.toRow(m) == 0 || Move.toRow(m) == 7)) {
+                order[i] = (1 << 24) + ClassicalEvaluator.VALUE[1] * 8;
+            } else if (m == killers[ply][0]) {
+                order[i] = (1 << 23) + 1;
+            } else if (m == killers[ply][1]) {
+                order[i] = 1 << 23;
+            } else {
+                order[i] = hist[m & 4095];
+            }
+        }
+    }
+
+    /** Selection sort từng bước: đưa nước điểm cao nhất trong [i, n) về vị trí i. */
+    private static int pickNext(int[] moves, int[] order, int i, int n) {
+        int bestIdx = i;
+        for (int j = i + 1; j < n; j++) {
+            if (order[j] > order[bestIdx]) bestIdx = j;
+        }
+        if (bestIdx != i) {
+            int tm = moves[i]; moves[i] = moves[bestIdx]; moves[bestIdx] = tm;
+            int to = order[i]; order[i] = order[bestIdx]; order[bestIdx] = to;
+        }
+        return moves[i];
+    }
+
+    private void rememberQuiet(int m, int ply, int depth, boolean white) {
+        if (killers[ply][0] != m) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = m;
+        }
+        int[] hist = history[white ? 0 : 1];
+        hist[m & 4095] = Math.min(hist[m & 4095] + depth * depth, 1 << 22);
+    }
+
+    private void updatePv(int ply, int m) {
+        pvTable[ply][ply] = m;
+        int childLen = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, childLen - (ply + 1));
+        pvLength[ply] = Math.max(childLen, ply + 1);
+    }
+
+    private boolean isExcluded(int m) {
+        for (int i = 0; i < excludedCount; i++) {
+            if (excludedRoot[i] == m) return true;
+        }
+        return false;
+    }
+
+    // Điểm chiếu hết lưu trong TT tính từ node hiện tại (không phụ thuộc ply gốc)
+    private static int scoreToTT(int s, int ply) {
+        if (s > MATE - MAX_PLY) return s + ply;
+        if (s < -MATE + MAX_PLY) return s - ply;
+        return s;
+    }
+
+    private static int scoreFromTT(int s, int ply) {
+        if (s > MATE - MAX_PLY) return s - ply;
+        if (s < -MATE + MAX_PLY) return s + ply;
+        return s;
+    }
+}
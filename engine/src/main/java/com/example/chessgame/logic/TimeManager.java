@@ -0,0 +1,73 @@
+package com.example.chessgame.logic;
+
+/**
+ * TimeManager.java
+ * -----------------
+ * Chia thời gian suy nghĩ cho một nước của AI:
+ *  - soft budget: thời gian "nên dùng" — hết soft thì không bắt đầu độ sâu mới
+ *  - hard budget: giới hạn cứng — SearchEngine dừng ngay giữa chừng khi vượt
+ *
+ * Điều chỉnh theo diễn biến iterative deepening:
+ *  - Nước tốt nhất ổn định qua nhiều độ sâu → dừng sớm (tiết kiệm đồng hồ)
+ *  - Fail-low (điểm tụt so với độ sâu trước) → kéo dài, tối đa tới hard budget
+ */
+public class TimeManager {
+    private static final long SAFETY_MS = 50;    // chừa lại cho độ trễ UI / commit nước
+    private static final int MOVES_TO_GO = 30;   // ước lượng số nước còn phải đi (sudden death)
+
+    private final long softMs;
+    private final long hardMs;
+    private long startNanos;
+
+    public TimeManager(long softMs, long hardMs) {
+        this.softMs = Math.max(1, softMs);
+        this.hardMs = Math.max(this.softMs, hardMs);
+        start();
+    }
+
+    /**
+     * Budget theo đồng hồ (base + increment).
+     * @param remainingMs thời gian còn lại của bên AI
+     * @param incrementMs số ms được cộng sau mỗi nước
+     */
+    public static TimeManager forClock(long remainingMs, long incrementMs) {
+        long usable = Math.max(1, remainingMs - SAFETY_MS);
+        long soft = usable / MOVES_TO_GO + incrementMs * 3 / 4;
+        long hard = Math.min(usable / 4 + incrementMs, soft * 5);
+        return new TimeManager(Math.min(soft, usable), Math.min(hard, usable));
+    }
+
+    /** Đặt lại mốc bắt đầu (gọi ngay trước khi tìm kiếm). */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    public long getSoftMs() { return softMs; }
+    public long getHardMs() { return hardMs; }
+
+    /** Đã vượt giới hạn cứng → SearchEngine phải dừng ngay. */
+    public boolean hardLimitReached() {
+        return elapsedMs() >= hardMs;
+    }
+
+    /**
+     * Có nên bắt đầu độ sâu tiếp theo không.
+     * @param stableIterations số độ sâu liên tiếp nước tốt nhất không đổi
+     * @param failedLow        độ sâu vừa xong bị fail-low / điểm tụt mạnh
+     */
+    public boolean canStartIteration(int stableIterations, boolean failedLow) {
+        double scale;
+        if (failedLow) scale = 2.0;
+        else if (stableIterations >= 4) scale = 0.4;
+        else if (stableIterations >= 2) scale = 0.7;
+        else scale = 1.0;
+
+        long optimum = Math.min((long) (softMs * scale), hardMs);
+        // Độ sâu kế tiếp thường tốn gấp vài lần độ sâu vừa xong → không bắt đầu nếu đã dùng quá ~60%
+        return elapsedMs() < optimum * 6 / 10;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.chessgame.logic;
+
+/**
+ * TranspositionTable.java
+ * ------------------------
+ * Bảng băm lưu kết quả tìm kiếm theo Zobrist key (2 mảng long song song, không tạo object).
+ *  - data đóng gói: move (16 bit) | depth (8 bit) | bound (2 bit) | score (32 bit, có dấu)
+ *  - Thay thế: ghi đè nếu khác vị trí, hoặc cùng vị trí và độ sâu mới >= độ sâu cũ
+ *
+ * Bảng được giữ qua nhiều lần tìm kiếm (và giữa các dòng Multi-PV) nên
+ * các nhánh đã tính ở dòng trước được dùng lại ở dòng sau.
+ */
+public class TranspositionTable {
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // score >= beta (fail-high)
+    public static final int BOUND_UPPER = 3; // score <= alpha (fail-low)
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * @param sizeLog2 số entry = 2^sizeLog2 (mỗi entry 16 byte)
+     */
+    public TranspositionTable(int sizeLog2) {
+        int size = 1 << sizeLog2;
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0L);
+        java.util.Arrays.fill(data, 0L);
+    }
+
+    /** Trả về data đã đóng gói, hoặc 0 nếu không có entry cho key. */
+    public long probe(long key) {
+        int i = (int) key & mask;
+        return keys[i] == key ? data[i] : 0L;
+    }
+
+    public void store(long key, int move, int depth, int bound, int score) {
+        int i = (int) key & mask;
+        if (keys[i] == key && depth < depthOf(data[i]) && bound != BOUND_EXACT) return;
+        keys[i] = key;
+        data[i] = (move & 0xFFFFL)
+                | ((long) (depth & 0xFF) << 16)
+                | ((long) bound << 24)
+                | ((long) score << 32);
+    }
+
+    public static int moveOf(long entry)  { return (int) (entry & 0xFFFF); }
+    public static int depthOf(long entry) { return (int) ((entry >>> 16) & 0xFF); }
+    public static int boundOf(long entry) { return (int) ((entry >>> 24) & 3); }
+    public static int scoreOf(long entry) { return (int) (entry >> 32); }
+}
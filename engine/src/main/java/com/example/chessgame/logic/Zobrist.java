@@ -0,0 +1,79 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Piece;
+import com.example.chessgame.model.Piece.Type;
+
+import java.util.Random;
+
+/**
+ * Zobrist.java
+ * -------------
+ * Bảng số ngẫu nhiên 64-bit để băm vị trí (Zobrist hashing).
+ *  - PIECES[code][sq]: quân (Piece.code()) đứng tại ô sq = row * 8 + col
+ *  - Board tự cập nhật phần "quân trên bàn" (getZobristKey) mỗi khi đặt/nhấc quân
+ *  - positionKey(...) ghép thêm lượt đi, quyền nhập thành và ô en passant
+ *
+ * Seed cố định → cùng một vị trí luôn cho cùng một key trên mọi máy.
+ */
+public final class Zobrist {
+    static final long[][] PIECES = new long[13][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+    static final long SIDE;
+
+    // Bit quyền nhập thành trong castlingRights(...)
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    static {
+        Random rnd = new Random(0x5EED_C4E55L);
+        for (int p = 1; p < 13; p++) {
+            for (int sq = 0; sq < 64; sq++) PIECES[p][sq] = rnd.nextLong();
+        }
+        for (int i = 0; i < 16; i++) CASTLING[i] = rnd.nextLong();
+        for (int i = 0; i < 8; i++) EN_PASSANT_FILE[i] = rnd.nextLong();
+        SIDE = rnd.nextLong();
+    }
+
+    private Zobrist() {}
+
+    /** Key của một quân tại ô (r,c); 0 nếu ô trống. */
+    static long pieceKey(Piece p, int r, int c) {
+        return p == null ? 0L : PIECES[p.code()][r * 8 + c];
+    }
+
+    /**
+     * Quyền nhập thành suy ra từ cờ hasMoved của vua và xe ở vị trí gốc
+     * (Board không lưu quyền nhập thành riêng).
+     */
+    public static int castlingRights(Board board) {
+        int rights = 0;
+        if (unmoved(board, 7, 4, Type.KING, true)) {
+            if (unmoved(board, 7, 7, Type.ROOK, true)) rights |= WHITE_KING_SIDE;
+            if (unmoved(board, 7, 0, Type.ROOK, true)) rights |= WHITE_QUEEN_SIDE;
+        }
+        if (unmoved(board, 0, 4, Type.KING, false)) {
+            if (unmoved(board, 0, 7, Type.ROOK, false)) rights |= BLACK_KING_SIDE;
+            if (unmoved(board, 0, 0, Type.ROOK, false)) rights |= BLACK_QUEEN_SIDE;
+        }
+        return rights;
+    }
+
+    private static boolean unmoved(Board board, int r, int c, Type type, boolean white) {
+        Piece p = board.getPiece(r, c);
+        return p != null && p.getType() == type && p.isWhite() == white && !p.hasMoved();
+    }
+
+    /**
+     * Key đầy đủ của vị trí: quân + lượt đi + quyền nhập thành + cột en passant.
+     * @param enPassantIndex ô en passant (row * 8 + col) hoặc -1
+     */
+    public static long positionKey(Board board, int enPassantIndex, boolean whiteToMove) {
+        long key = board.getZobristKey() ^ CASTLING[castlingRights(board)];
+        if (enPassantIndex >= 0) key ^= EN_PASSANT_FILE[enPassantIndex & 7];
+        if (!whiteToMove) key ^= SIDE;
+        return key;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.chessgame.model;
+
+public class Move {
+    public int fromRow, fromCol, toRow, toCol;
+    public Piece movedPiece;      // tham chiếu tới Piece (lưu để undo)
+    public Piece capturedPiece;   // tham chiếu (nếu có)
+    public boolean movedPieceHasMovedBefore;
+
+    public Move(int fr, int fc, int tr, int tc, Piece moved, Piece captured, boolean prevHasMoved) {
+        this.fromRow = fr; this.fromCol = fc; this.toRow = tr; this.toCol = tc;
+        this.movedPiece = moved;
+        this.capturedPiece = captured;
+        this.movedPieceHasMovedBefore = prevHasMoved;
+    }
+
+    // -------------------------
+    // Nước đi đóng gói trong 1 int (dùng cho engine / history, không cấp phát object)
+    //  - bit 0..5  : ô nguồn (row * 8 + col)
+    //  - bit 6..11 : ô đích  (row * 8 + col)
+    // Phong cấp luôn là Hậu nên không cần thêm bit.
+    // -------------------------
+    public static final int NONE = 0; // a8->a8 không bao giờ là nước hợp lệ
+
+    public static int encode(int fr, int fc, int tr, int tc) {
+        return (fr * 8 + fc) | ((tr * 8 + tc) << 6);
+    }
+
+    public static int from(int m)    { return m & 63; }
+    public static int to(int m)      { return (m >>> 6) & 63; }
+    public static int fromRow(int m) { return (m & 63) >> 3; }
+    public static int fromCol(int m) { return m & 7; }
+    public static int toRow(int m)   { return ((m >>> 6) & 63) >> 3; }
+    public static int toCol(int m)   { return (m >>> 6) & 7; }
+
+    /** Ký hiệu tọa độ kiểu "e2e4" (hàng 0 của Board = rank 8). */
+    public static String toUci(int m) {
+        return square(from(m)) + square(to(m));
+    }
+
+    public static String square(int sq) {
+        return "" + (char) ('a' + (sq & 7)) + (char) ('8' - (sq >> 3));
+    }
+}
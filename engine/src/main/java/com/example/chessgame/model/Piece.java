@@ -24,6 +24,19 @@ public class Piece {
     public boolean hasMoved() { return hasMoved; }
     public void setMoved(boolean moved) { this.hasMoved = moved; }
 
+    /**
+     * Mã số nguyên của quân (dùng cho Zobrist, move log, engine):
+     *  0 = ô trống, 1..6 = quân Trắng theo thứ tự Type, 7..12 = quân Đen.
+     */
+    public int code() { return type.ordinal() + (isWhite ? 1 : 7); }
+
+    /** Tạo Piece từ mã code() (code phải trong khoảng 1..12). */
+    public static Piece fromCode(int code, int row, int col) {
+        boolean white = code <= 6;
+        Type t = Type.values()[white ? code - 1 : code - 7];
+        return new Piece(t, white, row, col);
+    }
+
     // sao chép nhẹ (không clone đầy đủ) - nếu cần deep clone implement sau
     public Piece copy() {
         Piece p = new Piece(this.type, this.isWhite, this.row, this.col);
@@ -0,0 +1,92 @@
+package com.example.chessgame.tools;
+
+import com.example.chessgame.logic.ClassicalEvaluator;
+import com.example.chessgame.logic.Evaluator;
+import com.example.chessgame.logic.NnueEvaluator;
+import com.example.chessgame.logic.NnueNetwork;
+import com.example.chessgame.logic.SearchBudget;
+import com.example.chessgame.logic.SearchEngine;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * EngineConfig.java
+ * ------------------
+ * Một cấu hình engine để đấu trong SelfPlayTournament: ngân sách tìm kiếm + hàm lượng giá.
+ *
+ * Cú pháp dòng lệnh (các phần tách bằng dấu phẩy, thứ tự tùy ý):
+ *   level=3            → SearchBudget.forLevel(3, nps) như AIPlayer trong app
+ *   nodes=20000        → giới hạn node mỗi nước (mặc định 20000)
+ *   depth=8            → giới hạn độ sâu (mặc định không giới hạn)
+ *   noise=35           → nhiễu lượng giá ±cp
+ *   ms=100             → thêm giới hạn thời gian mỗi nước (mặc định không có → kết quả tái lập được)
+ *   nnue=path/to.nnue  → dùng NnueEvaluator thay cho ClassicalEvaluator
+ *   name=new           → tên hiển thị
+ * Ví dụ: "name=base,nodes=20000" hay "level=3,nnue=engine.nnue".
+ */
+public class EngineConfig {
+    public final String name;
+    public final SearchBudget budget;
+    public final long moveTimeMs;          // 0 = chỉ giới hạn theo node/độ sâu
+    private final NnueNetwork network;     // null = ClassicalEvaluator
+
+    public EngineConfig(String name, SearchBudget budget, long moveTimeMs, NnueNetwork network) {
+        this.name = name;
+        this.budget = budget;
+        this.moveTimeMs = moveTimeMs;
+        this.network = network;
+    }
+
+    /** Mỗi luồng cần evaluator riêng (NnueEvaluator giữ accumulator theo board). */
+    public Evaluator newEvaluator() {
+        return network != null ? new NnueEvaluator(network) : new ClassicalEvaluator();
+    }
+
+    /**
+     * @param spec       chuỗi cấu hình (xem chú thích lớp)
+     * @param defaultName tên dùng khi spec không có name=
+     * @param deviceNps  nps dùng cho level= (giống EngineCalibration trong app)
+     */
+    public static EngineConfig parse(String spec, String defaultName, long deviceNps) throws IOException {
+        String name = defaultName;
+        int depth = SearchEngine.MAX_PLY, noise = 0, level = 0;
+        long nodes = 20_000, ms = 0;
+        NnueNetwork net = null;
+
+        for (String part : spec.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            int eq = part.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Thiếu '=' trong: " + part);
+            String key = part.substring(0, eq), value = part.substring(eq + 1);
+            switch (key) {
+                case "name":  name = value; break;
+                case "level": level = Integer.parseInt(value); break;
+                case "nodes": nodes = Long.parseLong(value); break;
+                case "depth": depth = Integer.parseInt(value); break;
+                case "noise": noise = Integer.parseInt(value); break;
+                case "ms":    ms = Long.parseLong(value); break;
+                case "nnue":
+                    try (InputStream in = new BufferedInputStream(new FileInputStream(value))) {
+                        net = NnueNetwork.load(in);
+                    }
+                    break;
+                default: throw new IllegalArgumentException("Khóa không hỗ trợ: " + key);
+            }
+        }
+
+        SearchBudget budget = level > 0
+                ? SearchBudget.forLevel(level, deviceNps)
+                : new SearchBudget(depth, nodes, noise);
+        return new EngineConfig(name, budget, ms, net);
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + budget + (moveTimeMs > 0 ? " ms=" + moveTimeMs : "")
+                + (network != null ? " nnue" : "") + "]";
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.chessgame.tools;
+
+import com.example.chessgame.logic.AIPlayer;
+import com.example.chessgame.logic.Fen;
+import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.LegalMoves;
+import com.example.chessgame.logic.San;
+import com.example.chessgame.logic.SearchEngine;
+import com.example.chessgame.model.Move;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EpdSuite.java
+ * --------------
+ * Chạy bộ test chiến thuật dạng EPD (WAC, ECM, STS...) qua AIPlayer, song song trên mọi nhân,
+ * để đo sức mạnh chiến thuật theo thời gian (số bài giải được / ms) trước khi đưa thay đổi vào app.
+ *
+ *  - Đọc TUẦN TỰ từng dòng (streaming): hàng đợi giới hạn → file hàng nghìn vị trí không nằm hết trong RAM
+ *  - Mỗi dòng: 4 trường FEN + operation "bm" (nước tốt nhất) / "am" (nước phải tránh) / "id"
+ *  - Mỗi luồng có GameManager + AIPlayer riêng (TT không thread-safe), không có trạng thái chia sẻ ngoài bộ đếm
+ *  - Thời gian tới lời giải (time-to-solution): thời điểm độ sâu đầu tiên mà nước tốt nhất đúng
+ *    VÀ giữ đúng tới hết thời gian (đổi ý sang nước sai rồi quay lại → tính lại từ lần đúng sau cùng)
+ *
+ * Chạy: java com.example.chessgame.tools.EpdSuite wac.epd --ms 1000 --threads 8
+ *   (file "-" = đọc từ stdin)
+ */
+public class EpdSuite {
+
+    /** Một dòng EPD đã tách: FEN (4 trường) + các operation. */
+    static class Entry {
+        final String fen;
+        final String id;
+        final List<String> bestMoves = new ArrayList<>();
+        final List<String> avoidMoves = new ArrayList<>();
+
+        Entry(String fen, String id) {
+            this.fen = fen;
+            this.id = id;
+        }
+    }
+
+    /** Kết quả một vị trí. */
+    static class Result {
+        final boolean solved;
+        final long solveMs;   // -1 nếu không giải được
+        final long nodes;
+        final String played;
+
+        Result(boolean solved, long solveMs, long nodes, String played) {
+            this.solved = solved;
+            this.solveMs = solveMs;
+            this.nodes = nodes;
+            this.played = played;
+        }
+    }
+
+    private final long moveTimeMs;
+    private final PrintStream out;
+
+    private final AtomicInteger total = new AtomicInteger(), solved = new AtomicInteger(), skipped = new AtomicInteger();
+    private final AtomicLong solveMsSum = new AtomicLong(), nodesSum = new AtomicLong(), searchMsSum = new AtomicLong();
+
+    /** GameManager + AIPlayer của một luồng (think() luôn tìm ở sức mạnh tối đa, mức AI không ảnh hưởng). */
+    private static class Worker {
+        final GameManager gm = new GameManager();
+        final AIPlayer ai = new AIPlayer(gm, 3);
+    }
+
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    public EpdSuite(long moveTimeMs, PrintStream out) {
+        this.moveTimeMs = moveTimeMs;
+        this.out = out;
+    }
+
+    // ===============================================================
+    // 📄 Đọc EPD
+    // ===============================================================
+
+    /**
+     * Tách một dòng EPD. Trả về null nếu là dòng trống / chú thích.
+     * @throws IllegalArgumentException nếu phần FEN không hợp lệ
+     */
+    static Entry parseLine(String line) {
+        String s = line.trim();
+        if (s.isEmpty() || s.startsWith("#")) return null;
+
+        Fen.Position pos = Fen.parse(s, false);
+        String fen = s.substring(0, pos.end).trim();
+        Map<String, List<String>> ops = parseOperations(s, pos.end);
+
+        List<String> id = ops.get("id");
+        Entry e = new Entry(fen, id != null && !id.isEmpty() ? id.get(0) : null);
+        if (ops.containsKey("bm")) e.bestMoves.addAll(ops.get("bm"));
+        if (ops.containsKey("am")) e.avoidMoves.addAll(ops.get("am"));
+        return e;
+    }
+
+    /** Operation EPD: "opcode operand operand ...;" — operand trong ngoặc kép có thể chứa khoảng trắng / ';'. */
+    private static Map<String, List<String>> parseOperations(String s, int i) {
+        Map<String, List<String>> ops = new HashMap<>();
+        String opcode = null;
+        List<String> operands = null;
+        int n = s.length();
+        while (i < n) {
+            char ch = s.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                i++;
+            } else if (ch == ';') {
+                if (opcode != null) ops.put(opcode, operands);
+                opcode = null;
+                i++;
+            } else {
+                int start = i;
+                String token;
+                if (ch == '"') {
+                    int close = s.indexOf('"', i + 1);
+                    if (close < 0) close = n;
+                    token = s.substring(i + 1, close);
+                    i = Math.min(n, close + 1);
+                } else {
+                    while (i < n && !Character.isWhitespace(s.charAt(i)) && s.charAt(i) != ';') i++;
+                    token = s.substring(start, i);
+                }
+                if (opcode == null) {
+                    opcode = token;
+                    operands = new ArrayList<>();
+                } else {
+                    operands.add(token);
+                }
+            }
+        }
+        if (opcode != null) ops.put(opcode, operands);
+        return ops;
+    }
+
+    // ===============================================================
+    // 🏁 Chạy bộ test
+    // ===============================================================
+
+    public void run(BufferedReader in, int threads) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        // Hàng đợi giới hạn + caller-runs: luồng đọc tự chạy bài khi các luồng kia đang bận → không đọc trước quá xa
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        String line;
+        int index = 0;
+        while ((line = in.readLine()) != null) {
+            final String text = line;
+            final int number = ++index;
+            pool.execute(() -> runLine(number, text));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        long wallMs = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+
+        int n = total.get(), ok = solved.get();
+        out.println("===========================");
+        out.printf(Locale.US, "Giải được     : %d / %d (%.1f%%)%n", ok, n, n == 0 ? 0.0 : 100.0 * ok / n);
+        if (skipped.get() > 0) out.println("Bỏ qua        : " + skipped.get() + " (FEN lỗi / không có bm, am hợp lệ)");
+        out.printf(Locale.US, "Tới lời giải  : %.0f ms trung bình (trên các bài giải được)%n",
+                ok == 0 ? 0.0 : (double) solveMsSum.get() / ok);
+        long searchMs = Math.max(1, searchMsSum.get());
+        out.printf(Locale.US, "Thời gian tìm : %d ms (%d ms / bài), %d node/s mỗi luồng%n",
+                searchMs, moveTimeMs, nodesSum.get() * 1000 / searchMs);
+        out.printf(Locale.US, "Hiệu suất     : %.2f bài / giây tìm kiếm, %.1f s toàn bộ (%d luồng)%n",
+                ok * 1000.0 / searchMs, wallMs / 1000.0, threads);
+    }
+
+    private void runLine(int number, String line) {
+        Entry e;
+        try {
+            e = parseLine(line);
+        } catch (IllegalArgumentException ex) {
+            skipped.incrementAndGet();
+            synchronized (out) {
+                out.println("#" + number + " lỗi: " + ex.getMessage());
+            }
+            return;
+        }
+        if (e == null) return;
+
+        Result r = solve(e);
+        if (r == null) {
+            skipped.incrementAndGet();
+            return;
+        }
+        total.incrementAndGet();
+        nodesSum.addAndGet(r.nodes);
+        if (r.solved) {
+            solved.incrementAndGet();
+            solveMsSum.addAndGet(r.solveMs);
+        }
+        synchronized (out) {
+            out.printf(Locale.US, "#%-4d %-16s %-6s %-8s %s%s%n", number, e.id != null ? e.id : "",
+                    r.solved ? "OK" : "SAI", r.played,
+                    !e.bestMoves.isEmpty() ? "bm " + String.join(" ", e.bestMoves) : "am " + String.join(" ", e.avoidMoves),
+                    r.solved ? String.format(Locale.US, "  (%d ms)", r.solveMs) : "");
+        }
+    }
+
+    /** Tìm trên vị trí của e; null nếu vị trí không dùng được (đã kết thúc / bm, am không khớp nước nào). */
+    Result solve(Entry e) {
+        Worker w = workers.get();
+        GameManager gm = w.gm;
+        AIPlayer ai = w.ai;
+
+        gm.loadFen(e.fen);
+        if (gm.isGameOver()) return null;
+        LegalMoves legal = gm.getLegalMoves();
+        int[] best = resolve(e.bestMoves, gm, legal), avoid = resolve(e.avoidMoves, gm, legal);
+        if (best.length == 0 && avoid.length == 0) return null;
+
+        ai.newGame();
+        long t0 = System.nanoTime();
+        long[] solvedAt = {-1};
+        SearchEngine.Line line = ai.think(moveTimeMs, (l, nodes) -> {
+            if (!isCorrect(l.move, best, avoid)) solvedAt[0] = -1;
+            else if (solvedAt[0] < 0) solvedAt[0] = (System.nanoTime() - t0) / 1_000_000L;
+        });
+        searchMsSum.addAndGet((System.nanoTime() - t0) / 1_000_000L);
+
+        boolean ok = line != null && isCorrect(line.move, best, avoid);
+        String played = line != null ? San.toSan(gm.getBoard(), legal, line.move) : "-";
+        return new Result(ok, ok ? Math.max(0, solvedAt[0]) : -1, ai.getNodes(), played);
+    }
+
+    private static int[] resolve(List<String> sans, GameManager gm, LegalMoves legal) {
+        int[] moves = new int[sans.size()];
+        int n = 0;
+        for (String s : sans) {
+            int m = San.parse(s, gm.getBoard(), legal);
+            if (m != Move.NONE) moves[n++] = m;
+        }
+        return Arrays.copyOf(moves, n);
+    }
+
+    private static boolean isCorrect(int move, int[] best, int[] avoid) {
+        for (int m : avoid) if (m == move) return false;
+        if (best.length == 0) return true;
+        for (int m : best) if (m == move) return true;
+        return false;
+    }
+
+    // ===============================================================
+    // 🖥️ Dòng lệnh
+    // ===============================================================
+    public static void main(String[] args) throws Exception {
+        String file = null;
+        long ms = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--ms": ms = Long.parseLong(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default:
+                    if (args[i].startsWith("--")) throw new IllegalArgumentException("Tham số không hợp lệ: " + args[i]);
+                    file = args[i];
+            }
+        }
+        if (file == null) throw new IllegalArgumentException("Thiếu file EPD (\"-\" = stdin)");
+
+        EpdSuite suite = new EpdSuite(ms, System.out);
+        try (BufferedReader in = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+            suite.run(in, threads);
+        }
+    }
+}
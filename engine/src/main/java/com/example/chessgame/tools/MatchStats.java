@@ -0,0 +1,126 @@
+package com.example.chessgame.tools;
+
+/**
+ * MatchStats.java
+ * ----------------
+ * Thống kê kết quả đấu giữa engine A và B (góc nhìn của A):
+ *  - Elo chênh lệch + khoảng tin cậy 95%
+ *  - LOS (likelihood of superiority): xác suất A thật sự mạnh hơn B
+ *  - SPRT: kiểm định H0 (elo = elo0) với H1 (elo = elo1), dùng xấp xỉ chuẩn cho LLR
+ *    (như fishtest) → dừng sớm khi LLR vượt ngưỡng thay vì đợi đủ số ván.
+ *
+ * Không thread-safe: SelfPlayTournament cập nhật trong khối synchronized.
+ */
+public class MatchStats {
+    public static final int SPRT_CONTINUE = 0;
+    public static final int SPRT_ACCEPT_H1 = 1;   // A mạnh hơn ít nhất elo1
+    public static final int SPRT_ACCEPT_H0 = -1;  // không chứng minh được A mạnh hơn
+
+    public int wins, draws, losses;
+
+    private final double elo0, elo1;
+    private final double lowerBound, upperBound;
+
+    /**
+     * @param elo0  giả thuyết H0 (thường 0)
+     * @param elo1  giả thuyết H1 (vd: 5)
+     * @param alpha xác suất chấp nhận H1 sai
+     * @param beta  xác suất chấp nhận H0 sai
+     */
+    public MatchStats(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /** @param scoreForA 1 = A thắng, 0.5 = hòa, 0 = A thua */
+    public void add(double scoreForA) {
+        if (scoreForA > 0.75) wins++;
+        else if (scoreForA < 0.25) losses++;
+        else draws++;
+    }
+
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    /** Điểm trung bình của A (0..1). */
+    public double score() {
+        int n = games();
+        return n == 0 ? 0.5 : (wins + 0.5 * draws) / n;
+    }
+
+    /** Phương sai điểm của 1 ván. */
+    private double variance() {
+        int n = games();
+        if (n == 0) return 0;
+        double m = score();
+        return (wins * (1 - m) * (1 - m) + draws * (0.5 - m) * (0.5 - m) + losses * m * m) / n;
+    }
+
+    public double elo() {
+        return eloFromScore(score());
+    }
+
+    /** Nửa độ rộng khoảng tin cậy 95% của Elo. */
+    public double eloError95() {
+        int n = games();
+        if (n == 0) return Double.POSITIVE_INFINITY;
+        double m = score(), d = 1.959964 * Math.sqrt(variance() / n);
+        return (eloFromScore(m + d) - eloFromScore(m - d)) / 2;
+    }
+
+    public double los() {
+        int decisive = wins + losses;
+        if (decisive == 0) return 0.5;
+        return 0.5 * (1 + erf((wins - losses) / Math.sqrt(2.0 * decisive)));
+    }
+
+    /** Log-likelihood ratio của H1 so với H0. */
+    public double llr() {
+        double var = variance();
+        if (var <= 0) return 0;
+        double s0 = scoreFromElo(elo0), s1 = scoreFromElo(elo1);
+        return games() * (s1 - s0) * (2 * score() - s0 - s1) / (2 * var);
+    }
+
+    public int sprtState() {
+        // Cần vài ván quyết định trước khi phương sai có nghĩa
+        if (wins + losses < 2) return SPRT_CONTINUE;
+        double llr = llr();
+        if (llr >= upperBound) return SPRT_ACCEPT_H1;
+        if (llr <= lowerBound) return SPRT_ACCEPT_H0;
+        return SPRT_CONTINUE;
+    }
+
+    public String summary() {
+        String sprt;
+        switch (sprtState()) {
+            case SPRT_ACCEPT_H1: sprt = "H1 accepted"; break;
+            case SPRT_ACCEPT_H0: sprt = "H0 accepted"; break;
+            default: sprt = "running"; break;
+        }
+        return String.format(java.util.Locale.US,
+                "Games %d: +%d =%d -%d  score %.1f%%  Elo %+.1f ± %.1f  LOS %.1f%%  LLR %.2f [%.2f, %.2f] (%s, elo0=%.0f elo1=%.0f)",
+                games(), wins, draws, losses, score() * 100, elo(), eloError95(), los() * 100,
+                llr(), lowerBound, upperBound, sprt, elo0, elo1);
+    }
+
+    private static double eloFromScore(double s) {
+        s = Math.min(Math.max(s, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    private static double scoreFromElo(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    // Xấp xỉ Abramowitz–Stegun 7.1.26 (sai số < 1.5e-7) — đủ cho LOS
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - ((((1.061405429 * t - 1.453152027) * t + 1.421413741) * t - 0.284496736) * t
+                + 0.254829592) * t * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.chessgame.tools;
+
+import com.example.chessgame.logic.Board;
+import com.example.chessgame.logic.Fen;
+import com.example.chessgame.logic.MoveExecutor;
+import com.example.chessgame.logic.MoveGenerator;
+import com.example.chessgame.logic.MoveValidator;
+import com.example.chessgame.logic.Zobrist;
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * PgnReader.java
+ * ---------------
+ * Đọc file PGN rất lớn (nhiều GB) để lập chỉ mục vị trí, dựng opening book, phân tích ván self-play.
+ *
+ *  - Memory-map (FileChannel.map): không đọc file vào heap, OS tự nạp trang khi cần
+ *  - Song song theo ranh giới ván: file chia thành các đoạn, mỗi đoạn xử lý các ván BẮT ĐẦU trong đoạn đó
+ *    (ván vắt qua ranh giới đoạn được đọc tiếp trong phần map dư OVERLAP)
+ *  - Tokenizer zero-copy: tag / SAN đọc thẳng từ byte đã map; tag đưa cho Visitor dưới dạng Slice
+ *    (CharSequence trỏ vào buffer, chỉ hợp lệ trong lúc gọi) → không tạo String nếu Visitor không cần
+ *  - SAN → nước đi: lọc nước giả hợp lệ (MoveGenerator.generatePseudo, mảng int dùng lại) theo ô đích / loại quân,
+ *    chỉ kiểm tra an toàn vua cho ứng viên khớp; đi bằng MoveExecutor trên Board riêng của từng luồng
+ *  - Bỏ qua chú thích {..} / ; , biến thể (..) lồng nhau, NAG $n, số thứ tự nước
+ *
+ * Ván lỗi (SAN không khớp, phong cấp khác Hậu — engine chỉ phong Hậu) dừng tại nước lỗi, báo qua endGame(error).
+ *
+ * Chạy: java com.example.chessgame.tools.PgnReader games.pgn --threads 8
+ */
+public class PgnReader {
+
+    /** Nhận sự kiện của từng ván. Mỗi đoạn file có Visitor riêng → không cần đồng bộ. */
+    public interface Visitor {
+        default void startGame() {}
+
+        /** name / value trỏ thẳng vào file đã map, chỉ hợp lệ trong lúc gọi (toString() nếu cần giữ). */
+        default void tag(CharSequence name, CharSequence value) {}
+
+        /**
+         * Nước thứ ply (0-based) của ván, đi từ vị trí có key positionKey (Zobrist.positionKey trước nước đi).
+         * @param move Move.encode
+         */
+        default void move(int ply, int move, long positionKey) {}
+
+        /**
+         * @param result "1-0" / "0-1" / "1/2-1/2" / "*", null nếu ván không có token kết quả
+         * @param error  null nếu đọc hết ván không lỗi
+         */
+        default void endGame(CharSequence result, int plies, String error) {}
+    }
+
+    private static final int MIN_SEGMENT = 1 << 20;          // 1 MB
+    private static final int MAX_SEGMENT = 256 << 20;        // 256 MB (buffer map tối đa 2 GB)
+    private static final int OVERLAP = 8 << 20;              // phần map dư cho ván vắt qua ranh giới
+    private static final int LOOK_BEHIND = 4096;             // map lùi để nhận diện đầu ván ở đầu đoạn
+    private static final Piece.Type[] TYPES = Piece.Type.values();
+
+    private PgnReader() {}
+
+    /**
+     * Đọc song song toàn bộ file.
+     * @param factory tạo 1 Visitor cho mỗi đoạn
+     * @return các Visitor theo thứ tự đoạn trong file (caller tự gộp kết quả)
+     */
+    public static <V extends Visitor> List<V> read(Path file, int threads, Supplier<V> factory)
+            throws IOException, InterruptedException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long segment = Math.max(MIN_SEGMENT, Math.min(MAX_SEGMENT, size / (threads * 4L) + 1));
+            int segments = (int) Math.max(1, (size + segment - 1) / segment);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<V>> futures = new ArrayList<>();
+                for (int k = 0; k < segments; k++) {
+                    final long start = k * segment, end = Math.min(size, start + segment);
+                    futures.add(pool.submit(() -> {
+                        V visitor = factory.get();
+                        long mapStart = Math.max(0, start - LOOK_BEHIND);
+                        long mapEnd = Math.min(size, end + OVERLAP);
+                        ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+                        new Parser(buf, (int) (start - mapStart), (int) (end - mapStart), start == 0, visitor).run();
+                        return visitor;
+                    }));
+                }
+                List<V> result = new ArrayList<>(segments);
+                for (Future<V> f : futures) result.add(f.get());
+                return result;
+            } catch (ExecutionException e) {
+                throw new IOException("Lỗi đọc PGN: " + e.getCause(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /** CharSequence trỏ vào một đoạn byte ASCII của buffer (không sao chép). */
+    static final class Slice implements CharSequence {
+        private ByteBuffer buf;
+        private int start, end;
+
+        Slice set(ByteBuffer buf, int start, int end) {
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override public int length() { return end - start; }
+        @Override public char charAt(int i) { return (char) (buf.get(start + i) & 0xFF); }
+        @Override public CharSequence subSequence(int s, int e) { return new Slice().set(buf, start + s, start + e); }
+
+        boolean is(String s) {
+            if (s.length() != length()) return false;
+            for (int i = 0; i < s.length(); i++) if (charAt(i) != s.charAt(i)) return false;
+            return true;
+        }
+
+        /** Giải mã UTF-8 (giá trị tag có thể chứa tên có dấu). */
+        @Override public String toString() {
+            byte[] b = new byte[end - start];
+            for (int i = 0; i < b.length; i++) b[i] = buf.get(start + i);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+
+    // ===============================================================
+    // 🔎 Bộ đọc một đoạn
+    // ===============================================================
+    static final class Parser {
+        private final ByteBuffer buf;
+        private final int limit;        // hết phần đã map
+        private final int begin, end;   // đoạn sở hữu: ván bắt đầu trong [begin, end)
+        private final boolean fileStart;
+        private final Visitor visitor;
+
+        private final Board board = new Board();
+        private final MoveValidator validator = new MoveValidator(board);
+        private final MoveExecutor executor = new MoveExecutor(board, validator);
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final Slice name = new Slice(), value = new Slice(), result = new Slice();
+
+        private int pos;
+        private boolean white;
+        private int ply;
+        private String error;
+
+        Parser(ByteBuffer buf, int begin, int end, boolean fileStart, Visitor visitor) {
+            this.buf = buf;
+            this.limit = buf.limit();
+            this.begin = begin;
+            this.end = end;
+            this.fileStart = fileStart;
+            this.visitor = visitor;
+        }
+
+        void run() {
+            pos = fileStart ? 0 : nextGameStart(begin);
+            while (pos < limit && pos < end) {
+                int start = pos;
+                parseGame();
+                if (pos <= start) pos = start + 1;          // phòng hờ: luôn tiến
+                if (pos < limit && !isGameStart(pos)) pos = nextGameStart(pos);
+            }
+        }
+
+        private int b(int i) {
+            return buf.get(i) & 0xFF;
+        }
+
+        /** Đầu ván: '[' ở đầu dòng mà dòng không trống trước đó không phải tag (hoặc đầu file). */
+        private boolean isGameStart(int p) {
+            if (b(p) != '[') return false;
+            if (p == 0) return fileStart;
+            if (b(p - 1) != '\n') return false;
+            int q = p - 1;
+            while (q >= 0 && isSpace(b(q))) q--;
+            if (q < 0) return true;                                     // trước đó chỉ có khoảng trắng
+            while (q > 0 && b(q - 1) != '\n') q--;
+            return b(q) != '[';
+        }
+
+        private int nextGameStart(int p) {
+            for (; p < limit; p++) {
+                if (b(p) == '[' && isGameStart(p)) return p;
+            }
+            return limit;
+        }
+
+        private static boolean isSpace(int c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+        }
+
+        private void skipSpaces() {
+            while (pos < limit && isSpace(b(pos))) pos++;
+        }
+
+        // ----- Một ván -----
+        private void parseGame() {
+            visitor.startGame();
+            executor.clear();
+            board.setupBoard();
+            validator.setEnPassantIndex(-1);
+            white = true;
+            ply = 0;
+            error = null;
+
+            // 1️⃣ Tag
+            while (true) {
+                skipSpaces();
+                if (pos >= limit || b(pos) != '[') break;
+                parseTag();
+            }
+
+            // 2️⃣ Movetext
+            while (true) {
+                skipSpaces();
+                if (pos >= limit) break;
+                int c = b(pos);
+                if (c == '[' && pos > 0 && b(pos - 1) == '\n') break;              // ván kế tiếp (thiếu kết quả)
+                if (c == '{') { skipPast('}'); continue; }
+                if (c == ';' || (c == '%' && pos > 0 && b(pos - 1) == '\n')) { skipPast('\n'); continue; }
+                if (c == '(') { skipVariation(); continue; }
+                if (c == '$') { pos++; while (pos < limit && isDigit(b(pos))) pos++; continue; }
+
+                int s = pos;
+                while (pos < limit && !isSpace(b(pos)) && "{}();[".indexOf(b(pos)) < 0) pos++;
+                if (isResult(s, pos)) {
+                    visitor.endGame(result.set(buf, s, pos), ply, error);
+                    return;
+                }
+                // Bỏ số thứ tự nước ("12." / "12..." / dính liền "12.e4")
+                int t = s;
+                while (t < pos && isDigit(b(t))) t++;
+                if (t > s && t < pos && b(t) == '.') {
+                    while (t < pos && b(t) == '.') t++;
+                    s = t;
+                } else if (t > s && t == pos) {
+                    continue;                                           // số trơn
+                }
+                if (s < pos && error == null) playSan(s, pos);
+            }
+            visitor.endGame(null, ply, error);
+        }
+
+        private void parseTag() {
+            pos++; // '['
+            skipSpaces();
+            int ns = pos;
+            while (pos < limit && !isSpace(b(pos)) && b(pos) != '"' && b(pos) != ']') pos++;
+            int ne = pos;
+            skipSpaces();
+            int vs = pos, ve = pos;
+            if (pos < limit && b(pos) == '"') {
+                vs = ++pos;
+                while (pos < limit && b(pos) != '"') pos += b(pos) == '\\' ? 2 : 1;
+                ve = Math.min(pos, limit);
+            }
+            skipPast(']');
+            name.set(buf, ns, ne);
+            value.set(buf, vs, ve);
+            if (name.is("FEN")) loadFen(value.toString());
+            visitor.tag(name, value);
+        }
+
+        private void loadFen(String fen) {
+            try {
+                Fen.Position p = Fen.parse(fen);
+                board.copyFrom(p.board);
+                validator.setEnPassantIndex(p.enPassantIndex);
+                white = p.whiteToMove;
+            } catch (IllegalArgumentException ex) {
+                error = "FEN không hợp lệ: " + fen;
+            }
+        }
+
+        private void skipPast(int ch) {
+            while (pos < limit && b(pos) != ch) pos++;
+            if (pos < limit) pos++;
+        }
+
+        private void skipVariation() {
+            int depth = 0;
+            while (pos < limit) {
+                int c = b(pos);
+                if (c == '{') { skipPast('}'); continue; }
+                pos++;
+                if (c == '(') depth++;
+                else if (c == ')' && --depth == 0) return;
+            }
+        }
+
+        private static boolean isDigit(int c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private boolean isResult(int s, int e) {
+            int n = e - s;
+            if (n == 1) return b(s) == '*';
+            if (n == 3) return (b(s) == '1' && b(s + 1) == '-' && b(s + 2) == '0')
+                    || (b(s) == '0' && b(s + 1) == '-' && b(s + 2) == '1');
+            return n == 7 && b(s) == '1' && b(s + 1) == '/' && b(s + 2) == '2' && b(s + 3) == '-';
+        }
+
+        // ----- SAN → nước hợp lệ -----
+        private void playSan(int s, int e) {
+            while (e > s && "+#!?".indexOf(b(e - 1)) >= 0) e--;
+            int m = resolve(s, e);
+            if (m == Move.NONE) {
+                error = "SAN không hợp lệ ở nửa nước " + (ply + 1) + ": " + new Slice().set(buf, s, e);
+                return;
+            }
+            visitor.move(ply, m, Zobrist.positionKey(board, validator.getEnPassantIndex(), white));
+            executor.make(m);
+            white = !white;
+            ply++;
+        }
+
+        private int resolve(int s, int e) {
+            // Chỉ sinh nước giả hợp lệ; kiểm tra "vua không bị chiếu" cho riêng các ứng viên khớp SAN
+            int n = MoveGenerator.generatePseudo(board, validator, white, moves, false);
+            int kingRow = white ? 7 : 0;
+
+            // Nhập thành: O-O / O-O-O (hoặc 0-0)
+            if (e - s >= 3 && (b(s) == 'O' || b(s) == '0')) {
+                boolean queenSide = e - s >= 5;
+                int target = Move.encode(kingRow, 4, kingRow, queenSide ? 2 : 6);
+                Piece king = board.getPiece(kingRow, 4);
+                if (king == null || king.getType() != Piece.Type.KING) return Move.NONE;
+                for (int i = 0; i < n; i++) {
+                    if (moves[i] == target) return isLegal(target) ? target : Move.NONE;
+                }
+                return Move.NONE;
+            }
+
+            // Phong cấp: "=Q" hoặc "Q" cuối (engine chỉ phong Hậu)
+            int last = b(e - 1);
+            if (e - s >= 3 && "QRBN".indexOf(last) >= 0 && (b(e - 2) == '=' || isDigit(b(e - 2)))) {
+                if (last != 'Q') return Move.NONE;
+                e -= b(e - 2) == '=' ? 2 : 1;
+            }
+            if (e - s < 2) return Move.NONE;
+            int file = b(e - 2) - 'a', rank = b(e - 1) - '1';
+            if (file < 0 || file > 7 || rank < 0 || rank > 7) return Move.NONE;
+            int to = (7 - rank) * 8 + file;
+
+            Piece.Type type = Piece.Type.PAWN;
+            int i0 = s;
+            int t = "KQRBN".indexOf(b(s));
+            if (t >= 0) {
+                type = TYPES[t];
+                i0++;
+            }
+            int fromCol = -1, fromRow = -1;
+            for (int i = i0; i < e - 2; i++) {
+                int c = b(i);
+                if (c >= 'a' && c <= 'h') fromCol = c - 'a';
+                else if (c >= '1' && c <= '8') fromRow = 7 - (c - '1');
+            }
+
+            int found = Move.NONE;
+            for (int i = 0; i < n; i++) {
+                int m = moves[i];
+                if (Move.to(m) != to) continue;
+                if (fromCol >= 0 && Move.fromCol(m) != fromCol) continue;
+                if (fromRow >= 0 && Move.fromRow(m) != fromRow) continue;
+                Piece p = board.getPiece(Move.fromRow(m), Move.fromCol(m));
+                if (p == null || p.getType() != type || !isLegal(m)) continue;
+                if (found != Move.NONE) return Move.NONE;              // mơ hồ
+                found = m;
+            }
+            return found;
+        }
+
+        private boolean isLegal(int m) {
+            return validator.isValidMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m), white);
+        }
+    }
+
+    // ===============================================================
+    // 🖥️ Dòng lệnh: đếm ván / nước + tốc độ
+    // ===============================================================
+    static final class Counter implements Visitor {
+        long games, plies, errors, white, black, draws;
+
+        @Override public void endGame(CharSequence result, int n, String error) {
+            games++;
+            plies += n;
+            if (error != null) errors++;
+            if (result == null) return;
+            if (result.length() == 3) {
+                if (result.charAt(0) == '1') white++; else black++;
+            } else if (result.length() == 7) {
+                draws++;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String file = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads")) threads = Integer.parseInt(args[++i]);
+            else if (args[i].startsWith("--")) throw new IllegalArgumentException("Tham số không hợp lệ: " + args[i]);
+            else file = args[i];
+        }
+        if (file == null) throw new IllegalArgumentException("Thiếu file PGN");
+
+        Path path = Paths.get(file);
+        long t0 = System.nanoTime();
+        List<Counter> parts = read(path, threads, Counter::new);
+        long ms = Math.max(1, (System.nanoTime() - t0) / 1_000_000L);
+
+        Counter total = new Counter();
+        for (Counter c : parts) {
+            total.games += c.games;
+            total.plies += c.plies;
+            total.errors += c.errors;
+            total.white += c.white;
+            total.black += c.black;
+            total.draws += c.draws;
+        }
+        long bytes = Files.size(path);
+        System.out.printf(Locale.US, "Ván: %d (lỗi %d)   1-0: %d  0-1: %d  1/2: %d%n",
+                total.games, total.errors, total.white, total.black, total.draws);
+        System.out.printf(Locale.US, "Nửa nước: %d trong %.2f s → %d nước/s, %.1f MB/s (%d luồng, %d đoạn)%n",
+                total.plies, ms / 1000.0, total.plies * 1000 / ms, bytes / 1e6 / (ms / 1000.0), threads, parts.size());
+    }
+}
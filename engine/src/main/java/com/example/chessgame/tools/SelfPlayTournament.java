@@ -0,0 +1,272 @@
+package com.example.chessgame.tools;
+
+import com.example.chessgame.logic.EngineCalibration;
+import com.example.chessgame.logic.GameManager;
+import com.example.chessgame.logic.LegalMoves;
+import com.example.chessgame.logic.SearchEngine;
+import com.example.chessgame.logic.TimeManager;
+import com.example.chessgame.model.Move;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SelfPlayTournament.java
+ * ------------------------
+ * Harness chạy headless (JVM, không cần Android) hàng nghìn ván AI vs AI giữa 2 cấu hình engine
+ * để đo cùng lúc SỨC MẠNH (Elo / SPRT) và TỐC ĐỘ (node/giây) trước khi đưa thay đổi vào app.
+ *
+ *  - Song song trên mọi nhân: mỗi ván có GameManager riêng, mỗi luồng có SearchEngine riêng cho A và B
+ *    (TT không thread-safe) → không có trạng thái chia sẻ ngoài bộ đếm kết quả.
+ *  - Khai cuộc ngẫu nhiên: vài nửa nước hợp lệ ngẫu nhiên (theo seed), mỗi khai cuộc đánh 2 ván
+ *    đổi màu để triệt tiêu lợi thế khai cuộc.
+ *  - Phân xử (adjudication) để ván không kéo dài vô ích:
+ *      lặp 3 lần / 50 nước → hòa (GameManager tự xử);
+ *      điểm ≥ RESIGN_CP liên tục RESIGN_PLIES nửa nước → xử thắng;
+ *      sau DRAW_MIN_PLY, |điểm| ≤ DRAW_CP liên tục DRAW_PLIES nửa nước → xử hòa;
+ *      quá maxPlies → hòa.
+ *  - SPRT: dừng sớm khi đã đủ bằng chứng (MatchStats).
+ *
+ * Chạy: java com.example.chessgame.tools.SelfPlayTournament --a "name=new,nodes=20000" --b "name=base,nodes=20000"
+ *   --games N (mặc định 2000)   --threads T (mặc định số nhân)   --opening-plies P (mặc định 8)
+ *   --max-plies M (400)   --seed S   --nps N (cho level=)   --elo0 0 --elo1 5 --alpha 0.05 --beta 0.05
+ *   --no-sprt-stop (đánh đủ số ván kể cả khi SPRT đã kết luận)
+ */
+public class SelfPlayTournament {
+
+    // Ngưỡng phân xử (điểm theo góc nhìn Trắng, centipawn)
+    private static final int RESIGN_CP = 800;
+    private static final int RESIGN_PLIES = 6;
+    private static final int DRAW_CP = 10;
+    private static final int DRAW_PLIES = 12;
+    private static final int DRAW_MIN_PLY = 80;
+
+    // Lý do kết thúc (thống kê cuối giải)
+    static final String END_RULES = "luật (chiếu hết / hết cờ / mất vua)";
+    static final String END_REPETITION = "lặp 3 lần";
+    static final String END_FIFTY = "50 nước";
+    static final String END_RESIGN = "xử thắng theo điểm";
+    static final String END_DRAW_SCORE = "xử hòa theo điểm";
+    static final String END_MAX_PLIES = "quá số nước";
+
+    private final EngineConfig a, b;
+    private final int openingPlies;
+    private final int maxPlies;
+    private final long seed;
+    private final MatchStats stats;
+    private final Map<String, Integer> endReasons = new HashMap<>();
+
+    // Tốc độ tìm kiếm theo từng engine (cộng dồn mọi luồng)
+    private final AtomicLong nodesA = new AtomicLong(), nanosA = new AtomicLong();
+    private final AtomicLong nodesB = new AtomicLong(), nanosB = new AtomicLong();
+    private final AtomicLong totalPlies = new AtomicLong();
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    /** Engine của luồng hiện tại: [0] = A, [1] = B. */
+    private final ThreadLocal<SearchEngine[]> engines;
+
+    public SelfPlayTournament(EngineConfig a, EngineConfig b, int openingPlies, int maxPlies,
+                              long seed, MatchStats stats) {
+        this.a = a;
+        this.b = b;
+        this.openingPlies = openingPlies;
+        this.maxPlies = maxPlies;
+        this.seed = seed;
+        this.stats = stats;
+        this.engines = ThreadLocal.withInitial(() -> new SearchEngine[]{newEngine(a), newEngine(b)});
+    }
+
+    private static SearchEngine newEngine(EngineConfig cfg) {
+        SearchEngine se = new SearchEngine(16); // 1 MB / engine / luồng
+        se.setEvaluator(cfg.newEvaluator());
+        return se;
+    }
+
+    /** Kết quả một ván. */
+    static class GameResult {
+        final double scoreWhite;  // 1 / 0.5 / 0
+        final String reason;
+        final int plies;
+
+        GameResult(double scoreWhite, String reason, int plies) {
+            this.scoreWhite = scoreWhite;
+            this.reason = reason;
+            this.plies = plies;
+        }
+    }
+
+    // ===============================================================
+    // 🏁 Chạy giải
+    // ===============================================================
+    public void run(int games, int threads, boolean stopOnSprt) throws InterruptedException {
+        System.out.println("A: " + a);
+        System.out.println("B: " + b);
+        System.out.println("Games: " + games + ", threads: " + threads + ", opening plies: " + openingPlies
+                + ", seed: " + seed);
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int pairs = (games + 1) / 2;
+        for (int i = 0; i < pairs; i++) {
+            final int pair = i;
+            pool.execute(() -> playPair(pair, stopOnSprt));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        long wallMs = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+
+        System.out.println();
+        System.out.println(stats.summary());
+        System.out.println("Kết thúc: " + endReasons);
+        System.out.println(speedLine(a.name, nodesA.get(), nanosA.get()));
+        System.out.println(speedLine(b.name, nodesB.get(), nanosB.get()));
+        long nodes = nodesA.get() + nodesB.get();
+        System.out.printf(Locale.US, "Tổng: %d node, %d nửa nước trong %.1f s → %d node/s toàn máy (%d luồng)%n",
+                nodes, totalPlies.get(), wallMs / 1000.0, nodes * 1000 / wallMs, threads);
+    }
+
+    private static String speedLine(String name, long nodes, long nanos) {
+        long nps = nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        return String.format(Locale.US, "%s: %d node/s mỗi luồng (%d node)", name, nps, nodes);
+    }
+
+    /** Một khai cuộc, 2 ván đổi màu. */
+    private void playPair(int pair, boolean stopOnSprt) {
+        if (stop.get()) return;
+        int[] opening = randomOpening(new Random(seed * 31 + pair));
+        for (int game = 0; game < 2 && !stop.get(); game++) {
+            boolean aIsWhite = game == 0;
+            GameResult r = playGame(opening, aIsWhite, seed ^ ((long) pair << 1 | game));
+            double scoreA = aIsWhite ? r.scoreWhite : 1 - r.scoreWhite;
+            synchronized (stats) {
+                stats.add(scoreA);
+                endReasons.merge(r.reason, 1, Integer::sum);
+                int n = stats.games();
+                if (n % 50 == 0) System.out.println(stats.summary());
+                if (stopOnSprt && stats.sprtState() != MatchStats.SPRT_CONTINUE) stop.set(true);
+            }
+        }
+    }
+
+    /** Các nửa nước hợp lệ ngẫu nhiên từ thế ban đầu; tránh khai cuộc đã kết thúc ván. */
+    private int[] randomOpening(Random rnd) {
+        while (true) {
+            GameManager gm = new GameManager();
+            int[] line = new int[openingPlies];
+            int n = 0;
+            while (n < openingPlies && !gm.isGameOver()) {
+                LegalMoves legal = gm.getLegalMoves();
+                if (legal.isEmpty()) break;
+                int m = legal.get(rnd.nextInt(legal.size()));
+                gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+                line[n++] = m;
+            }
+            if (n == openingPlies && !gm.isGameOver()) return line;
+        }
+    }
+
+    // ===============================================================
+    // ♟️ Một ván: A và B luân phiên tìm nước trên GameManager riêng của ván
+    // ===============================================================
+    GameResult playGame(int[] opening, boolean aIsWhite, long gameSeed) {
+        GameManager gm = new GameManager();
+        for (int m : opening) gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+
+        SearchEngine[] se = engines.get();
+        se[0].clearHash();
+        se[1].clearHash();
+
+        int resignStreak = 0, drawStreak = 0;
+        int ply = opening.length;
+
+        while (!gm.isGameOver()) {
+            if (ply >= maxPlies) return new GameResult(0.5, END_MAX_PLIES, ply);
+
+            boolean white = gm.isWhiteTurn();
+            boolean isA = white == aIsWhite;
+            EngineConfig cfg = isA ? a : b;
+            SearchEngine engine = se[isA ? 0 : 1];
+
+            engine.setPosition(gm);
+            engine.setBudget(cfg.budget, gameSeed * 0x9E3779B97F4A7C15L + ply);
+            TimeManager tm = cfg.moveTimeMs > 0 ? new TimeManager(cfg.moveTimeMs, cfg.moveTimeMs) : null;
+            long t0 = System.nanoTime();
+            List<SearchEngine.Line> lines = engine.analyze(cfg.budget.maxDepth, 1, tm);
+            long dt = System.nanoTime() - t0;
+            (isA ? nodesA : nodesB).addAndGet(engine.getNodes());
+            (isA ? nanosA : nanosB).addAndGet(dt);
+            totalPlies.incrementAndGet();
+
+            // GameManager đã phát hiện chiếu hết / hết cờ sau nước trước → không xảy ra, phòng hờ
+            if (lines.isEmpty()) return new GameResult(0.5, END_RULES, ply);
+
+            SearchEngine.Line best = lines.get(0);
+            int m = best.move;
+            if (!gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m))) {
+                throw new IllegalStateException("Engine " + cfg.name + " trả nước không hợp lệ: " + Move.toUci(m));
+            }
+            ply++;
+            if (gm.isGameOver()) break;
+
+            // Phân xử theo điểm (quy về góc nhìn Trắng)
+            int scoreWhite = white ? best.score : -best.score;
+            if (Math.abs(scoreWhite) >= RESIGN_CP) {
+                resignStreak = resignStreak != 0 && Integer.signum(resignStreak) == Integer.signum(scoreWhite)
+                        ? resignStreak + Integer.signum(scoreWhite) : Integer.signum(scoreWhite);
+            } else {
+                resignStreak = 0;
+            }
+            if (Math.abs(resignStreak) >= RESIGN_PLIES) {
+                return new GameResult(resignStreak > 0 ? 1 : 0, END_RESIGN, ply);
+            }
+            drawStreak = ply >= DRAW_MIN_PLY && Math.abs(scoreWhite) <= DRAW_CP ? drawStreak + 1 : 0;
+            if (drawStreak >= DRAW_PLIES) return new GameResult(0.5, END_DRAW_SCORE, ply);
+        }
+
+        String winner = gm.getWinner();
+        double scoreWhite = "Trắng".equals(winner) ? 1 : "Đen".equals(winner) ? 0 : 0.5;
+        String reason = gm.getRepetitionCount() >= 2 ? END_REPETITION
+                : gm.getHalfmoveClock() >= 100 ? END_FIFTY : END_RULES;
+        return new GameResult(scoreWhite, reason, ply);
+    }
+
+    // ===============================================================
+    // 🖥️ Dòng lệnh
+    // ===============================================================
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opt = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Tham số không hợp lệ: " + args[i]);
+            String key = args[i].substring(2);
+            if (key.equals("no-sprt-stop")) opt.put(key, "true");
+            else if (i + 1 < args.length) opt.put(key, args[++i]);
+            else throw new IllegalArgumentException("Thiếu giá trị cho --" + key);
+        }
+
+        long nps = Long.parseLong(opt.getOrDefault("nps", String.valueOf(EngineCalibration.DEFAULT_NPS)));
+        EngineConfig a = EngineConfig.parse(opt.getOrDefault("a", "nodes=20000"), "A", nps);
+        EngineConfig b = EngineConfig.parse(opt.getOrDefault("b", "nodes=20000"), "B", nps);
+        MatchStats stats = new MatchStats(
+                Double.parseDouble(opt.getOrDefault("elo0", "0")),
+                Double.parseDouble(opt.getOrDefault("elo1", "5")),
+                Double.parseDouble(opt.getOrDefault("alpha", "0.05")),
+                Double.parseDouble(opt.getOrDefault("beta", "0.05")));
+
+        SelfPlayTournament t = new SelfPlayTournament(a, b,
+                Integer.parseInt(opt.getOrDefault("opening-plies", "8")),
+                Integer.parseInt(opt.getOrDefault("max-plies", "400")),
+                Long.parseLong(opt.getOrDefault("seed", String.valueOf(System.nanoTime()))),
+                stats);
+        t.run(Integer.parseInt(opt.getOrDefault("games", "2000")),
+                Integer.parseInt(opt.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                !opt.containsKey("no-sprt-stop"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * GameJournalTest.java
+ * ---------------------
+ * Nhật ký tự lưu: nước + undo, đuôi ghi dở / byte rác (mất điện giữa lúc ghi), đồng hồ, nén lại file.
+ */
+public class GameJournalTest {
+    private static final GameJournal.Header HEADER =
+            new GameJournal.Header("Đấu máy", 2, 300_000, 2_000, null);
+    private static final int E2E4 = Move.encode(6, 4, 4, 4);
+    private static final int E7E5 = Move.encode(1, 4, 3, 4);
+    private static final int G1F3 = Move.encode(7, 6, 5, 5);
+    private static final int B8C6 = Move.encode(0, 1, 2, 2);
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void movesAndUndos() throws IOException {
+        File file = tmp.newFile();
+        try (GameJournal j = GameJournal.create(file, HEADER, new int[]{E2E4})) {
+            j.append(E7E5);
+            j.append(G1F3);
+            j.undo();
+            j.undo();
+            j.append(E7E5);
+            j.append(G1F3);
+            j.append(B8C6);
+        }
+
+        GameJournal.Saved saved = GameJournal.read(file);
+        assertArrayEquals(new int[]{E2E4, E7E5, G1F3, B8C6}, saved.moves);
+        assertFalse(saved.truncated);
+        assertEquals(HEADER.mode, saved.header.mode);
+        assertEquals(HEADER.aiLevel, saved.header.aiLevel);
+        assertEquals(HEADER.baseMs, saved.header.baseMs);
+        assertNull(saved.header.startFen);
+        assertEquals(-1, saved.whiteMs);
+    }
+
+    @Test
+    public void tornTailIsIgnored() throws IOException {
+        File file = tmp.newFile();
+        try (GameJournal j = GameJournal.create(file, HEADER, new int[0])) {
+            j.append(E2E4);
+            j.append(E7E5);
+            j.append(G1F3);
+        }
+        // Bản ghi cuối chỉ ghi được 2/3 byte
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+
+        GameJournal.Saved saved = GameJournal.read(file);
+        assertArrayEquals(new int[]{E2E4, E7E5}, saved.moves);
+        assertTrue(saved.truncated);
+    }
+
+    @Test
+    public void garbageTailIsIgnored() throws IOException {
+        File file = tmp.newFile();
+        try (GameJournal j = GameJournal.create(file, HEADER, new int[]{E2E4, E7E5})) {
+            j.undo();
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[]{0x12, 0x34, 0x56, 0x78, (byte) 0x9A, (byte) 0xBC});
+        }
+
+        GameJournal.Saved saved = GameJournal.read(file);
+        assertArrayEquals(new int[]{E2E4}, saved.moves);
+        assertTrue(saved.truncated);
+    }
+
+    @Test
+    public void lastClockWinsAndTornClockFallsBack() throws IOException {
+        File file = tmp.newFile();
+        try (GameJournal j = GameJournal.create(file, HEADER, new int[0])) {
+            j.append(E2E4);
+            j.clock(295_000, 300_000);
+            j.append(E7E5);
+            j.clock(295_000, 3_600_000_123L);
+        }
+        GameJournal.Saved saved = GameJournal.read(file);
+        assertEquals(295_000, saved.whiteMs);
+        assertEquals(3_600_000_123L, saved.blackMs);
+
+        // Bản ghi CLOCK cuối bị cắt giữa chừng → dùng đồng hồ trước đó, nước đi giữ nguyên
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        saved = GameJournal.read(file);
+        assertArrayEquals(new int[]{E2E4, E7E5}, saved.moves);
+        assertEquals(295_000, saved.whiteMs);
+        assertEquals(300_000, saved.blackMs);
+        assertTrue(saved.truncated);
+    }
+
+    @Test
+    public void manyUndosCompactTheFile() throws IOException {
+        File file = tmp.newFile();
+        try (GameJournal j = GameJournal.create(file, HEADER, new int[]{E2E4})) {
+            j.clock(1_000, 2_000);
+            for (int i = 0; i < 200; i++) {
+                j.append(E7E5);
+                j.undo();
+            }
+            assertEquals(1, j.ply());
+        }
+        // Sau nén: header + 1 nước + 1 bản ghi CLOCK (5 bản ghi), không còn 400 bản ghi cũ
+        GameJournal.Saved saved = GameJournal.read(file);
+        assertArrayEquals(new int[]{E2E4}, saved.moves);
+        assertTrue(saved.records < 2 * 1 + 64 + 5);
+        assertEquals(1_000, saved.whiteMs);
+        assertEquals(2_000, saved.blackMs);
+        assertFalse(saved.truncated);
+    }
+
+    @Test
+    public void missingOrForeignFile() throws IOException {
+        assertNull(GameJournal.read(new File(tmp.getRoot(), "none.journal")));
+
+        File foreign = tmp.newFile();
+        try (FileOutputStream out = new FileOutputStream(foreign)) {
+            out.write("not a journal".getBytes("UTF-8"));
+        }
+        assertNull(GameJournal.read(foreign));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * MoveCodecTest.java
+ * -------------------
+ * Mã hóa / giải mã trên các ván ngẫu nhiên hợp lệ (thế chuẩn + FEN bắt đầu khác),
+ * và chuỗi key vị trí của Decoder.game() phải trùng với ván gốc (chỉ mục GamePositions dựa vào đó).
+ */
+public class MoveCodecTest {
+    private static final String[] START_FENS = {
+            null,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1",
+    };
+
+    @Test
+    public void randomGamesRoundTrip() {
+        Random rnd = new Random(7);
+        for (int g = 0; g < 150; g++) {
+            GameManager gm = randomGame(rnd, START_FENS[g % START_FENS.length], rnd.nextInt(160));
+            int[] moves = movesOf(gm);
+
+            byte[] blob = MoveCodec.encode(gm);
+            assertArrayEquals("ván " + g, moves, MoveCodec.decode(blob, gm.getStartFen()));
+            assertArrayEquals("ván " + g, blob, MoveCodec.encode(moves, gm.getStartFen()));
+        }
+    }
+
+    @Test
+    public void decoderReplaysPositionKeys() {
+        Random rnd = new Random(11);
+        for (int g = 0; g < 60; g++) {
+            GameManager gm = randomGame(rnd, START_FENS[g % START_FENS.length], 40 + rnd.nextInt(120));
+            long[] expected = gm.getPositionKeys();
+
+            MoveCodec.Decoder d = new MoveCodec.Decoder(MoveCodec.encode(gm), gm.getStartFen());
+            assertEquals(expected.length - 1, d.length());
+            assertEquals(expected[0], d.game().getPositionKey());
+            for (int ply = 1; d.hasNext(); ply++) {
+                d.next();
+                assertEquals("ván " + g + " ply " + ply, expected[ply], d.game().getPositionKey());
+            }
+            assertEquals(gm.toFen(), d.game().toFen());
+        }
+    }
+
+    @Test
+    public void emptyGame() {
+        byte[] blob = MoveCodec.encode(new int[0], null);
+        assertEquals(0, MoveCodec.decode(blob, null).length);
+        assertFalse(new MoveCodec.Decoder(blob, null).hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalMoveRejected() {
+        MoveCodec.encode(new int[]{Move.encode(6, 4, 3, 4)}, null);   // e2e5
+    }
+
+    private static GameManager randomGame(Random rnd, String fen, int plies) {
+        GameManager gm = new GameManager();
+        if (fen != null) gm.loadFen(fen);
+        for (int i = 0; i < plies && !gm.isGameOver(); i++) {
+            LegalMoves legal = gm.getLegalMoves();
+            int m = legal.get(rnd.nextInt(legal.size()));
+            gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+        }
+        return gm;
+    }
+
+    private static int[] movesOf(GameManager gm) {
+        MoveLog log = gm.getMoveLog();
+        int[] moves = new int[log.ply()];
+        for (int i = 0; i < moves.length; i++) moves[i] = MoveLog.moveOf(log.get(i));
+        return moves;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * NnueEvaluatorTest.java
+ * -----------------------
+ * Accumulator cập nhật tăng dần (Board.PieceListener) phải trùng từng phần tử với bản tính lại
+ * từ đầu (onBoardReset trên bản sao bàn cờ) sau mọi chuỗi make / unmake: MoveExecutor trực tiếp,
+ * GameManager.tryMove / undo (kèm các lần MoveValidator giả lập nước), và sau một lần tìm kiếm.
+ * Mạng ngẫu nhiên nhỏ, trọng số đủ lớn để int16 tràn quay vòng cũng được kiểm.
+ */
+public class NnueEvaluatorTest {
+    private static final String[] FENS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "4k3/1P6/8/8/8/8/6p1/4K3 b - - 0 1",
+    };
+
+    @Test
+    public void makeUnmakeMatchesRefresh() {
+        Random rnd = new Random(3);
+        NnueNetwork net = randomNetwork(rnd, 40);
+        int[] moves = new int[256];
+        for (String fen : FENS) {
+            Fen.Position pos = Fen.parse(fen);
+            Board board = pos.board;
+            MoveValidator validator = new MoveValidator(board);
+            validator.setEnPassantIndex(pos.enPassantIndex);
+            MoveExecutor executor = new MoveExecutor(board, validator);
+            NnueEvaluator inc = new NnueEvaluator(net);
+            inc.attach(board);
+
+            int[] stack = new int[64];
+            int depth = 0;
+            boolean white = pos.whiteToMove;
+            for (int step = 0; step < 400; step++) {
+                int n = MoveGenerator.generateLegal(board, validator, white, moves);
+                if (depth > 0 && (n == 0 || depth == stack.length || rnd.nextInt(3) == 0)) {
+                    executor.unmake(stack[--depth]);
+                } else if (n > 0) {
+                    stack[depth++] = moves[rnd.nextInt(n)];
+                    executor.make(stack[depth - 1]);
+                } else {
+                    break;
+                }
+                white = !white;
+                assertMatchesRefresh(fen + " bước " + step, net, inc, board);
+            }
+            while (depth > 0) executor.unmake(stack[--depth]);
+            assertMatchesRefresh(fen + " về gốc", net, inc, board);
+        }
+    }
+
+    @Test
+    public void gameManagerMoveUndoMatchesRefresh() {
+        Random rnd = new Random(5);
+        NnueNetwork net = randomNetwork(rnd, 24);
+        for (String fen : FENS) {
+            GameManager gm = new GameManager();
+            gm.loadFen(fen);
+            NnueEvaluator inc = new NnueEvaluator(net);
+            inc.attach(gm.getBoard());
+
+            for (int step = 0; step < 200; step++) {
+                if (gm.getMoveLog().ply() > 0 && (gm.isGameOver() || rnd.nextInt(4) == 0)) {
+                    gm.undo();
+                } else if (!gm.isGameOver()) {
+                    LegalMoves legal = gm.getLegalMoves();
+                    int m = legal.get(rnd.nextInt(legal.size()));
+                    gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+                } else {
+                    break;
+                }
+                assertMatchesRefresh(fen + " bước " + step, net, inc, gm.getBoard());
+            }
+        }
+    }
+
+    @Test
+    public void searchLeavesAccumulatorAtRoot() {
+        Random rnd = new Random(9);
+        NnueNetwork net = randomNetwork(rnd, 32);
+        SearchEngine engine = new SearchEngine(16);
+        NnueEvaluator inc = new NnueEvaluator(net);
+        engine.setEvaluator(inc);
+        for (String fen : FENS) {
+            GameManager gm = new GameManager();
+            gm.loadFen(fen);
+            engine.clearHash();
+            engine.setPosition(gm);
+            engine.analyze(4, 1);
+
+            NnueEvaluator fresh = new NnueEvaluator(net);
+            fresh.attach(gm.getBoard().copy());
+            assertArrayEquals(fen, fresh.accumulator(true), inc.accumulator(true));
+            assertArrayEquals(fen, fresh.accumulator(false), inc.accumulator(false));
+        }
+    }
+
+    private static void assertMatchesRefresh(String msg, NnueNetwork net, NnueEvaluator inc, Board board) {
+        NnueEvaluator fresh = new NnueEvaluator(net);
+        fresh.attach(board.copy());
+        assertArrayEquals(msg, fresh.accumulator(true), inc.accumulator(true));
+        assertArrayEquals(msg, fresh.accumulator(false), inc.accumulator(false));
+    }
+
+    /** Mạng ngẫu nhiên: trọng số feature cả dải int16 → tổng tràn quay vòng như trên máy thật. */
+    static NnueNetwork randomNetwork(Random rnd, int hidden) {
+        short[] fw = new short[NnueNetwork.INPUTS * hidden];
+        for (int i = 0; i < fw.length; i++) fw[i] = (short) rnd.nextInt();
+        short[] fb = new short[hidden];
+        for (int i = 0; i < hidden; i++) fb[i] = (short) rnd.nextInt();
+        byte[] ow = new byte[2 * hidden];
+        rnd.nextBytes(ow);
+        return new NnueNetwork(hidden, 400, fw, fb, ow, rnd.nextInt(1 << 16));
+    }
+}
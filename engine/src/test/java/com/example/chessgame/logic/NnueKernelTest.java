@@ -0,0 +1,69 @@
+package com.example.chessgame.logic;
+
+import com.example.chessgame.model.Move;
+import com.example.chessgame.model.Piece;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * NnueKernelTest.java
+ * --------------------
+ * NnueVectorKernel (nạp bằng reflection qua NnueKernel.load) phải cho kết quả giống hệt ScalarKernel
+ * từng bit: add / sub / forward trên accumulator dựng từ các vị trí ngẫu nhiên, với nhiều độ rộng
+ * lớp ẩn (có đuôi lẻ không chia hết số làn SIMD). Bỏ qua khi JVM không có jdk.incubator.vector.
+ */
+public class NnueKernelTest {
+    private static final int[] HIDDEN_SIZES = {8, 40, 64, 257};
+
+    @Test
+    public void vectorKernelMatchesScalar() {
+        NnueKernel vector = NnueKernel.load();
+        assumeFalse("không có Vector API: " + vector, vector instanceof NnueEvaluator.ScalarKernel);
+        NnueKernel scalar = new NnueEvaluator.ScalarKernel();
+
+        Random rnd = new Random(17);
+        for (int hidden : HIDDEN_SIZES) {
+            NnueNetwork net = NnueEvaluatorTest.randomNetwork(rnd, hidden);
+            for (int g = 0; g < 30; g++) {
+                Board board = randomPosition(rnd).getBoard();
+                short[] accV = net.featureBias.clone(), accS = net.featureBias.clone();
+                for (int sq = 0; sq < 64; sq++) {
+                    Piece p = board.getPiece(sq / 8, sq % 8);
+                    if (p == null) continue;
+                    int base = ((p.code() - 1) * 64 + sq) * hidden;
+                    vector.add(accV, net.featureWeights, base, hidden);
+                    scalar.add(accS, net.featureWeights, base, hidden);
+                    if (rnd.nextInt(4) == 0) {
+                        // nhấc một quân ngẫu nhiên (hàng trọng số bất kỳ) để kiểm cả sub
+                        int other = rnd.nextInt(NnueNetwork.INPUTS) * hidden;
+                        vector.sub(accV, net.featureWeights, other, hidden);
+                        scalar.sub(accS, net.featureWeights, other, hidden);
+                    }
+                }
+                String msg = "hidden " + hidden + " vị trí " + g;
+                assertArrayEquals(msg, accS, accV);
+                assertEquals(msg, scalar.forward(accS, net.outputWeights, 0, hidden),
+                        vector.forward(accV, net.outputWeights, 0, hidden));
+                assertEquals(msg, scalar.forward(accS, net.outputWeights, hidden, hidden),
+                        vector.forward(accV, net.outputWeights, hidden, hidden));
+            }
+        }
+    }
+
+    private static GameManager randomPosition(Random rnd) {
+        GameManager gm = new GameManager();
+        int plies = rnd.nextInt(120);
+        for (int i = 0; i < plies && !gm.isGameOver(); i++) {
+            LegalMoves legal = gm.getLegalMoves();
+            int m = legal.get(rnd.nextInt(legal.size()));
+            gm.tryMove(Move.fromRow(m), Move.fromCol(m), Move.toRow(m), Move.toCol(m));
+        }
+        return gm;
+    }
+}
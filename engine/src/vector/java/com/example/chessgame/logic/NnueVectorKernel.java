@@ -0,0 +1,70 @@
+package com.example.chessgame.logic;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * NnueVectorKernel.java
+ * ----------------------
+ * NnueKernel bằng Vector API (jdk.incubator.vector, JDK 17+) cho công cụ desktop / UCI.
+ *  - Chỉ biên dịch trong source set "vector", không đóng gói vào jar engine mà app Android dùng
+ *  - Nạp qua NnueKernel.load() (reflection); JVM phải chạy với --add-modules jdk.incubator.vector
+ *  - Độ rộng theo SPECIES_PREFERRED của máy (SSE 128 / AVX2 256 / AVX-512 512 bit), đuôi lẻ chạy vòng thường
+ *  - forward: clamp int16 → nhân với trọng số int8 mở rộng lên int16 (|v·w| ≤ 255 · 128 < 2^15, không tràn)
+ *    → cộng dồn int32 (2 nửa làn) → kết quả giống hệt ScalarKernel
+ */
+final class NnueVectorKernel implements NnueKernel {
+    private static final VectorSpecies<Short> S = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> B =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(S.vectorBitSize() / 2));   // cùng số làn với S
+    private static final VectorSpecies<Integer> I = VectorSpecies.of(int.class, S.vectorShape());  // nửa số làn của S
+
+    @Override
+    public void add(short[] acc, short[] w, int base, int n) {
+        int j = 0;
+        for (int end = S.loopBound(n); j < end; j += S.length()) {
+            ShortVector.fromArray(S, acc, j).add(ShortVector.fromArray(S, w, base + j)).intoArray(acc, j);
+        }
+        for (; j < n; j++) acc[j] += w[base + j];
+    }
+
+    @Override
+    public void sub(short[] acc, short[] w, int base, int n) {
+        int j = 0;
+        for (int end = S.loopBound(n); j < end; j += S.length()) {
+            ShortVector.fromArray(S, acc, j).sub(ShortVector.fromArray(S, w, base + j)).intoArray(acc, j);
+        }
+        for (; j < n; j++) acc[j] -= w[base + j];
+    }
+
+    @Override
+    public int forward(short[] acc, byte[] weights, int offset, int n) {
+        ShortVector zero = ShortVector.zero(S);
+        ShortVector qa = ShortVector.broadcast(S, (short) NnueNetwork.QA);
+        IntVector sum = IntVector.zero(I);
+        int j = 0;
+        for (int end = S.loopBound(n); j < end; j += S.length()) {
+            ShortVector v = ShortVector.fromArray(S, acc, j).max(zero).min(qa);
+            ShortVector w = (ShortVector) ByteVector.fromArray(B, weights, offset + j)
+                    .convertShape(VectorOperators.B2S, S, 0);
+            ShortVector prod = v.mul(w);
+            sum = sum.add(prod.convertShape(VectorOperators.S2I, I, 0))
+                    .add(prod.convertShape(VectorOperators.S2I, I, 1));
+        }
+        int total = sum.reduceLanes(VectorOperators.ADD);
+        for (; j < n; j++) {
+            int v = Math.min(Math.max(acc[j], 0), NnueNetwork.QA);
+            total += v * weights[offset + j];
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + S.vectorBitSize() + "-bit";
+    }
+}
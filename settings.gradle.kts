@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "ChessGame"
 include(":app")
+include(":engine")
+include(":benchmarks")